@@ -0,0 +1,35 @@
+package com.aymeric.gamestore.cache;
+
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+
+/**
+ * Count the entries evicted and expired by Ehcache
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CacheEventMetricsListener implements CacheEventListener<Object, Object> {
+    
+    private final CacheStatistics statistics;
+    
+    /**
+     * @param statistics counters of the listened cache
+     */
+    public CacheEventMetricsListener(final CacheStatistics statistics) {
+        this.statistics = statistics;
+    }
+    
+    @Override
+    public void onEvent(final CacheEvent<?, ?> cacheEvent) {
+        switch (cacheEvent.getType()) {
+            case EVICTED:
+                statistics.evictions.increment();
+                break;
+            case EXPIRED:
+                statistics.expiries.increment();
+                break;
+            default:
+                break;
+        }
+    }
+}
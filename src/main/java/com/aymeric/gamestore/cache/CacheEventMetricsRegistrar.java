@@ -0,0 +1,42 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.EnumSet;
+
+import javax.annotation.PostConstruct;
+
+import org.ehcache.Cache;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Register an eviction and expiry counting listener on every Ehcache cache,
+ * Hibernate regions included. Events are delivered asynchronously and unordered to keep them off the request threads.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class CacheEventMetricsRegistrar {
+    
+    @Autowired
+    private javax.cache.CacheManager jCacheManager;
+    
+    @Autowired
+    private CacheMetrics cacheMetrics;
+    
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void registerListeners() {
+        for(String cacheName : jCacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = jCacheManager.getCache(cacheName).unwrap(Cache.class);
+            
+            cache.getRuntimeConfiguration().registerCacheEventListener(
+                    new CacheEventMetricsListener(cacheMetrics.forCache(cacheName)),
+                    EventOrdering.UNORDERED, 
+                    EventFiring.ASYNCHRONOUS, 
+                    EnumSet.of(EventType.EVICTED, EventType.EXPIRED));
+        }
+    }
+}
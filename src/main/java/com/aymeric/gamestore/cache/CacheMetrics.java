@@ -0,0 +1,37 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters of every cache: hits and misses are counted by the Spring cache decorator,
+ * evictions and expiries by an Ehcache listener and load latencies by the decorator, from a miss to the put of its key, and the multi gets.
+ * The single flight keeps its own counters: its groups are not all caches.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class CacheMetrics {
+    
+    private final ConcurrentMap<String, CacheStatistics> statisticsByCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the counters of a cache
+     * @param cacheName name of the cache
+     * @return counters of the cache
+     */
+    public CacheStatistics forCache(final String cacheName) {
+        return statisticsByCache.computeIfAbsent(cacheName, name -> new CacheStatistics());
+    }
+    
+    /**
+     * @return counters by cache name
+     */
+    public Map<String, CacheStatistics> getAll() {
+        return Collections.unmodifiableMap(statisticsByCache);
+    }
+}
@@ -0,0 +1,29 @@
+package com.aymeric.gamestore.cache;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decorate the Spring cache manager so that every cache operation is counted
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class CacheMetricsBeanPostProcessor implements BeanPostProcessor {
+    
+    private final CacheMetrics cacheMetrics;
+    
+    public CacheMetricsBeanPostProcessor(final CacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if(bean instanceof CacheManager && !(bean instanceof MetricsCacheManager)) {
+            return new MetricsCacheManager((CacheManager) bean, cacheMetrics);
+        }
+        
+        return bean;
+    }
+}
@@ -0,0 +1,114 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.stereotype.Component;
+
+import com.aymeric.gamestore.datasource.ReadConsistency;
+
+/**
+ * Read of many keys of a cache at once: the cached values are read with one bulk read of the JCache,
+ * the missing ones are loaded together by one load on the primary, then put in the cache with one bulk write.
+ * Caches that are not JCaches are read and written key by key.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class CacheMultiGet {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private CacheMetrics cacheMetrics;
+    
+    /**
+     * Get the values of keys from a cache, loading the missing ones
+     * @param cacheName name of the cache
+     * @param keys keys to get, duplicates being read once
+     * @param loader load of the missing keys, the keys not found being left out
+     * @param keyOf key of a loaded value
+     * @return the found values by key
+     */
+    public <K, V> Map<K, V> getAll(final String cacheName, final Collection<K> keys, final Function<Set<K>, Iterable<V>> loader, final Function<V, K> keyOf) {
+        Set<K> missing = new LinkedHashSet<>(keys);
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<K, V> values = cache == null ? new HashMap<>() : read(cache, missing);
+        missing.removeAll(values.keySet());
+        
+        if(missing.isEmpty()) {
+            return values;
+        }
+        
+        long start = System.nanoTime();
+        Map<K, V> loaded = new HashMap<>();
+        ReadConsistency.onPrimary(() -> loader.apply(missing)).forEach(value -> loaded.put(keyOf.apply(value), value));
+        cacheMetrics.forCache(cacheName).loads.record(System.nanoTime() - start);
+        
+        if(cache != null && !loaded.isEmpty()) {
+            write(cache, loaded);
+        }
+        
+        values.putAll(loaded);
+        
+        return values;
+    }
+    
+    /**
+     * @param cache cache to read
+     * @param keys keys to read
+     * @return the cached values by key
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> read(final Cache cache, final Set<K> keys) {
+        Map<K, V> values = new HashMap<>();
+        
+        if(cache.getNativeCache() instanceof javax.cache.Cache) {
+            ((javax.cache.Cache<K, Object>) cache.getNativeCache()).getAll(keys).forEach((key, value) -> {
+                if(!(value instanceof NullValue)) {
+                    values.put(key, (V) value);
+                }
+            });
+            
+            // Counted here as the decorator only sees the reads key by key
+            CacheStatistics statistics = cacheMetrics.forCache(cache.getName());
+            statistics.hits.add(values.size());
+            statistics.misses.add(keys.size() - values.size());
+        } else {
+            for(K key : keys) {
+                ValueWrapper value = cache.get(key);
+                
+                if(value != null && value.get() != null) {
+                    values.put(key, (V) value.get());
+                }
+            }
+        }
+        
+        return values;
+    }
+    
+    /**
+     * @param cache cache to write
+     * @param values values to put by key
+     */
+    private <K, V> void write(final Cache cache, final Map<K, V> values) {
+        if(cache.getNativeCache() instanceof javax.cache.Cache) {
+            @SuppressWarnings("unchecked")
+            javax.cache.Cache<K, V> nativeCache = (javax.cache.Cache<K, V>) cache.getNativeCache();
+            nativeCache.putAll(values);
+            cacheMetrics.forCache(cache.getName()).puts.add(values.size());
+        } else {
+            values.forEach(cache::put);
+        }
+    }
+}
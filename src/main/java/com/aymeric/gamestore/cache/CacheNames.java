@@ -0,0 +1,24 @@
+package com.aymeric.gamestore.cache;
+
+/**
+ * Names of the caches declared in ehcache.xml
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class CacheNames {
+    
+    /** Developers by id. */
+    public static final String DEVELOPER_BY_ID = "developerByIdCache";
+    
+    /** Editors by id. */
+    public static final String EDITOR_BY_ID = "editorByIdCache";
+    
+    /** Denormalized views of the games by id. */
+    public static final String GAME_VIEW_BY_ID = "gameViewByIdCache";
+    
+    /** Serialized bodies of the paged list endpoints. */
+    public static final String PAGE_RESPONSES = "pageResponseCache";
+    
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,78 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free counters of a cache
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CacheStatistics {
+    
+    final LongAdder hits = new LongAdder();
+    
+    final LongAdder misses = new LongAdder();
+    
+    final LongAdder puts = new LongAdder();
+    
+    /** Entries removed on purpose: evict and clear. */
+    final LongAdder removals = new LongAdder();
+    
+    /** Entries removed by the cache to respect its size. */
+    final LongAdder evictions = new LongAdder();
+    
+    /** Entries removed at the end of their time to live. */
+    final LongAdder expiries = new LongAdder();
+    
+    /** Time spent loading the missing values. */
+    final LatencyHistogram loads = new LatencyHistogram();
+    
+    /**
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * @return the puts
+     */
+    public long getPuts() {
+        return puts.sum();
+    }
+    
+    /**
+     * @return the removals
+     */
+    public long getRemovals() {
+        return removals.sum();
+    }
+    
+    /**
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * @return the expiries
+     */
+    public long getExpiries() {
+        return expiries.sum();
+    }
+    
+    /**
+     * @return the latencies of the loads
+     */
+    public LatencyHistogram getLoads() {
+        return loads;
+    }
+}
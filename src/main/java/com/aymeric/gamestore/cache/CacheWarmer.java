@@ -0,0 +1,102 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.service.DeveloperService;
+import com.aymeric.gamestore.service.EditorService;
+import com.aymeric.gamestore.service.GameReadModelService;
+
+/**
+ * Warm the caches up before the application is reported ready
+ * and reload the front pages and the hottest ids before they expire.
+ * Games are warmed from their denormalized views, the representation their endpoints serve.
+ * The services read what they cache from the primary, so a reload never caches the state of a late replica.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+    
+    /** Number of front pages to keep warm. */
+    @Value("${gamestore.cache.warm-up.pages:3}")
+    private int warmPages;
+    
+    /** Number of hottest ids of each cache to reload. */
+    @Value("${gamestore.cache.refresh.hot-ids:200}")
+    private int hotIds;
+    
+    @Autowired
+    private DeveloperService devService;
+    
+    @Autowired
+    private EditorService editorService;
+    
+    @Autowired
+    private GameReadModelService gameReadModelService;
+    
+    @Autowired
+    private HotKeys hotKeys;
+    
+    /**
+     * Load the front pages.
+     * Runners are called before the application is reported ready.
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        
+        for(int pageNumber = 0; pageNumber < warmPages; pageNumber++) {
+            // Pages are served from the Hibernate query cache
+            gameReadModelService.getGames(pageNumber);
+            devService.getAllDevelopers(pageNumber);
+            editorService.getAllEditors(pageNumber);
+        }
+        
+        logger.info("Caches warmed up with {} pages in {} ms", warmPages, System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Reload the ids requested since the last refresh.
+     * The delay is shorter than the time to live of the caches so hot entries never expire.
+     */
+    @Scheduled(initialDelayString = "${gamestore.cache.refresh.delay-ms:300000}", fixedDelayString = "${gamestore.cache.refresh.delay-ms:300000}")
+    public void refreshHotEntries() {
+        refreshIds(CacheNames.GAME_VIEW_BY_ID, gameReadModelService::refreshGameView);
+        refreshIds(CacheNames.DEVELOPER_BY_ID, devService::refreshDeveloperById);
+        refreshIds(CacheNames.EDITOR_BY_ID, editorService::refreshEditorById);
+    }
+    
+    /**
+     * Reload the hottest ids of a cache
+     * @param cacheName name of the cache
+     * @param refresh reload of an id
+     */
+    private void refreshIds(final String cacheName, final Consumer<UUID> refresh) {
+        List<UUID> ids = hotKeys.drainHottest(cacheName, hotIds);
+        
+        for(UUID id : ids) {
+            try {
+                refresh.accept(id);
+            } catch (GamestoreEntityException e) {
+                logger.debug("Hot id {} of {} no longer exists", id, cacheName);
+            }
+        }
+        
+        logger.debug("{} hot ids of {} refreshed", ids.size(), cacheName);
+    }
+}
@@ -0,0 +1,91 @@
+package com.aymeric.gamestore.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized body of a response, ready to be written as is
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CachedResponse implements Serializable {
+    
+    /** serialVersionUID */
+    private static final long serialVersionUID = -4829351186220531470L;
+    
+    /** Under this size the body is not worth compressing. */
+    private static final int MINIMAL_GZIP_SIZE = 1024;
+    
+    /** Content type of the body. */
+    private final String contentType;
+    
+    /** ETag of the body or null. */
+    private final String eTag;
+    
+    /** Raw body. */
+    private final byte[] body;
+    
+    /** Gzip compressed body or null if the body is too small. */
+    private final byte[] gzipBody;
+    
+    /**
+     * Create a cached response and compress its body if it is large enough
+     * @param contentType content type of the body
+     * @param eTag ETag of the body or null
+     * @param body raw body
+     */
+    public CachedResponse(final String contentType, final String eTag, final byte[] body) {
+        this.contentType = contentType;
+        this.eTag = eTag;
+        this.body = body;
+        this.gzipBody = body.length < MINIMAL_GZIP_SIZE ? null : gzip(body);
+    }
+    
+    /**
+     * @return the contentType
+     */
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * @return the ETag or null
+     */
+    public String getETag() {
+        return eTag;
+    }
+    
+    /**
+     * @return the body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+    
+    /**
+     * @return the gzip compressed body or null
+     */
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+    
+    /**
+     * Compress bytes with gzip
+     * @param bytes bytes to compress
+     * @return compressed bytes
+     */
+    private static byte[] gzip(final byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,56 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Generation number of the catalog.
+ * Every write on games, developers or editors bumps it. Cached pages are stored under the generation
+ * they have been loaded with: after a write they are no more reachable and age out of the cache
+ * without a global flush.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component("catalogGeneration")
+public class CatalogGeneration {
+    
+    /** Current generation of the catalog. */
+    private final AtomicLong generation = new AtomicLong();
+    
+    /** Start of this instance: generations restart from 0 on each start. */
+    private final long epoch = System.currentTimeMillis();
+    
+    /**
+     * @return the current generation
+     */
+    public long current() {
+        return generation.get();
+    }
+    
+    /**
+     * @return a tag of the current generation, unique across restarts
+     */
+    public String tag() {
+        return epoch + "-" + current();
+    }
+    
+    /**
+     * Start a new generation once the write is visible to readers:
+     * after the commit if a transaction is running, immediately otherwise.
+     */
+    public void bump() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+}
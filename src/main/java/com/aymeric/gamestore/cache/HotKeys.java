@@ -0,0 +1,68 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Count the requests on each id to find the hottest ones.
+ * The number of tracked ids is bounded and counters are reset each time the hottest ids are drained.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class HotKeys {
+    
+    /** Maximal number of ids tracked by cache. */
+    private static final int MAX_TRACKED_IDS = 10_000;
+    
+    /** Requests count by id, by cache. */
+    private final ConcurrentMap<String, ConcurrentMap<UUID, LongAdder>> countsByCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Record a request on an id
+     * @param cacheName cache of the id
+     * @param id requested id
+     */
+    public void record(final String cacheName, final UUID id) {
+        ConcurrentMap<UUID, LongAdder> counts = countsByCache.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        LongAdder count = counts.get(id);
+        
+        if(count == null) {
+            if(counts.size() >= MAX_TRACKED_IDS) {
+                return;
+            }
+            count = counts.computeIfAbsent(id, key -> new LongAdder());
+        }
+        
+        count.increment();
+    }
+    
+    /**
+     * Get the most requested ids since the last drain and reset the counters
+     * @param cacheName cache of the ids
+     * @param limit maximal number of ids
+     * @return the most requested ids, the hottest first
+     */
+    public List<UUID> drainHottest(final String cacheName, final int limit) {
+        ConcurrentMap<UUID, LongAdder> counts = countsByCache.remove(cacheName);
+        
+        if(counts == null) {
+            return Collections.emptyList();
+        }
+        
+        return counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<UUID, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies with power of two microseconds buckets
+ * @author Aymeric NEUMANN
+ *
+ */
+public class LatencyHistogram {
+    
+    /** Bucket i counts the latencies under 2^i microseconds, the last one counts everything above. */
+    private static final int BUCKETS = 25;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    
+    private final LongAdder totalMicros = new LongAdder();
+    
+    /**
+     * Record a latency
+     * @param nanos latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        
+        counts.incrementAndGet(bucket);
+        totalMicros.add(micros);
+    }
+    
+    /**
+     * @return number of recorded latencies
+     */
+    public long getCount() {
+        long count = 0;
+        
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += counts.get(bucket);
+        }
+        
+        return count;
+    }
+    
+    /**
+     * @return mean latency in microseconds, 0 without latency
+     */
+    public long getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : totalMicros.sum() / count;
+    }
+    
+    /**
+     * Get an upper bound of the latency under which the given ratio of the latencies are
+     * @param ratio ratio between 0 and 1, 0.99 for the 99th percentile
+     * @return upper bound in microseconds, 0 without latency
+     */
+    public long getPercentileMicros(final double ratio) {
+        long count = getCount();
+        long rank = (long) Math.ceil(count * ratio);
+        long seen = 0;
+        
+        for(int bucket = 0; bucket < BUCKETS && count > 0; bucket++) {
+            seen += counts.get(bucket);
+            if(seen >= rank) {
+                return upperBoundMicros(bucket);
+            }
+        }
+        
+        return 0;
+    }
+    
+    /**
+     * @return count of the non empty buckets by upper bound in microseconds
+     */
+    public Map<Long, Long> getBuckets() {
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = counts.get(bucket);
+            if(count > 0) {
+                buckets.put(upperBoundMicros(bucket), count);
+            }
+        }
+        
+        return buckets;
+    }
+    
+    /**
+     * @param bucket index of the bucket
+     * @return exclusive upper bound of the bucket in microseconds, Long.MAX_VALUE for the last one
+     */
+    private static long upperBoundMicros(final int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+}
@@ -0,0 +1,170 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Spring cache counting the operations of the cache it decorates.
+ * A miss followed by a put of the same key on the same thread is timed as a load:
+ * it is how the @Cacheable methods and the page response filter fill the cache.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class MetricsCache implements Cache {
+    
+    private final Cache cache;
+    
+    private final CacheStatistics statistics;
+    
+    /** Last miss of the current thread, until the loaded value is put. */
+    private final ThreadLocal<Miss> pendingMiss = new ThreadLocal<>();
+    
+    /**
+     * @param cache decorated cache
+     * @param statistics counters of the cache
+     */
+    public MetricsCache(final Cache cache, final CacheStatistics statistics) {
+        this.cache = cache;
+        this.statistics = statistics;
+    }
+    
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+    
+    @Override
+    public ValueWrapper get(final Object key) {
+        return count(key, cache.get(key));
+    }
+    
+    @Override
+    public <T> T get(final Object key, final Class<T> type) {
+        return count(key, cache.get(key, type));
+    }
+    
+    @Override
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        
+        T value = cache.get(key, () -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                statistics.loads.record(System.nanoTime() - start);
+            }
+        });
+        
+        if(loaded[0]) {
+            statistics.misses.increment();
+            statistics.puts.increment();
+        } else {
+            statistics.hits.increment();
+        }
+        
+        return value;
+    }
+    
+    @Override
+    public void put(final Object key, final Object value) {
+        cache.put(key, value);
+        statistics.puts.increment();
+        recordLoad(key);
+    }
+    
+    @Override
+    public ValueWrapper putIfAbsent(final Object key, final Object value) {
+        ValueWrapper existingValue = cache.putIfAbsent(key, value);
+        
+        if(existingValue == null) {
+            statistics.puts.increment();
+            recordLoad(key);
+        }
+        
+        return existingValue;
+    }
+    
+    @Override
+    public void evict(final Object key) {
+        cache.evict(key);
+        statistics.removals.increment();
+    }
+    
+    @Override
+    public boolean evictIfPresent(final Object key) {
+        boolean evicted = cache.evictIfPresent(key);
+        
+        if(evicted) {
+            statistics.removals.increment();
+        }
+        
+        return evicted;
+    }
+    
+    @Override
+    public void clear() {
+        cache.clear();
+        statistics.removals.increment();
+    }
+    
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = cache.invalidate();
+        statistics.removals.increment();
+        return invalidated;
+    }
+    
+    /**
+     * Count a lookup as a hit or a miss, a miss starting the timing of its load
+     * @param key key looked up
+     * @param value value found in the cache or null
+     * @return the value
+     */
+    private <T> T count(final Object key, final T value) {
+        if(value == null) {
+            statistics.misses.increment();
+            pendingMiss.set(new Miss(key, System.nanoTime()));
+        } else {
+            statistics.hits.increment();
+            pendingMiss.remove();
+        }
+        
+        return value;
+    }
+    
+    /**
+     * Time the load of a value put after a miss of its key on the current thread
+     * @param key key put
+     */
+    private void recordLoad(final Object key) {
+        Miss miss = pendingMiss.get();
+        
+        if(miss != null && miss.key.equals(key)) {
+            statistics.loads.record(System.nanoTime() - miss.start);
+            pendingMiss.remove();
+        }
+    }
+    
+    /**
+     * Key missed and start of its load
+     */
+    private static final class Miss {
+        
+        private final Object key;
+        
+        private final long start;
+        
+        private Miss(final Object key, final long start) {
+            this.key = key;
+            this.start = start;
+        }
+    }
+}
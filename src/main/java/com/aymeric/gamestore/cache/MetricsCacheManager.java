@@ -0,0 +1,52 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Cache manager decorating the caches of another manager with counters
+ * @author Aymeric NEUMANN
+ *
+ */
+public class MetricsCacheManager implements CacheManager {
+    
+    private final CacheManager cacheManager;
+    
+    private final CacheMetrics cacheMetrics;
+    
+    /** Decorated caches by name. */
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    
+    /**
+     * @param cacheManager decorated manager
+     * @param cacheMetrics counters of the caches
+     */
+    public MetricsCacheManager(final CacheManager cacheManager, final CacheMetrics cacheMetrics) {
+        this.cacheManager = cacheManager;
+        this.cacheMetrics = cacheMetrics;
+    }
+    
+    @Override
+    public Cache getCache(final String name) {
+        Cache cache = caches.get(name);
+        
+        if(cache == null) {
+            Cache targetCache = cacheManager.getCache(name);
+            if(targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, cacheName -> new MetricsCache(targetCache, cacheMetrics.forCache(cacheName)));
+        }
+        
+        return cache;
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return cacheManager.getCacheNames();
+    }
+}
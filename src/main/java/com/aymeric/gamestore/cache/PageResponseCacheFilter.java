@@ -0,0 +1,138 @@
+package com.aymeric.gamestore.cache;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.aymeric.gamestore.datasource.ReadConsistency;
+
+/**
+ * Cache the serialized body of the paged list endpoints.
+ * A hit is written straight to the response: no entity, no DTO and no JSON serialization.
+ * Bodies are stored under the current catalog generation so a write makes them unreachable.
+ * Missed pages are read from the primary: a late replica would store the page before the write under the new generation.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class PageResponseCacheFilter extends OncePerRequestFilter {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(PageResponseCacheFilter.class);
+    
+    /** Paged list endpoints. */
+    private static final Pattern PAGE_URI = Pattern.compile("^/(games|developers|editors)/\\d+$");
+    
+    private static final String GZIP = "gzip";
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) 
+                || !PAGE_URI.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+    }
+    
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        Cache cache = cacheManager.getCache(CacheNames.PAGE_RESPONSES);
+        
+        // The key is read before loading so that a page can never be stored under a newer generation
+        String key = responseKey(request);
+        CachedResponse cachedResponse = cache.get(key, CachedResponse.class);
+        
+        if(cachedResponse != null) {
+            logger.debug("Serving {} from the response cache", key);
+            write(request, response, cachedResponse);
+            return;
+        }
+        
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean primaryRequired = ReadConsistency.isPrimaryRequired();
+        ReadConsistency.requirePrimary(true);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            ReadConsistency.requirePrimary(primaryRequired);
+        }
+        
+        if(responseWrapper.getStatus() == HttpServletResponse.SC_OK) {
+            cache.put(key, new CachedResponse(responseWrapper.getContentType(), responseWrapper.getHeader(HttpHeaders.ETAG), 
+                    responseWrapper.getContentAsByteArray()));
+        }
+        
+        responseWrapper.copyBodyToResponse();
+    }
+    
+    /**
+     * Build the cache key of the request
+     * @param request the request
+     * @return the key
+     */
+    private String responseKey(final HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(64).append(catalogGeneration.current()).append(':').append(request.getRequestURI());
+        
+        if(request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        
+        return key.toString();
+    }
+    
+    /**
+     * Write the cached body, compressed if the client accepts it, or 304 if the client already has it
+     * @param request the request
+     * @param response the response to write to
+     * @param cachedResponse the cached body
+     * @throws IOException on write error
+     */
+    private void write(final HttpServletRequest request, final HttpServletResponse response, final CachedResponse cachedResponse) 
+            throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        String eTag = cachedResponse.getETag();
+        byte[] body = cachedResponse.getBody();
+        
+        if(cachedResponse.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains(GZIP)) {
+            body = cachedResponse.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            // A strong ETag identifies one representation: the compressed one gets its own
+            eTag = eTag == null ? null : eTag.substring(0, eTag.length() - 1) + "-" + GZIP + '"';
+        }
+        
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        
+        if(eTag != null) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            
+            if(ifNoneMatch != null && ("*".equals(ifNoneMatch.trim()) || ifNoneMatch.contains(eTag))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cachedResponse.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,223 @@
+package com.aymeric.gamestore.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapse concurrent loads of the same key: only the first caller runs the load,
+ * the others wait for its result instead of sending the same query to the database.
+ * Entities are never handed to another thread: the waiting callers only get their ids and read them
+ * in their own persistence context, from the second level cache the load has just filled.
+ * Flights are scoped to the catalog generation so that a caller arriving after a write
+ * never gets the result of a load started before it.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class SingleFlight {
+    
+    /** Loads in flight by group, generation and key. */
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    
+    /** Counters by group. */
+    private final ConcurrentMap<String, Counters> countersByGroup = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Load a value shared as is by the callers, such as projections, or wait for the load already in flight
+     * @param group group of the key, a cache or a query name
+     * @param key key to load
+     * @param loader load of the value, which must not be a managed entity
+     * @return the loaded value
+     */
+    public <T> T load(final String group, final Object key, final Supplier<T> loader) {
+        return load(group, key, loader, Function.identity(), Function.identity());
+    }
+    
+    /**
+     * Load an entity or wait for the load already in flight
+     * @param group group of the key, a cache or a query name
+     * @param key key to load
+     * @param type class of the entity
+     * @param loader load of the entity
+     * @return the loaded entity, managed by the persistence context of the caller
+     */
+    public <E> Optional<E> loadEntity(final String group, final Object key, final Class<E> type, final Supplier<Optional<E>> loader) {
+        return this.<Optional<E>, Optional<Object>>load(group, key, loader, entity -> entity.map(this::idOf), id -> id.map(entityId -> entityManager.find(type, entityId)));
+    }
+    
+    /**
+     * Load a list of entities or wait for the load already in flight
+     * @param group group of the key, a cache or a query name
+     * @param key key to load
+     * @param type class of the entities
+     * @param loader load of the entities
+     * @return the loaded entities in the same order, managed by the persistence context of the caller
+     */
+    public <E> List<E> loadEntities(final String group, final Object key, final Class<E> type, final Supplier<List<E>> loader) {
+        return this.<List<E>, List<Object>>load(group, key, loader, this::idsOf, ids -> find(type, ids));
+    }
+    
+    /**
+     * Load a page of entities or wait for the load already in flight
+     * @param group group of the key, a cache or a query name
+     * @param key key to load
+     * @param type class of the entities
+     * @param loader load of the page
+     * @return the loaded page, its entities being managed by the persistence context of the caller
+     */
+    public <E> Page<E> loadPage(final String group, final Object key, final Class<E> type, final Supplier<Page<E>> loader) {
+        return this.<Page<E>, Page<Object>>load(group, key, loader, 
+                page -> new PageImpl<>(idsOf(page.getContent()), page.getPageable(), page.getTotalElements()),
+                ids -> new PageImpl<>(find(type, ids.getContent()), ids.getPageable(), ids.getTotalElements()));
+    }
+    
+    /**
+     * Load the value of the key or wait for the load already in flight
+     * @param group group of the key, a cache or a query name
+     * @param key key to load
+     * @param loader load of the value
+     * @param share what the load hands to the waiting callers, built in the thread of the load
+     * @param receive value of a waiting caller, built in its own thread from what the load handed
+     * @return the loaded value
+     */
+    @SuppressWarnings("unchecked")
+    private <T, S> T load(final String group, final Object key, final Supplier<T> loader, final Function<T, S> share, final Function<S, T> receive) {
+        Counters counters = countersByGroup.computeIfAbsent(group, name -> new Counters());
+        List<Object> flightKey = Arrays.asList(group, catalogGeneration.current(), key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> flightInProgress = flights.putIfAbsent(flightKey, flight);
+        
+        if(flightInProgress != null) {
+            counters.collapsed.increment();
+            return receive.apply((S) await(flightInProgress));
+        }
+        
+        counters.loads.increment();
+        long start = System.nanoTime();
+        
+        try {
+            T value = loader.get();
+            flight.complete(share.apply(value));
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(flightKey, flight);
+            counters.latencies.record(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * @return number of loads run by group
+     */
+    public Map<String, Long> getLoads() {
+        Map<String, Long> loads = new ConcurrentHashMap<>();
+        countersByGroup.forEach((group, counters) -> loads.put(group, counters.loads.sum()));
+        return loads;
+    }
+    
+    /**
+     * @return number of loads collapsed into a load in flight by group
+     */
+    public Map<String, Long> getCollapsed() {
+        Map<String, Long> collapsed = new ConcurrentHashMap<>();
+        countersByGroup.forEach((group, counters) -> collapsed.put(group, counters.collapsed.sum()));
+        return collapsed;
+    }
+    
+    /**
+     * @return latencies of the loads run by group
+     */
+    public Map<String, LatencyHistogram> getLatencies() {
+        Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+        countersByGroup.forEach((group, counters) -> latencies.put(group, counters.latencies));
+        return latencies;
+    }
+    
+    /**
+     * @param entity an entity
+     * @return its id
+     */
+    private Object idOf(final Object entity) {
+        return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+    
+    /**
+     * @param entities entities
+     * @return their ids in the same order
+     */
+    private List<Object> idsOf(final List<?> entities) {
+        return entities.stream().map(this::idOf).collect(Collectors.toCollection(ArrayList::new));
+    }
+    
+    /**
+     * Read entities by id in the persistence context of the caller, the ones deleted since their load being skipped
+     * @param type class of the entities
+     * @param ids ids of the entities
+     * @return the entities in the order of their ids
+     */
+    private <E> List<E> find(final Class<E> type, final List<?> ids) {
+        return ids.stream().map(id -> entityManager.find(type, id)).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+    
+    /**
+     * Wait for a load in flight and rethrow its failure as is
+     * @param flight the load in flight
+     * @return the loaded value
+     */
+    private static Object await(final CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if(e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Counters of a group
+     */
+    private static class Counters {
+        
+        /** Loads run. */
+        private final LongAdder loads = new LongAdder();
+        
+        /** Loads collapsed into a load in flight. */
+        private final LongAdder collapsed = new LongAdder();
+        
+        /** Time spent running the loads, kept apart from the caches: most groups are queries, not caches. */
+        private final LatencyHistogram latencies = new LatencyHistogram();
+    }
+}
@@ -0,0 +1 @@
+package com.aymeric.gamestore.cache;
\ No newline at end of file
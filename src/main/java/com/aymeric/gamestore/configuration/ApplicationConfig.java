@@ -1,5 +1,6 @@
 package com.aymeric.gamestore.configuration;
 
+import org.hibernate.Hibernate;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,8 @@ public class ApplicationConfig {
     @Bean
     public ModelMapper modelMapper() {
        ModelMapper modelMapper = new ModelMapper();
+       // Cached entities are detached: never walk their lazy collections that have not been loaded
+       modelMapper.getConfiguration().setPropertyCondition(context -> Hibernate.isInitialized(context.getSource()));
        return modelMapper;
     }
 }
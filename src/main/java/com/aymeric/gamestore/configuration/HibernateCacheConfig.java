@@ -0,0 +1,24 @@
+package com.aymeric.gamestore.configuration;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second level and query cache configuration.
+ * Regions are served by the JCache manager built by Spring from ehcache.xml
+ * so that entity, collection and query regions are sized in the same file as the Spring caches.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Configuration
+public class HibernateCacheConfig {
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(final CacheManager jCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jCacheManager);
+    }
+}
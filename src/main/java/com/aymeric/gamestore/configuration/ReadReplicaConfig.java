@@ -0,0 +1,93 @@
+package com.aymeric.gamestore.configuration;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.aymeric.gamestore.datasource.ReadConsistencyFilter;
+import com.aymeric.gamestore.datasource.Replica;
+import com.aymeric.gamestore.datasource.ReplicaHealth;
+import com.aymeric.gamestore.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read replicas, enabled by gamestore.datasource.replicas.urls: the read only transactions of the services
+ * are sent to the replicas, the writes and the reads of a client that has just written to spring.datasource.
+ * Replicas use the user and password of spring.datasource.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "gamestore.datasource.replicas.urls")
+public class ReadReplicaConfig {
+    
+    @Value("${gamestore.datasource.replicas.urls}")
+    private String[] replicaUrls;
+    
+    @Value("${gamestore.datasource.replicas.max-lag-ms:10000}")
+    private long maxLagMs;
+    
+    @Value("${gamestore.datasource.replicas.health-check-ms:5000}")
+    private long healthCheckMs;
+    
+    /** Pools of the primary and the replicas, closed with the application. */
+    private ReplicaRoutingDataSource routing;
+    
+    /**
+     * The data source of JPA and JDBC: the connection is taken from the primary or a replica on the first statement,
+     * once the transaction is started and known to be read only or not.
+     * The routing data source is not a bean itself, Spring Boot would initialize it as a second data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(final DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        
+        List<Replica> replicas = new ArrayList<>();
+        for(int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(replicaUrls[i].trim()).build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replicas.add(new Replica(replica.getPoolName(), replica));
+        }
+        
+        routing = new ReplicaRoutingDataSource(primary, replicas);
+        routing.afterPropertiesSet();
+        
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @Bean
+    public ReplicaHealth replicaHealth(final DataSource dataSource) throws SQLException {
+        return new ReplicaHealth(dataSource.unwrap(ReplicaRoutingDataSource.class), maxLagMs);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<ReadConsistencyFilter> readConsistencyFilter(final DataSource dataSource) throws SQLException {
+        FilterRegistrationBean<ReadConsistencyFilter> registration = 
+                new FilterRegistrationBean<>(new ReadConsistencyFilter(dataSource.unwrap(ReplicaRoutingDataSource.class), healthCheckMs));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+    
+    @PreDestroy
+    public void close() throws Exception {
+        if(routing != null) {
+            routing.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.aymeric.gamestore.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.aymeric.gamestore.entity.UuidStorage;
+
+/**
+ * Storage of the ids: gamestore.id.storage is given to Hibernate which registers the matching id type.
+ * Switch to binary only once the tables have been converted by the id storage migration.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Configuration
+public class UuidStorageConfig {
+    
+    @Bean
+    public HibernatePropertiesCustomizer uuidStorageCustomizer(@Value("${" + UuidStorage.SETTING + ":char}") final String storage) {
+        return properties -> properties.put(UuidStorage.SETTING, storage);
+    }
+}
@@ -0,0 +1,65 @@
+package com.aymeric.gamestore.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.aymeric.gamestore.migration.UuidStorageMigration;
+
+/**
+ * Steps of the id storage migration, chosen with gamestore.id.migration:
+ * <ul>
+ * <li>backfill: copies the ids in binary in the background while the application serves in char storage</li>
+ * <li>switch-over: replaces the char columns before the persistence unit starts, to be run with gamestore.id.storage=binary</li>
+ * </ul>
+ * @author Aymeric NEUMANN
+ *
+ */
+@Configuration
+public class UuidStorageMigrationConfig {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(UuidStorageMigrationConfig.class);
+    
+    private static final String STEP = "gamestore.id.migration";
+    
+    @Autowired
+    private UuidStorageMigration migration;
+    
+    @Bean
+    @ConditionalOnProperty(name = STEP, havingValue = "backfill")
+    public ApplicationRunner uuidBackfill() {
+        return args -> {
+            Thread backfill = new Thread(() -> {
+                try {
+                    migration.backfill();
+                } catch (RuntimeException e) {
+                    logger.error("Backfill of the binary ids stopped, run it again to resume", e);
+                }
+            }, "uuid-backfill");
+            backfill.setDaemon(true);
+            backfill.start();
+        };
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = STEP, havingValue = "switch-over")
+    public InitializingBean uuidSwitchOver() {
+        return migration::switchOver;
+    }
+    
+    /**
+     * The switch over must be done before Hibernate reads or updates the schema
+     */
+    @Bean
+    @ConditionalOnProperty(name = STEP, havingValue = "switch-over")
+    public static EntityManagerFactoryDependsOnPostProcessor uuidSwitchOverBeforeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor("uuidSwitchOver");
+    }
+}
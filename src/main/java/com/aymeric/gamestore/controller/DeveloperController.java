@@ -4,6 +4,7 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.modelmapper.ModelMapper;
@@ -23,12 +24,22 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.HotKeys;
+import com.aymeric.gamestore.dto.ByIdResultDTO;
+import com.aymeric.gamestore.dto.CursorPageDTO;
 import com.aymeric.gamestore.dto.DeveloperDTO;
+import com.aymeric.gamestore.dto.DeveloperSummaryDTO;
 import com.aymeric.gamestore.dto.GameDevEditorRelationshipDTO;
+import com.aymeric.gamestore.dto.SearchResultDTO;
+import com.aymeric.gamestore.dto.SuggestionDTO;
 import com.aymeric.gamestore.entity.Developer;
 import com.aymeric.gamestore.entity.Editor;
 import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.repository.DeveloperSummary;
 import com.aymeric.gamestore.service.DeveloperService;
 import com.aymeric.gamestore.service.EditorService;
 
@@ -54,40 +65,136 @@ public class DeveloperController {
     @Autowired
     private ModelMapper modelMapper;
     
+    @Autowired
+    private HotKeys hotKeys;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
     /**
      * Get all developers by page
      * @param pageNumber number of the required page - 0 based count
+     * @param view full for the developers with their relationships, summary for their own columns only
+     * @param request the request, answered with 304 if the catalog has not changed since the client ETag
      * @return required page
      */
     @GetMapping(value = "/{pageNumber}")
-    public Page<DeveloperDTO> getAllDevelopers(@PathVariable("pageNumber") final Integer pageNumber){
+    public Page<?> getAllDevelopers(
+            @PathVariable("pageNumber") final Integer pageNumber,
+            @RequestParam(name = "view", defaultValue = Views.FULL) final String view,
+            final WebRequest request
+            ){
         logger.debug("Getting all developers at page: {}", pageNumber);
+        
+        boolean summary = Views.isSummary(view);
+        
+        if(ETags.checkNotModified(request, ETags.ofPage(Views.resource("developers", summary), pageNumber, catalogGeneration.tag()))) {
+            return null;
+        }
+        
+        if(summary) {
+            return devService.getDeveloperSummaries(pageNumber).map(this::convertToSummaryDTO);
+        }
+        
         return convertToDTOPage(devService.getAllDevelopers(pageNumber));
     }
     
     /**
      * Get all developers with a matching name
      * @param name name of the development company to find
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size maximum number of developers
+     * @param response response receiving the cursor of the next page in its X-Next-Cursor header
      * @return a list of matching development company or an empty list
      */
     @GetMapping("")
     public List<DeveloperDTO> getDevelopersByName(
             @RequestParam(name = "name") final String name,
-            @RequestParam(name = "search-mode", required = false) final String searchMode
+            @RequestParam(name = "search-mode", required = false) final String searchMode,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size,
+            final HttpServletResponse response
             ) {
         logger.debug("Getting all developpers named: {}", name);
-        return convertToDTOList(devService.getDeveloppersByName(name, searchMode));
+        return SeekPages.toDTOList(devService.getDeveloppersByName(name, searchMode, cursor, SeekPages.checkSize(size)), response, this::convertToDTOList);
+    }
+    
+    /**
+     * Get developpers by page in name alphabetical order, each page giving the cursor of the next one.
+     * Deep pages cost as much as the first one.
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size number of developpers per page
+     * @return the page of developpers
+     */
+    @GetMapping("/seek")
+    public CursorPageDTO<DeveloperDTO> getDevelopersAfter(
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size
+            ) {
+        return SeekPages.toDTO(devService.getDevelopersAfter(cursor, SeekPages.checkSize(size)), this::convertToDTOList);
+    }
+    
+    /**
+     * Search developpers by relevance on their names and names of owners
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size number of developpers per page
+     * @return the page of matching developpers
+     */
+    @GetMapping("/search")
+    public SearchResultDTO searchDevelopers(
+            @RequestParam(name = "q") final String text,
+            @RequestParam(name = "page", defaultValue = "0") final int page,
+            @RequestParam(name = "size", defaultValue = SearchResults.DEFAULT_SIZE) final int size
+            ) {
+        SearchResults.checkPage(page, size);
+        return SearchResults.toDTO(devService.searchDevelopers(text, page, size));
+    }
+    
+    /**
+     * Suggest developpers while typing: served from memory, the database is not read
+     * @param prefix start of a word of the name
+     * @param limit maximum number of suggestions
+     * @return the suggested developpers
+     */
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggestDevelopers(
+            @RequestParam(name = "prefix") final String prefix,
+            @RequestParam(name = "limit", defaultValue = Suggestions.DEFAULT_LIMIT) final int limit
+            ) {
+        return Suggestions.toDTOList(devService.suggestDevelopers(Suggestions.checkPrefix(prefix), Suggestions.checkLimit(limit)));
     }
     
     /**
      * Get the developer with the matching id
      * @param id id of the developer to get
+     * @param request the request, answered with 304 if the developer has not changed since the client ETag
      * @return the retrieved developer or ??
      */
     @GetMapping(value = "id/{id}")
-    public DeveloperDTO getDevelopersById(@PathVariable("id") final UUID id) {
+    public DeveloperDTO getDevelopersById(@PathVariable("id") final UUID id, final WebRequest request) {
         logger.debug("Getting the developper with the id: {}", id);
-        return convertToDTO(devService.getDeveloppersById(id));
+        hotKeys.record(CacheNames.DEVELOPER_BY_ID, id);
+        Developer dev = devService.getDeveloppersById(id);
+        
+        if(ETags.checkNotModified(request, ETags.of(dev))) {
+            return null;
+        }
+        
+        return convertToDTO(dev);
+    }
+    
+    /**
+     * Get the developers with the matching ids, the cached ones being read together and the others with one query
+     * @param ids ids of the developers to get, at most 100
+     * @return the result of every id in the same order, the ids without developer being marked as not found
+     */
+    @GetMapping(value = "/ids")
+    public List<ByIdResultDTO<DeveloperDTO>> getDevelopersByIds(@RequestParam(name = "ids") final List<UUID> ids) {
+        MultiGets.checkIds(ids);
+        ids.forEach(id -> hotKeys.record(CacheNames.DEVELOPER_BY_ID, id));
+        
+        return MultiGets.toDTOList(ids, devService.getDeveloppersByIds(ids), this::convertToDTO);
     }
     
     /**
@@ -179,6 +286,15 @@ public class DeveloperController {
     
     
     
+    /**
+     * Convert a developer summary to a DeveloperSummaryDTO
+     * @param summary summary to convert
+     * @return a DeveloperSummaryDTO
+     */
+    private DeveloperSummaryDTO convertToSummaryDTO(final DeveloperSummary summary) {
+        return modelMapper.map(summary, DeveloperSummaryDTO.class);
+    }
+    
     /**
      * Convert Developer Entity to DevelopperDTO class
      * @param dev Developer Entity to convert
@@ -205,7 +321,7 @@ public class DeveloperController {
     private Page<DeveloperDTO> convertToDTOPage(Page<Developer> devs) {
         Type pageType = new TypeToken<Page<DeveloperDTO>>() {}.getType();
         
-        return new ModelMapper().map(devs, pageType);
+        return modelMapper.map(devs, pageType);
     }
     
     /**
@@ -216,7 +332,7 @@ public class DeveloperController {
     private List<DeveloperDTO> convertToDTOList(List<Developer> devs) {
         Type pageType = new TypeToken<List<DeveloperDTO>>() {}.getType();
         
-        return new ModelMapper().map(devs, pageType);
+        return modelMapper.map(devs, pageType);
     }
     
     /**
@@ -227,6 +343,6 @@ public class DeveloperController {
     private List<Developer> convertToEnityList(List<DeveloperDTO> devs) {
         Type pageType = new TypeToken<List<Developer>>() {}.getType();
         
-        return new ModelMapper().map(devs, pageType);
+        return modelMapper.map(devs, pageType);
     }
 }
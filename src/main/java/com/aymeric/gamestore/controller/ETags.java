@@ -0,0 +1,86 @@
+package com.aymeric.gamestore.controller;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.GameReadModel;
+
+/**
+ * Build strong ETags from the versions of the entities, of the views of the games and of the catalog.
+ * Versions only grow: the ETag of a resource changes whenever it changes.
+ * @author Aymeric NEUMANN
+ *
+ */
+final class ETags {
+    
+    /** If-None-Match value matching any representation of an existing resource. */
+    private static final String ANY = "*";
+    
+    private ETags() {
+    }
+    
+    /**
+     * Check the If-None-Match header of a read against the ETag of the resource, answering 304 on a match.
+     * Spring compares the listed tags, weak ones included, but not "*": it is matched here, the resource having been read.
+     * @param request the request
+     * @param eTag ETag of the resource, also written to the response
+     * @return true if the client already has the resource and nothing else must be written
+     */
+    static boolean checkNotModified(final WebRequest request, final String eTag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        
+        HttpServletResponse response = request instanceof ServletWebRequest ? ((ServletWebRequest) request).getResponse() : null;
+        
+        if(ifNoneMatch != null && ANY.equals(ifNoneMatch.trim()) && response != null) {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        
+        return request.checkNotModified(eTag);
+    }
+    
+    /**
+     * @param resource name of the paged resource
+     * @param pageNumber number of the page
+     * @param catalogTag tag of the catalog generation
+     * @return the ETag of the page
+     */
+    static String ofPage(final String resource, final Integer pageNumber, final String catalogTag) {
+        return quote(resource + "-" + pageNumber + "-" + catalogTag);
+    }
+    
+    /**
+     * @param view view of a game
+     * @return the ETag of the game, its developers and its editors
+     */
+    static String of(final GameReadModel view) {
+        return quote("game-" + view.getId() + "-" + view.getVersion());
+    }
+    
+    /**
+     * @param dev a developer
+     * @return the ETag of the developer and its owner
+     */
+    static String of(final Developer dev) {
+        long ownerVersion = dev.getOwner() == null ? -1 : dev.getOwner().getVersion();
+        return quote("dev-" + dev.getId() + "-" + dev.getVersion() + "-" + ownerVersion);
+    }
+    
+    /**
+     * @param editor an editor
+     * @return the ETag of the editor
+     */
+    static String of(final Editor editor) {
+        return quote("editor-" + editor.getId() + "-" + editor.getVersion());
+    }
+    
+    private static String quote(final String value) {
+        return '"' + value + '"';
+    }
+}
@@ -4,6 +4,7 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.modelmapper.ModelMapper;
@@ -19,9 +20,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.HotKeys;
+import com.aymeric.gamestore.dto.ByIdResultDTO;
+import com.aymeric.gamestore.dto.CursorPageDTO;
 import com.aymeric.gamestore.dto.EditorDTO;
+import com.aymeric.gamestore.dto.EditorSummaryDTO;
+import com.aymeric.gamestore.dto.SearchResultDTO;
+import com.aymeric.gamestore.dto.SuggestionDTO;
 import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.repository.EditorSummary;
 import com.aymeric.gamestore.service.EditorService;
 
 @RestController
@@ -34,37 +45,132 @@ public class EditorController {
     @Autowired
     private ModelMapper modelMapper;
     
+    @Autowired
+    private HotKeys hotKeys;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
     /**
      * Get all editors by page - TEST OK
      * @param pageNumber number of the required page - 0 based count
+     * @param view full for the editors with their relationships, summary for their own columns only
+     * @param request the request, answered with 304 if the catalog has not changed since the client ETag
      * @return required page
      */
     @GetMapping(value = "/{pageNumber}")
-    public Page<EditorDTO> getAllEditors(@PathVariable("pageNumber") final Integer pageNumber) {
+    public Page<?> getAllEditors(
+            @PathVariable("pageNumber") final Integer pageNumber,
+            @RequestParam(name = "view", defaultValue = Views.FULL) final String view,
+            final WebRequest request
+            ) {
+        boolean summary = Views.isSummary(view);
+        
+        if(ETags.checkNotModified(request, ETags.ofPage(Views.resource("editors", summary), pageNumber, catalogGeneration.tag()))) {
+            return null;
+        }
+        
+        if(summary) {
+            return editorService.getEditorSummaries(pageNumber).map(this::convertToSummaryDTO);
+        }
+        
         return convertToDTOPage(editorService.getAllEditors(pageNumber));
     }
     
     /**
      * Get all editors with a matching name - TEST OK
      * @param name name of the editor(s) to find
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size maximum number of editors
+     * @param response response receiving the cursor of the next page in its X-Next-Cursor header
      * @return a list of matching editors or an empty list
      */
     @GetMapping("")
     public List<EditorDTO> getEditorsByName(
             @RequestParam(name = "name") final String name,
-            @RequestParam(name = "search-mode", required = false) final String searchMode
+            @RequestParam(name = "search-mode", required = false) final String searchMode,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size,
+            final HttpServletResponse response
             ){
-        return convertToDTOList(editorService.getEditorsByName(name, searchMode));
+        return SeekPages.toDTOList(editorService.getEditorsByName(name, searchMode, cursor, SeekPages.checkSize(size)), response, this::convertToDTOList);
+    }
+    
+    /**
+     * Get editors by page in name alphabetical order, each page giving the cursor of the next one.
+     * Deep pages cost as much as the first one.
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size number of editors per page
+     * @return the page of editors
+     */
+    @GetMapping("/seek")
+    public CursorPageDTO<EditorDTO> getEditorsAfter(
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size
+            ) {
+        return SeekPages.toDTO(editorService.getEditorsAfter(cursor, SeekPages.checkSize(size)), this::convertToDTOList);
+    }
+    
+    /**
+     * Search editors by relevance on their names
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size number of editors per page
+     * @return the page of matching editors
+     */
+    @GetMapping("/search")
+    public SearchResultDTO searchEditors(
+            @RequestParam(name = "q") final String text,
+            @RequestParam(name = "page", defaultValue = "0") final int page,
+            @RequestParam(name = "size", defaultValue = SearchResults.DEFAULT_SIZE) final int size
+            ) {
+        SearchResults.checkPage(page, size);
+        return SearchResults.toDTO(editorService.searchEditors(text, page, size));
+    }
+    
+    /**
+     * Suggest editors while typing: served from memory, the database is not read
+     * @param prefix start of a word of the name
+     * @param limit maximum number of suggestions
+     * @return the suggested editors
+     */
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggestEditors(
+            @RequestParam(name = "prefix") final String prefix,
+            @RequestParam(name = "limit", defaultValue = Suggestions.DEFAULT_LIMIT) final int limit
+            ) {
+        return Suggestions.toDTOList(editorService.suggestEditors(Suggestions.checkPrefix(prefix), Suggestions.checkLimit(limit)));
     }
     
     /**
      * Get the editor with the matching id - TEST OK
      * @param id id of the editor to get
+     * @param request the request, answered with 304 if the editor has not changed since the client ETag
      * @return the retrieved editor or ??
      */
     @GetMapping(value = "id/{id}")
-    public EditorDTO getEditorById(@PathVariable("id") final UUID id) {
-        return convertToDto(editorService.getEditorById(id));
+    public EditorDTO getEditorById(@PathVariable("id") final UUID id, final WebRequest request) {
+        hotKeys.record(CacheNames.EDITOR_BY_ID, id);
+        Editor editor = editorService.getEditorById(id);
+        
+        if(ETags.checkNotModified(request, ETags.of(editor))) {
+            return null;
+        }
+        
+        return convertToDto(editor);
+    }
+    
+    /**
+     * Get the editors with the matching ids, the cached ones being read together and the others with one query
+     * @param ids ids of the editors to get, at most 100
+     * @return the result of every id in the same order, the ids without editor being marked as not found
+     */
+    @GetMapping(value = "/ids")
+    public List<ByIdResultDTO<EditorDTO>> getEditorsByIds(@RequestParam(name = "ids") final List<UUID> ids) {
+        MultiGets.checkIds(ids);
+        ids.forEach(id -> hotKeys.record(CacheNames.EDITOR_BY_ID, id));
+        
+        return MultiGets.toDTOList(ids, editorService.getEditorsByIds(ids), this::convertToDto);
     }
     
     /**
@@ -105,6 +211,15 @@ public class EditorController {
     
     
     
+    /**
+     * Convert a editor summary to a EditorSummaryDTO
+     * @param summary summary to convert
+     * @return a EditorSummaryDTO
+     */
+    private EditorSummaryDTO convertToSummaryDTO(final EditorSummary summary) {
+        return modelMapper.map(summary, EditorSummaryDTO.class);
+    }
+    
     /**
      * Convert Editor Entity to EditorDTO class
      * @param editor Editor Entity to convert
@@ -131,7 +246,7 @@ public class EditorController {
     private Page<EditorDTO> convertToDTOPage(Page<Editor> editors) {
         Type pageType = new TypeToken<Page<EditorDTO>>() {}.getType();
         
-        return new ModelMapper().map(editors, pageType);
+        return modelMapper.map(editors, pageType);
     }
     
     /**
@@ -142,7 +257,7 @@ public class EditorController {
     private List<EditorDTO> convertToDTOList(List<Editor> editors) {
         Type pageType = new TypeToken<List<EditorDTO>>() {}.getType();
         
-        return new ModelMapper().map(editors, pageType);
+        return modelMapper.map(editors, pageType);
     }
     
     /**
@@ -153,6 +268,6 @@ public class EditorController {
     private List<Editor> convertToEntityList(List<EditorDTO> editors) {
         Type pageType = new TypeToken<List<Editor>>() {}.getType();
         
-        return new ModelMapper().map(editors, pageType);
+        return modelMapper.map(editors, pageType);
     }
 }
@@ -0,0 +1,38 @@
+package com.aymeric.gamestore.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+/**
+ * Stream written to an emitter, every write being sent as a chunk of bytes.
+ * Meant to be buffered: each chunk is flushed to the client.
+ * @author Aymeric NEUMANN
+ *
+ */
+final class EmitterOutputStream extends OutputStream {
+    
+    private final ResponseBodyEmitter emitter;
+    
+    private final MediaType mediaType;
+    
+    EmitterOutputStream(final ResponseBodyEmitter emitter, final MediaType mediaType) {
+        this.emitter = emitter;
+        this.mediaType = mediaType;
+    }
+    
+    @Override
+    public void write(final int b) throws IOException {
+        emitter.send(new byte[] { (byte) b }, mediaType);
+    }
+    
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if(len > 0) {
+            emitter.send(Arrays.copyOfRange(b, off, off + len), mediaType);
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package com.aymeric.gamestore.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,16 +44,39 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.HotKeys;
+import com.aymeric.gamestore.datasource.ReadConsistency;
+import com.aymeric.gamestore.dto.ByIdResultDTO;
+import com.aymeric.gamestore.dto.CursorPageDTO;
+import com.aymeric.gamestore.dto.GameBulkLinkDTO;
 import com.aymeric.gamestore.dto.GameDTO;
 import com.aymeric.gamestore.dto.GameDevEditorRelationshipDTO;
-import com.aymeric.gamestore.entity.Developer;
-import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.dto.GameLinkDTO;
+import com.aymeric.gamestore.dto.GameSummaryDTO;
+import com.aymeric.gamestore.dto.ImportReportDTO;
+import com.aymeric.gamestore.dto.SearchResultDTO;
+import com.aymeric.gamestore.dto.SuggestionDTO;
 import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.entity.GameReadModel;
+import com.aymeric.gamestore.exception.GamestoreEntityException;
 import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
-import com.aymeric.gamestore.service.DeveloperService;
-import com.aymeric.gamestore.service.EditorService;
+import com.aymeric.gamestore.repository.GameSummary;
+import com.aymeric.gamestore.service.GameImportService;
+import com.aymeric.gamestore.service.GameLink;
+import com.aymeric.gamestore.service.GameLinkService;
+import com.aymeric.gamestore.service.GameReadModelService;
 import com.aymeric.gamestore.service.GameService;
+import com.aymeric.gamestore.service.ImportReport;
+import com.aymeric.gamestore.service.LinkStatus;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 
 import io.swagger.annotations.ApiOperation;
 
@@ -48,60 +93,233 @@ public class GameController {
     /** Logback logger reference. */
     private static final Logger logger = LoggerFactory.getLogger(GameController.class);
     
+    /** Newline delimited JSON: one game per line. */
+    private static final String NDJSON = "application/x-ndjson";
+    
+    /** Bytes of the export sent to the client at once. */
+    private static final int EXPORT_CHUNK_SIZE = 64 * 1024;
+    
+    /** Time given to an export of the whole catalog. */
+    @Value("${gamestore.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+    
     /** Game service reference. */
     @Autowired
     private GameService gameService;
     
-    /** Developper service reference. */
     @Autowired
-    private DeveloperService devService;
+    private ModelMapper modelMapper;
     
-    /** Editor service reference. */
     @Autowired
-    private EditorService editorService;
+    private ObjectMapper objectMapper;
     
     @Autowired
-    private ModelMapper modelMapper;
+    private Validator validator;
+    
+    /** Game import service reference. */
+    @Autowired
+    private GameImportService gameImportService;
+    
+    /** Game link service reference. */
+    @Autowired
+    private GameLinkService gameLinkService;
+    
+    /** Game read model reference. */
+    @Autowired
+    private GameReadModelService gameReadModelService;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private HotKeys hotKeys;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
         
     /**
      * Get all games by page - TEST OK
      * @param pageNumber number of the required page - 0 based count
+     * @param view full for the games with their relationships, read from their denormalized views, summary for their own columns only
+     * @param request the request, answered with 304 if the catalog has not changed since the client ETag
      * @return required page
      */
     @GetMapping(value = "/{pageNumber}")
     @ApiOperation(value = "Get all games", notes = "Getting all games - paged result", response = Game[].class)
-    public Page<GameDTO> getAllGames(@PathVariable("pageNumber") final Integer pageNumber) {
+    public Page<?> getAllGames(
+            @PathVariable("pageNumber") final Integer pageNumber,
+            @RequestParam(name = "view", defaultValue = Views.FULL) final String view,
+            final WebRequest request
+            ) {
         
         logger.debug("Getting all games at page: {}", pageNumber);
         
-        return convertToDTOPage(gameService.getAllGames(pageNumber));
+        boolean summary = Views.isSummary(view);
+        
+        if(ETags.checkNotModified(request, ETags.ofPage(Views.resource("games", summary), pageNumber, catalogGeneration.tag()))) {
+            return null;
+        }
+        
+        if(summary) {
+            return gameService.getGameSummaries(pageNumber).map(this::convertToSummaryDTO);
+        }
+        
+        return gameReadModelService.getGames(pageNumber).map(GameController::toJson);
     }
     
     /**
      * Get all games with a matching title - TEST OK
      * @param title title of the game(s) to find
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size maximum number of games
+     * @param response response receiving the cursor of the next page in its X-Next-Cursor header
      * @return a list of matching games or an empty list
      */
     @GetMapping("")
     @ApiOperation(value = "Get games by title", notes = "Getting all games with matching title", response = Game[].class)
     public List<GameDTO> getGamesByTitle(
             @RequestParam(name = "title") final String title,
-            @RequestParam(name = "searchMode", required = false) final String searchMode
+            @RequestParam(name = "searchMode", required = false) final String searchMode,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size,
+            final HttpServletResponse response
             ) {
         logger.debug("Getting all games titled: {}", title);
-        return convertToDTOList(gameService.getGamesByTile(title, searchMode));
+        return SeekPages.toDTOList(gameService.getGamesByTile(title, searchMode, cursor, SeekPages.checkSize(size)), response, this::convertToDTOList);
+    }
+    
+    /**
+     * Get games by page in title alphabetical order, each page giving the cursor of the next one.
+     * Deep pages cost as much as the first one.
+     * @param cursor cursor of the previous page, none for the first page
+     * @param size number of games per page
+     * @return the page of games
+     */
+    @GetMapping("/seek")
+    @ApiOperation(value = "Get games after a cursor", notes = "Getting the games following the cursor in title order - paged result without count", response = CursorPageDTO.class)
+    public CursorPageDTO<GameDTO> getGamesAfter(
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = SeekPages.DEFAULT_SIZE) final int size
+            ) {
+        return SeekPages.toDTO(gameService.getGamesAfter(cursor, SeekPages.checkSize(size)), this::convertToDTOList);
+    }
+    
+    /**
+     * Export all games with their developers and editors, one JSON game per line.
+     * Games are written while they are read from the database: the whole catalog is never held in memory.
+     * The export runs on the task executor with its own timeout, the other asynchronous requests keeping the default one.
+     * @return the streamed games
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    @ApiOperation(value = "Export all games", notes = "Streaming all games with their developers and editors as newline delimited JSON")
+    public ResponseEntity<ResponseBodyEmitter> exportGames() {
+        MediaType ndjson = MediaType.parseMediaType(NDJSON);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMs);
+        // An export of a client that has just written reads from the primary on the executor too
+        Supplier<Long> export = ReadConsistency.propagate(() -> {
+            try(OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter, ndjson), EXPORT_CHUNK_SIZE)) {
+                return gameService.exportGames(game -> writeLine(out, convertToDto(game)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        
+        taskExecutor.execute(() -> {
+            long start = System.currentTimeMillis();
+            
+            try {
+                long exported = export.get();
+                emitter.complete();
+                logger.info("Exported {} games in {} ms", exported, System.currentTimeMillis() - start);
+            } catch (UncheckedIOException | IllegalStateException e) {
+                // The client is gone or the export timed out
+                logger.warn("Export of the games stopped after {} ms: {}", System.currentTimeMillis() - start, e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        
+        return ResponseEntity.ok().contentType(ndjson).body(emitter);
+    }
+    
+    /**
+     * Search games by relevance on their titles and names of developpers and editors
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size number of games per page
+     * @return the page of matching games
+     */
+    @GetMapping("/search")
+    @ApiOperation(value = "Search games", notes = "Getting the games matching the words by relevance - paged result", response = SearchResultDTO.class)
+    public SearchResultDTO searchGames(
+            @RequestParam(name = "q") final String text,
+            @RequestParam(name = "page", defaultValue = "0") final int page,
+            @RequestParam(name = "size", defaultValue = SearchResults.DEFAULT_SIZE) final int size
+            ) {
+        SearchResults.checkPage(page, size);
+        return SearchResults.toDTO(gameService.searchGames(text, page, size));
+    }
+    
+    /**
+     * Suggest games while typing: served from memory, the database is not read
+     * @param prefix start of a word of the title
+     * @param limit maximum number of suggestions
+     * @return the suggested games
+     */
+    @GetMapping("/suggest")
+    @ApiOperation(value = "Suggest games", notes = "Getting the games with a word of their title starting with the prefix", response = SuggestionDTO[].class)
+    public List<SuggestionDTO> suggestGames(
+            @RequestParam(name = "prefix") final String prefix,
+            @RequestParam(name = "limit", defaultValue = Suggestions.DEFAULT_LIMIT) final int limit
+            ) {
+        return Suggestions.toDTOList(gameService.suggestGames(Suggestions.checkPrefix(prefix), Suggestions.checkLimit(limit)));
     }
     
     /**
      * Get the game with the matching id - TEST OK
+     * The game is read from its denormalized view, written from its tables if missing.
+     * The view is only written for an existing game: an unknown id is answered without a write.
+     * A cached view is checked against the client ETag without reading the database.
      * @param id id of the game to get
+     * @param request the request, answered with 304 if the game has not changed since the client ETag
      * @return the retrieved game or ??
      */
     @GetMapping(value = "id/{id}")
     @ApiOperation(value = "Get game by Id", notes = "Getting the game with the matching id", response = Game.class)
-    public GameDTO getGameById(@PathVariable("id") final UUID id) {
+    public RawValue getGameById(@PathVariable("id") final UUID id, final WebRequest request) {
         logger.debug("Getting game with the id: {}", id);
-        return convertToDto(gameService.getGameById(id));
+        hotKeys.record(CacheNames.GAME_VIEW_BY_ID, id);
+        GameReadModel view = gameReadModelService.getGame(id).orElseGet(() -> writeView(id));
+        
+        if(ETags.checkNotModified(request, ETags.of(view))) {
+            return null;
+        }
+        
+        return toJson(view);
+    }
+    
+    /**
+     * Get the games with the matching ids, read from their denormalized views with one query.
+     * Missing views are only written for the games that exist: unknown ids are answered without a write.
+     * @param ids ids of the games to get, at most 100
+     * @return the result of every id in the same order, the ids without game being marked as not found
+     */
+    @GetMapping(value = "/ids")
+    @ApiOperation(value = "Get games by ids", notes = "Getting the games with the matching ids, in the same order", response = ByIdResultDTO[].class)
+    public List<ByIdResultDTO<RawValue>> getGamesByIds(@RequestParam(name = "ids") final List<UUID> ids) {
+        MultiGets.checkIds(ids);
+        Map<UUID, GameReadModel> views = gameReadModelService.getGames(ids);
+        List<UUID> missing = ids.stream().filter(id -> !views.containsKey(id)).distinct().collect(Collectors.toList());
+        
+        if(!missing.isEmpty()) {
+            Set<UUID> existing = gameService.findExistingGames(missing);
+            
+            if(!existing.isEmpty()) {
+                views.putAll(gameReadModelService.refreshGameViews(existing));
+            }
+        }
+        
+        return MultiGets.toDTOList(ids, views, GameController::toJson);
     }
     
     /**
@@ -131,6 +349,29 @@ public class GameController {
         return convertToDTOList(gameService.createGames(gamesEntities));
     }
     
+    /**
+     * Import games from NDJSON, one game per line, or from CSV lines of a title and a release date (yyyy-MM-dd) with an optional header.
+     * The content is read, validated and committed by chunks: a rejected row is reported with its line and does not fail the others.
+     * @param request the request, its body being the content to import
+     * @return the report of the import
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = { NDJSON, GameImports.CSV })
+    @ApiOperation(value = "Import games", notes = "Importing games from NDJSON or CSV, committed by chunks", response = ImportReportDTO.class)
+    public ImportReportDTO importGames(final HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(GameImports.CSV));
+        Function<String, GameDTO> parser = csv ? GameImports::fromCsv : this::readJson;
+        
+        try(BufferedReader body = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            ImportReport report = gameImportService.importGames(body, line -> {
+                GameDTO game = parser.apply(line);
+                return game == null ? null : convertToValidEntity(game);
+            });
+            
+            return modelMapper.map(report, ImportReportDTO.class);
+        }
+    }
+    
     /**
      * Update the game
      * @param game game to update
@@ -144,86 +385,62 @@ public class GameController {
     
     /**
      * Add a developer for a game - TEST OK
+     * Only the relationship is inserted: the game and the developer are not loaded, their existence is checked by the database.
      * @param gameId id of the game to add the developer to
      * @param infos GameDevEditorRelationshipDTO containing id of the game and of the developer
-     * @return updated game
+     * @return the ids and LINKED, or ALREADY_LINKED if the game already had the developer
      */
     @PutMapping("/{id}/developper")
-    @ApiOperation(value = "Add a developer to a game", notes = "Adding a developer to a game", response = Game.class)
-    public GameDTO addDevToGame(@PathVariable("id") final UUID id, @RequestBody @Valid GameDevEditorRelationshipDTO infos) {
-        if(!id.equals(infos.getGameId())) {
-            throw new GamestoreInvalidParameterException("URL parameter doesn't not match with the request body");
-        }
+    @ApiOperation(value = "Add a developer to a game", notes = "Adding a developer to a game", response = GameLinkDTO.class)
+    public GameLinkDTO addDevToGame(@PathVariable("id") final UUID id, @RequestBody @Valid GameDevEditorRelationshipDTO infos) {
         checkIdEquality(id, infos);
+        checkTargetId(infos.getDevId(), "developper");
         
-        Game updatedGame = null;
-        StringBuilder errorMsg = new StringBuilder();
-        boolean isGameExist = gameService.gameExistById(infos.getGameId());
-        boolean isDevExist = devService.developperExistById(infos.getDevId());
-                
-        if(isGameExist && isDevExist) {
-            Developer dev = devService.getDeveloppersById(infos.getDevId());
-            updatedGame = gameService.addDevToGame(infos.getGameId(), dev);
-        } 
-        
-        if(!isGameExist) {
-            String message = String.format("Cannot found a game with this id: %s", infos.getGameId());
-            errorMsg.append(message);
-            logger.info(message);
-        }
-        if(!isDevExist) {
-            String message = String.format("Cannot found a developper with this id: %s", infos.getDevId());
-            errorMsg.append(message);
-            logger.info(message);
-        }
+        LinkStatus status = gameService.linkDeveloper(id, infos.getDevId());
+        checkLinked(status, id, infos.getDevId(), "developper");
         
-        if(!isGameExist || !isDevExist) {
-            throw new GamestoreInvalidParameterException(errorMsg.toString());
-        }
-        
-        return convertToDto(updatedGame);
+        return convertToLinkDTO(id, infos.getDevId(), null, status);
     }
     
     /**
      * Add a editor for a game - TEST OK
+     * Only the relationship is inserted: the game and the editor are not loaded, their existence is checked by the database.
      * @param gameId id of the game to add the editor to
-     * @param devId id of the editor to add
-     * @return updated game
+     * @param infos GameDevEditorRelationshipDTO containing id of the game and of the editor
+     * @return the ids and LINKED, or ALREADY_LINKED if the game already had the editor
      */
     @PutMapping("/{id}/editor")
-    @ApiOperation(value = "Add an editor to a game", notes = "Adding an editor to a game", response = Game.class)
-    public GameDTO addEditorToGame(
+    @ApiOperation(value = "Add an editor to a game", notes = "Adding an editor to a game", response = GameLinkDTO.class)
+    public GameLinkDTO addEditorToGame(
             @PathVariable("id") final UUID id, 
             @RequestBody @Valid GameDevEditorRelationshipDTO infos
             ) {
         checkIdEquality(id, infos);
+        checkTargetId(infos.getEditorId(), "editor");
         
-        Game updatedGame = null;
-        StringBuilder errorMsg = new StringBuilder();
-        boolean isGameExist = gameService.gameExistById(infos.getGameId());
-        boolean isEditorExist = editorService.editorExistById(infos.getEditorId());
-                        
-        if(isGameExist && isEditorExist) {
-            Editor editor = editorService.getEditorById(infos.getEditorId());
-            updatedGame = gameService.addEditorToGame(infos.getGameId(), editor);
-        }
+        LinkStatus status = gameService.linkEditor(id, infos.getEditorId());
+        checkLinked(status, id, infos.getEditorId(), "editor");
         
-        if(!isGameExist) {
-            String message = String.format("Cannot found a game with this id: %s", infos.getGameId());
-            errorMsg.append(message);
-            logger.info(message);
-        }
-        if(!isEditorExist) {
-            String message = String.format("Cannot found a editor with this id: %s", infos.getEditorId());
-            errorMsg.append(message);
-            logger.info(message);
-        }
+        return convertToLinkDTO(id, null, infos.getEditorId(), status);
+    }
+    
+    /**
+     * Add developers and editors to many games at once
+     * The ids are checked and the relationships inserted by chunks, with one query per table:
+     * a missing game, developer or editor or an existing relationship is reported in the result of its link and does not fail the others.
+     * @param links GameDevEditorRelationshipDTO list, each one containing the id of a game and of a developer, of an editor or of both
+     * @return the result of each link, in the same order
+     */
+    @PostMapping("/links")
+    @ApiOperation(value = "Add developers and editors to games", notes = "Adding developers and editors to many games at once", response = GameBulkLinkDTO[].class)
+    public List<GameBulkLinkDTO> linkGames(@RequestBody @Valid final List<GameDevEditorRelationshipDTO> links) {
+        List<GameLink> toLink = new ArrayList<>(links.size());
         
-        if(!isGameExist || !isEditorExist) {
-            throw new GamestoreInvalidParameterException(errorMsg.toString());
+        for(int i = 0; i < links.size(); i++) {
+            toLink.add(convertToLink(i, links.get(i)));
         }
         
-        return convertToDto(updatedGame);
+        return gameLinkService.linkGames(toLink).stream().map(GameController::convertToBulkLinkDTO).collect(Collectors.toList());
     }
     
     /**
@@ -237,6 +454,19 @@ public class GameController {
         return gameService.deleteGame(id);
     }
         
+    /**
+     * Write the missing view of a game, once checked that the game exists
+     * @param id id of the game
+     * @return the written view or GamestoreEntityException if the game does not exist
+     */
+    private GameReadModel writeView(final UUID id) {
+        if(!gameService.gameExistById(id)) {
+            throw new GamestoreEntityException(String.format("Cannot found a game with this id: %s", id));
+        }
+        
+        return gameReadModelService.refreshGame(id);
+    }
+    
     /**
      * Check if the game id passed in the URL parameters and in the request body are equals
      * @param gameId id of the game passed in the URL parameters
@@ -248,6 +478,104 @@ public class GameController {
         }
     }
     
+    /**
+     * Check that the id of the developper or editor to add is given
+     * @param targetId id of the developper or editor
+     * @param target name of the relationship, for the message
+     */
+    private void checkTargetId(final UUID targetId, final String target) {
+        if(targetId == null) {
+            throw new GamestoreInvalidParameterException(String.format("The id of the %s to add is missing", target));
+        }
+    }
+    
+    /**
+     * Refuse the addition of a relationship to a game or a developper or editor that does not exist
+     * @param status result of the addition
+     * @param gameId id of the game
+     * @param targetId id of the developper or editor
+     * @param target name of the relationship, for the message
+     */
+    private void checkLinked(final LinkStatus status, final UUID gameId, final UUID targetId, final String target) {
+        if(status == LinkStatus.GAME_NOT_FOUND) {
+            throw new GamestoreInvalidParameterException(String.format("Cannot found a game with this id: %s", gameId));
+        }
+        if(status == LinkStatus.TARGET_NOT_FOUND) {
+            throw new GamestoreInvalidParameterException(String.format("Cannot found a %s with this id: %s", target, targetId));
+        }
+    }
+    
+    /**
+     * Convert a GameDevEditorRelationshipDTO of a batch to a GameLink
+     * @param index position of the link in the batch, for the message
+     * @param infos GameDevEditorRelationshipDTO to convert
+     * @return a GameLink or GamestoreInvalidParameterException if the game or both the developer and the editor are missing
+     */
+    private static GameLink convertToLink(final int index, final GameDevEditorRelationshipDTO infos) {
+        if(infos.getGameId() == null) {
+            throw new GamestoreInvalidParameterException(String.format("The id of the game of the link %d is missing", index));
+        }
+        if(infos.getDevId() == null && infos.getEditorId() == null) {
+            throw new GamestoreInvalidParameterException(String.format("The link %d has no developper nor editor to add", index));
+        }
+        
+        return new GameLink(infos.getGameId(), infos.getDevId(), infos.getEditorId());
+    }
+    
+    /**
+     * Read a game from a line of JSON
+     * @param line line to read
+     * @return the game or GamestoreInvalidParameterException if the line is not a JSON game
+     */
+    private GameDTO readJson(final String line) {
+        try {
+            return objectMapper.readValue(line, GameDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new GamestoreInvalidParameterException(String.format("Invalid JSON: %s", e.getOriginalMessage()));
+        }
+    }
+    
+    /**
+     * Validate an imported game
+     * @param gameDTO imported game
+     * @return the game as entity or GamestoreInvalidParameterException listing its invalid fields
+     */
+    private Game convertToValidEntity(final GameDTO gameDTO) {
+        Set<ConstraintViolation<GameDTO>> violations = validator.validate(gameDTO);
+        
+        if(!violations.isEmpty()) {
+            throw new GamestoreInvalidParameterException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        
+        return convertToEntity(gameDTO);
+    }
+    
+    /**
+     * Write a game as a line of JSON
+     * @param out stream of the response
+     * @param game game to write
+     */
+    private void writeLine(final OutputStream out, final GameDTO game) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(game));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Convert a game summary to a GameSummaryDTO
+     * @param summary summary to convert
+     * @return a GameSummaryDTO
+     */
+    private GameSummaryDTO convertToSummaryDTO(final GameSummary summary) {
+        return modelMapper.map(summary, GameSummaryDTO.class);
+    }
+    
     /**
      * Convert Game Entity to GameDTO class
      * @param game Game Entity to convert
@@ -257,6 +585,40 @@ public class GameController {
         return modelMapper.map(game, GameDTO.class);
     }
     
+    /**
+     * Convert the result of the addition of a relationship to a GameLinkDTO
+     * @param gameId id of the game
+     * @param devId id of the added developper, null for an editor
+     * @param editorId id of the added editor, null for a developper
+     * @param status result of the addition
+     * @return a GameLinkDTO
+     */
+    private static GameLinkDTO convertToLinkDTO(final UUID gameId, final UUID devId, final UUID editorId, final LinkStatus status) {
+        GameLinkDTO link = new GameLinkDTO();
+        link.setGameId(gameId);
+        link.setDevId(devId);
+        link.setEditorId(editorId);
+        link.setStatus(status.name());
+        
+        return link;
+    }
+    
+    /**
+     * Convert the result of a link of a batch to a GameBulkLinkDTO
+     * @param link link with its results
+     * @return a GameBulkLinkDTO
+     */
+    private static GameBulkLinkDTO convertToBulkLinkDTO(final GameLink link) {
+        GameBulkLinkDTO result = new GameBulkLinkDTO();
+        result.setGameId(link.getGameId());
+        result.setDevId(link.getDevId());
+        result.setEditorId(link.getEditorId());
+        result.setDevStatus(link.getDevStatus() == null ? null : link.getDevStatus().name());
+        result.setEditorStatus(link.getEditorStatus() == null ? null : link.getEditorStatus().name());
+        
+        return result;
+    }
+    
     /**
      * Convert GameDTO class to a Game Entity
      * @param gameDTO GameDTO to convert
@@ -267,14 +629,12 @@ public class GameController {
     }
     
     /**
-     * Convert Game Entities page to GameDTO page
-     * @param games page of Game Entities to convert
-     * @return a Page of GameDTO
+     * Wrap the document of a game view to be written as is in the response
+     * @param view view of the game
+     * @return the JSON of the game
      */
-    private Page<GameDTO> convertToDTOPage(final Page<Game> games) {
-        Type pageType = new TypeToken<Page<GameDTO>>() {}.getType();
-        
-        return new ModelMapper().map(games, pageType);
+    private static RawValue toJson(final GameReadModel view) {
+        return new RawValue(view.getDocument());
     }
     
     /**
@@ -285,7 +645,7 @@ public class GameController {
     private List<GameDTO> convertToDTOList(final List<Game> games) {
         Type pageType = new TypeToken<List<GameDTO>>() {}.getType();
         
-        return new ModelMapper().map(games, pageType);
+        return modelMapper.map(games, pageType);
     }
     
     /**
@@ -296,6 +656,6 @@ public class GameController {
     private List<Game> convertToEntityList(final List<GameDTO> games) {
         Type pageType = new TypeToken<List<Game>>() {}.getType();
         
-        return new ModelMapper().map(games, pageType);
+        return modelMapper.map(games, pageType);
     }
 }
@@ -0,0 +1,70 @@
+package com.aymeric.gamestore.controller;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import com.aymeric.gamestore.dto.GameDTO;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+
+/**
+ * CSV rows of the game imports: a title and a release date, yyyy-MM-dd, separated by a comma.
+ * The title may be quoted, a quote inside a quoted title being doubled.
+ * @author Aymeric NEUMANN
+ *
+ */
+final class GameImports {
+    
+    /** Media type of the CSV imports. */
+    static final String CSV = "text/csv";
+    
+    /** Optional first line of the CSV imports. */
+    private static final String CSV_HEADER = "title,releaseDate";
+    
+    private GameImports() {
+    }
+    
+    /**
+     * @param line a CSV line
+     * @return the game of the line, null for the header, or GamestoreInvalidParameterException if the line is malformed
+     */
+    static GameDTO fromCsv(final String line) {
+        if(CSV_HEADER.equalsIgnoreCase(line.trim())) {
+            return null;
+        }
+        
+        // The date has no comma: the title ends at the last one
+        int separator = line.lastIndexOf(',');
+        
+        if(separator < 0) {
+            throw new GamestoreInvalidParameterException("Expected a title and a release date separated by a comma");
+        }
+        
+        GameDTO game = new GameDTO();
+        game.setTitle(unquote(line.substring(0, separator).trim()));
+        game.setReleaseDate(parseDate(line.substring(separator + 1).trim()));
+        
+        return game;
+    }
+    
+    private static String unquote(final String value) {
+        if(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        
+        return value;
+    }
+    
+    private static Date parseDate(final String value) {
+        if(value.isEmpty()) {
+            return null;
+        }
+        
+        try {
+            return Date.from(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new GamestoreInvalidParameterException(String.format("Invalid release date %s, expected yyyy-MM-dd", value));
+        }
+    }
+}
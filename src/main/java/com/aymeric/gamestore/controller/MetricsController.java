@@ -0,0 +1,139 @@
+package com.aymeric.gamestore.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aymeric.gamestore.cache.CacheMetrics;
+import com.aymeric.gamestore.cache.CacheStatistics;
+import com.aymeric.gamestore.cache.LatencyHistogram;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.dto.CacheRegionStatisticsDTO;
+import com.aymeric.gamestore.dto.CacheStatisticsDTO;
+import com.aymeric.gamestore.dto.SingleFlightStatisticsDTO;
+
+/**
+ * Expose caches metrics
+ * @author Aymeric NEUMANN
+ *
+ */
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    
+    /** Name of the region holding the query results. */
+    private static final String QUERY_CACHE = "default-query-results-region";
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private SingleFlight singleFlight;
+    
+    @Autowired
+    private CacheMetrics cacheMetrics;
+    
+    /**
+     * Get the counters and load latencies of every cache.
+     * Hits and misses are counted for the Spring caches, Hibernate regions have theirs on /metrics/hibernate.
+     * @return counters of each cache
+     */
+    @GetMapping("/caches")
+    public List<CacheStatisticsDTO> getCacheStatistics() {
+        List<CacheStatisticsDTO> caches = new ArrayList<>();
+        
+        for(Map.Entry<String, CacheStatistics> entry : cacheMetrics.getAll().entrySet()) {
+            CacheStatistics statistics = entry.getValue();
+            LatencyHistogram loads = statistics.getLoads();
+            CacheStatisticsDTO cache = new CacheStatisticsDTO();
+            cache.setName(entry.getKey());
+            cache.setHits(statistics.getHits());
+            cache.setMisses(statistics.getMisses());
+            cache.setPuts(statistics.getPuts());
+            cache.setRemovals(statistics.getRemovals());
+            cache.setEvictions(statistics.getEvictions());
+            cache.setExpiries(statistics.getExpiries());
+            cache.setLoadCount(loads.getCount());
+            cache.setLoadMeanMicros(loads.getMeanMicros());
+            cache.setLoadP50Micros(loads.getPercentileMicros(0.5));
+            cache.setLoadP99Micros(loads.getPercentileMicros(0.99));
+            cache.setLoadHistogram(loads.getBuckets());
+            caches.add(cache);
+        }
+        
+        return caches;
+    }
+    
+    /**
+     * Get the statistics of the Hibernate second level cache regions, query cache regions included
+     * @return statistics of each region
+     */
+    @GetMapping("/hibernate")
+    public List<CacheRegionStatisticsDTO> getHibernateCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatisticsDTO> regions = new ArrayList<>();
+        
+        for(String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            
+            if(regionStatistics == null) {
+                continue;
+            }
+            
+            CacheRegionStatisticsDTO region = new CacheRegionStatisticsDTO();
+            region.setRegion(regionName);
+            region.setHitCount(regionStatistics.getHitCount());
+            region.setMissCount(regionStatistics.getMissCount());
+            region.setPutCount(regionStatistics.getPutCount());
+            region.setElementCountInMemory(regionStatistics.getElementCountInMemory());
+            regions.add(region);
+        }
+        
+        CacheRegionStatisticsDTO queryCache = new CacheRegionStatisticsDTO();
+        queryCache.setRegion(QUERY_CACHE);
+        queryCache.setHitCount(statistics.getQueryCacheHitCount());
+        queryCache.setMissCount(statistics.getQueryCacheMissCount());
+        queryCache.setPutCount(statistics.getQueryCachePutCount());
+        queryCache.setElementCountInMemory(-1);
+        regions.add(queryCache);
+        
+        return regions;
+    }
+    
+    /**
+     * Get the number of loads run and collapsed by the single flight of each group, and the latencies of the loads run
+     * @return counters of each group
+     */
+    @GetMapping("/single-flight")
+    public List<SingleFlightStatisticsDTO> getSingleFlightStatistics() {
+        Map<String, Long> collapsedByGroup = singleFlight.getCollapsed();
+        Map<String, LatencyHistogram> latenciesByGroup = singleFlight.getLatencies();
+        List<SingleFlightStatisticsDTO> groups = new ArrayList<>();
+        
+        for(Map.Entry<String, Long> loads : singleFlight.getLoads().entrySet()) {
+            SingleFlightStatisticsDTO group = new SingleFlightStatisticsDTO();
+            group.setGroup(loads.getKey());
+            group.setLoads(loads.getValue());
+            group.setCollapsed(collapsedByGroup.getOrDefault(loads.getKey(), 0L));
+            LatencyHistogram latencies = latenciesByGroup.get(loads.getKey());
+            if(latencies != null) {
+                group.setLoadMeanMicros(latencies.getMeanMicros());
+                group.setLoadP50Micros(latencies.getPercentileMicros(0.5));
+                group.setLoadP99Micros(latencies.getPercentileMicros(0.99));
+            }
+            groups.add(group);
+        }
+        
+        return groups;
+    }
+}
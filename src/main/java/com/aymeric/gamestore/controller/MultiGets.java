@@ -0,0 +1,54 @@
+package com.aymeric.gamestore.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.aymeric.gamestore.dto.ByIdResultDTO;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+
+/**
+ * Parameters and conversion of the reads of many ids at once
+ * @author Aymeric NEUMANN
+ *
+ */
+final class MultiGets {
+    
+    /** Maximum number of ids of a read. */
+    private static final int MAX_IDS = 100;
+    
+    private MultiGets() {
+    }
+    
+    /**
+     * @param ids requested ids
+     * @return the ids or GamestoreInvalidParameterException if there are none or too many
+     */
+    static List<UUID> checkIds(final List<UUID> ids) {
+        if(ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new GamestoreInvalidParameterException(String.format("Between 1 and %d ids must be requested", MAX_IDS));
+        }
+        
+        return ids;
+    }
+    
+    /**
+     * @param ids requested ids, in the order of the answer
+     * @param found found elements by id
+     * @param convert conversion of the elements to DTO
+     * @return the result of every requested id, in the same order, the ids not found being marked as such
+     */
+    static <E, D> List<ByIdResultDTO<D>> toDTOList(final List<UUID> ids, final Map<UUID, E> found, final Function<E, D> convert) {
+        return ids.stream().map(id -> {
+            ByIdResultDTO<D> result = new ByIdResultDTO<>();
+            E element = found.get(id);
+            result.setId(id);
+            result.setFound(element != null);
+            result.setElement(element == null ? null : convert.apply(element));
+            
+            return result;
+        }).collect(Collectors.toList());
+    }
+}
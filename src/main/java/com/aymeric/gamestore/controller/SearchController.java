@@ -0,0 +1,50 @@
+package com.aymeric.gamestore.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aymeric.gamestore.dto.CatalogSearchResultDTO;
+import com.aymeric.gamestore.search.CatalogSearchResult;
+import com.aymeric.gamestore.service.CatalogSearchService;
+
+import io.swagger.annotations.ApiOperation;
+
+/**
+ * Search the whole catalog in one request
+ * @author Aymeric NEUMANN
+ *
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    
+    @Autowired
+    private CatalogSearchService catalogSearchService;
+    
+    /**
+     * Search games, developpers and editors at once
+     * @param text words to find
+     * @param gameLimit maximum number of games, 0 to skip the games
+     * @param devLimit maximum number of developpers, 0 to skip the developpers
+     * @param editorLimit maximum number of editors, 0 to skip the editors
+     * @return the matches grouped by type, with the best ones of every type merged by relevance
+     */
+    @GetMapping("")
+    @ApiOperation(value = "Search the catalog", notes = "Getting the games, developpers and editors matching the words", response = CatalogSearchResultDTO.class)
+    public CatalogSearchResultDTO search(
+            @RequestParam(name = "q") final String text,
+            @RequestParam(name = "games", defaultValue = SearchResults.DEFAULT_SECTION_LIMIT) final int gameLimit,
+            @RequestParam(name = "developers", defaultValue = SearchResults.DEFAULT_SECTION_LIMIT) final int devLimit,
+            @RequestParam(name = "editors", defaultValue = SearchResults.DEFAULT_SECTION_LIMIT) final int editorLimit
+            ) {
+        CatalogSearchResult result = catalogSearchService.search(text,
+                SearchResults.checkSectionLimit("games", gameLimit),
+                SearchResults.checkSectionLimit("developers", devLimit),
+                SearchResults.checkSectionLimit("editors", editorLimit));
+        
+        return SearchResults.toDTO(result, Math.max(gameLimit, Math.max(devLimit, editorLimit)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.aymeric.gamestore.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.aymeric.gamestore.dto.CatalogHitDTO;
+import com.aymeric.gamestore.dto.CatalogSearchResultDTO;
+import com.aymeric.gamestore.dto.SearchHitDTO;
+import com.aymeric.gamestore.dto.SearchResultDTO;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.search.CatalogSearchResult;
+import com.aymeric.gamestore.search.SearchHit;
+import com.aymeric.gamestore.search.SearchResult;
+
+/**
+ * Parameters and conversion of the search endpoints
+ * @author Aymeric NEUMANN
+ *
+ */
+final class SearchResults {
+    
+    /** Default number of hits per page. */
+    static final String DEFAULT_SIZE = "20";
+    
+    /** Maximum number of hits per page. */
+    private static final int MAX_SIZE = 100;
+    
+    /** Default number of hits of each section of a catalog search. */
+    static final String DEFAULT_SECTION_LIMIT = "5";
+    
+    /** Maximum number of hits of each section of a catalog search. */
+    private static final int MAX_SECTION_LIMIT = 50;
+    
+    /** Deepest hit that can be paged to, every hit before it being ranked for each page. */
+    private static final int MAX_DEPTH = 10000;
+    
+    private SearchResults() {
+    }
+    
+    /**
+     * Check the page parameters
+     * @param page number of the page, 0 based
+     * @param size number of hits per page
+     * @throws GamestoreInvalidParameterException if the page is out of range
+     */
+    static void checkPage(final int page, final int size) {
+        if(size < 1 || size > MAX_SIZE) {
+            throw new GamestoreInvalidParameterException(String.format("The size must be between 1 and %d", MAX_SIZE));
+        }
+        
+        if(page < 0 || (long) (page + 1) * size > MAX_DEPTH) {
+            throw new GamestoreInvalidParameterException(String.format("Only the first %d hits can be paged", MAX_DEPTH));
+        }
+    }
+    
+    /**
+     * Check the limit of a section of a catalog search
+     * @param section name of the section
+     * @param limit maximum number of hits of the section, 0 to skip it
+     * @return the limit or GamestoreInvalidParameterException if out of range
+     */
+    static int checkSectionLimit(final String section, final int limit) {
+        if(limit < 0 || limit > MAX_SECTION_LIMIT) {
+            throw new GamestoreInvalidParameterException(String.format("The limit of %s must be between 0 and %d", section, MAX_SECTION_LIMIT));
+        }
+        
+        return limit;
+    }
+    
+    /**
+     * Group the sections of a catalog search and merge their hits by relevance.
+     * The scores of different types come from different queries and cannot be compared as they are:
+     * each hit is merged with its score relative to the best hit of its type.
+     * @param result results of each type
+     * @param bestLimit maximum number of merged hits
+     * @return the results as DTO
+     */
+    static CatalogSearchResultDTO toDTO(final CatalogSearchResult result, final int bestLimit) {
+        List<CatalogHitDTO> best = new ArrayList<>();
+        addHits(best, "game", result.getGames());
+        addHits(best, "developer", result.getDevelopers());
+        addHits(best, "editor", result.getEditors());
+        best.sort(Comparator.comparing(CatalogHitDTO::getScore).reversed());
+        
+        CatalogSearchResultDTO dto = new CatalogSearchResultDTO();
+        dto.setBest(best.size() > bestLimit ? new ArrayList<>(best.subList(0, bestLimit)) : best);
+        dto.setGames(toDTO(result.getGames()));
+        dto.setDevelopers(toDTO(result.getDevelopers()));
+        dto.setEditors(toDTO(result.getEditors()));
+        dto.setPartial(result.isPartial());
+        
+        return dto;
+    }
+    
+    /**
+     * @param result page of the search index
+     * @return the page as DTO
+     */
+    static SearchResultDTO toDTO(final SearchResult result) {
+        List<SearchHitDTO> hits = new ArrayList<>(result.getHits().size());
+        
+        for(SearchHit hit : result.getHits()) {
+            SearchHitDTO dto = new SearchHitDTO();
+            dto.setId(hit.getId());
+            dto.setLabel(hit.getLabel());
+            dto.setScore(hit.getScore());
+            hits.add(dto);
+        }
+        
+        SearchResultDTO dto = new SearchResultDTO();
+        dto.setPage(result.getPage());
+        dto.setSize(result.getSize());
+        dto.setTotalHits(result.getTotalHits());
+        dto.setHits(hits);
+        
+        return dto;
+    }
+    
+    private static void addHits(final List<CatalogHitDTO> best, final String type, final SearchResult result) {
+        float maxScore = (float) result.getHits().stream().mapToDouble(SearchHit::getScore).max().orElse(0);
+        
+        for(SearchHit hit : result.getHits()) {
+            CatalogHitDTO dto = new CatalogHitDTO();
+            dto.setType(type);
+            dto.setId(hit.getId());
+            dto.setLabel(hit.getLabel());
+            dto.setScore(maxScore > 0 ? hit.getScore() / maxScore : 0);
+            best.add(dto);
+        }
+    }
+}
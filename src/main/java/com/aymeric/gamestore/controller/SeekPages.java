@@ -0,0 +1,71 @@
+package com.aymeric.gamestore.controller;
+
+import java.util.List;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.aymeric.gamestore.dto.CursorPageDTO;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.service.CursorPage;
+
+/**
+ * Parameters and conversion of the pages read after a cursor
+ * @author Aymeric NEUMANN
+ *
+ */
+final class SeekPages {
+    
+    /** Default number of elements per page, as the numbered pages. */
+    static final String DEFAULT_SIZE = "50";
+    
+    /** Maximum number of elements per page. */
+    private static final int MAX_SIZE = 100;
+    
+    /** Header of the cursor of the next page, when the page is answered as a plain list. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
+    private SeekPages() {
+    }
+    
+    /**
+     * @param size requested number of elements
+     * @return the size or GamestoreInvalidParameterException if out of range
+     */
+    static int checkSize(final int size) {
+        if(size < 1 || size > MAX_SIZE) {
+            throw new GamestoreInvalidParameterException(String.format("The size must be between 1 and %d", MAX_SIZE));
+        }
+        
+        return size;
+    }
+    
+    /**
+     * @param page page of entities
+     * @param convert conversion of the entities to DTO
+     * @return the page as DTO
+     */
+    static <E, D> CursorPageDTO<D> toDTO(final CursorPage<E> page, final Function<List<E>, List<D>> convert) {
+        CursorPageDTO<D> dto = new CursorPageDTO<>();
+        dto.setContent(convert.apply(page.getContent()));
+        dto.setSize(page.getContent().size());
+        dto.setNextCursor(page.getNextCursor());
+        
+        return dto;
+    }
+    
+    /**
+     * Convert a page answered as a plain list, its next cursor being set in the NEXT_CURSOR_HEADER header
+     * @param page page of entities
+     * @param response response receiving the header
+     * @param convert conversion of the entities to DTO
+     * @return the entities of the page as DTO
+     */
+    static <E, D> List<D> toDTOList(final CursorPage<E> page, final HttpServletResponse response, final Function<List<E>, List<D>> convert) {
+        if(page.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        
+        return convert.apply(page.getContent());
+    }
+}
@@ -0,0 +1,66 @@
+package com.aymeric.gamestore.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aymeric.gamestore.dto.SuggestionDTO;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.search.Suggestion;
+
+/**
+ * Parameters and conversion of the suggestion endpoints
+ * @author Aymeric NEUMANN
+ *
+ */
+final class Suggestions {
+    
+    /** Default number of suggestions. */
+    static final String DEFAULT_LIMIT = "10";
+    
+    /** Maximum number of suggestions. */
+    private static final int MAX_LIMIT = 50;
+    
+    private Suggestions() {
+    }
+    
+    /**
+     * @param prefix requested prefix
+     * @return the prefix or GamestoreInvalidParameterException if blank: it would suggest the whole catalog
+     */
+    static String checkPrefix(final String prefix) {
+        if(prefix == null || prefix.trim().isEmpty()) {
+            throw new GamestoreInvalidParameterException("The prefix must not be blank");
+        }
+        
+        return prefix;
+    }
+    
+    /**
+     * @param limit requested number of suggestions
+     * @return the limit or GamestoreInvalidParameterException if out of range
+     */
+    static int checkLimit(final int limit) {
+        if(limit < 1 || limit > MAX_LIMIT) {
+            throw new GamestoreInvalidParameterException(String.format("The limit must be between 1 and %d", MAX_LIMIT));
+        }
+        
+        return limit;
+    }
+    
+    /**
+     * @param suggestions suggestions of the search index
+     * @return the suggestions as DTO
+     */
+    static List<SuggestionDTO> toDTOList(final List<Suggestion> suggestions) {
+        List<SuggestionDTO> dtos = new ArrayList<>(suggestions.size());
+        
+        for(Suggestion suggestion : suggestions) {
+            SuggestionDTO dto = new SuggestionDTO();
+            dto.setId(suggestion.getId());
+            dto.setLabel(suggestion.getLabel());
+            dtos.add(dto);
+        }
+        
+        return dtos;
+    }
+}
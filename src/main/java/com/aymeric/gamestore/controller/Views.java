@@ -0,0 +1,41 @@
+package com.aymeric.gamestore.controller;
+
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+
+/**
+ * Views of the paged list endpoints: full entities with their relationships, or summaries of their own columns
+ * @author Aymeric NEUMANN
+ *
+ */
+final class Views {
+    
+    /** Entities with their relationships, the default view. */
+    static final String FULL = "full";
+    
+    /** Own columns of the entities only, read without loading their relationships. */
+    static final String SUMMARY = "summary";
+    
+    private Views() {
+    }
+    
+    /**
+     * @param view requested view
+     * @return true for the summary view, false for the full view or GamestoreInvalidParameterException if unknown
+     */
+    static boolean isSummary(final String view) {
+        if(!FULL.equals(view) && !SUMMARY.equals(view)) {
+            throw new GamestoreInvalidParameterException(String.format("The view must be %s or %s", FULL, SUMMARY));
+        }
+        
+        return SUMMARY.equals(view);
+    }
+    
+    /**
+     * @param resource name of the paged resource
+     * @param summary true for the summary view
+     * @return name of the resource in this view, for its ETags
+     */
+    static String resource(final String resource, final boolean summary) {
+        return summary ? resource + "-" + SUMMARY : resource;
+    }
+}
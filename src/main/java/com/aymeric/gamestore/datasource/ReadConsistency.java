@@ -0,0 +1,75 @@
+package com.aymeric.gamestore.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads of the current thread that must see the writes already done: they are sent to the primary
+ * even in a read only transaction. Set for the requests of a client that has just written,
+ * and for the loads filling a cache: a value read from a late replica would be cached as current.
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class ReadConsistency {
+    
+    private static final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+    
+    private ReadConsistency() {
+    }
+    
+    /**
+     * @return true if the reads of the current thread must be done on the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(primaryRequired.get());
+    }
+    
+    /**
+     * @param required true to read from the primary until {@link #clear()}
+     */
+    public static void requirePrimary(final boolean required) {
+        primaryRequired.set(required);
+    }
+    
+    /**
+     * Forget the requirement of the current thread, at the end of its request
+     */
+    public static void clear() {
+        primaryRequired.remove();
+    }
+    
+    /**
+     * Run a load on the primary, whatever the client.
+     * Must be called before the first statement of the transaction, which binds its connection.
+     * @param load load filling a cache
+     * @return the loaded value
+     */
+    public static <T> T onPrimary(final Supplier<T> load) {
+        Boolean previous = primaryRequired.get();
+        primaryRequired.set(true);
+        try {
+            return load.get();
+        } finally {
+            primaryRequired.set(previous);
+        }
+    }
+    
+    /**
+     * Carry the requirement of the current thread to a task run on another thread
+     * @param task task to run
+     * @return the task run with the requirement of the calling thread
+     */
+    public static <T> Supplier<T> propagate(final Supplier<T> task) {
+        boolean required = isPrimaryRequired();
+        
+        return () -> {
+            Boolean previous = primaryRequired.get();
+            primaryRequired.set(required);
+            try {
+                return task.get();
+            } finally {
+                // Restored rather than cleared: the task may be run by the calling thread
+                primaryRequired.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.aymeric.gamestore.datasource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Read your own writes: after a write, the reads of the same client are sent to the primary
+ * until the replicas have caught up. The deadline is kept by the client in a cookie
+ * so that any instance of the application can honour it.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+    
+    /** Cookie holding the time until which the reads of the client go to the primary. */
+    public static final String COOKIE = "gamestore-read-primary-until";
+    
+    private static final List<String> READ_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS");
+    
+    private final ReplicaRoutingDataSource routing;
+    
+    /** Resolution of the measured lag, added to it. */
+    private final long healthCheckMs;
+    
+    public ReadConsistencyFilter(final ReplicaRoutingDataSource routing, final long healthCheckMs) {
+        this.routing = routing;
+        this.healthCheckMs = healthCheckMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        
+        if(write) {
+            // Set before the body is written, the response could be committed afterwards
+            long stickyMs = routing.getMaxLagMs() + healthCheckMs;
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + stickyMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (stickyMs + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        
+        ReadConsistency.requirePrimary(write || primaryUntil(request) > now);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+    
+    private static long primaryUntil(final HttpServletRequest request) {
+        if(request.getCookies() == null) {
+            return 0;
+        }
+        
+        for(Cookie cookie : request.getCookies()) {
+            if(COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        
+        return 0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.aymeric.gamestore.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * A read replica and its last known state
+ * @author Aymeric NEUMANN
+ *
+ */
+public class Replica {
+    
+    private final String name;
+    
+    private final DataSource dataSource;
+    
+    /** Replicas are out of the rotation until a health check has seen them up to date. */
+    private volatile boolean healthy;
+    
+    /** Delay of the replica behind the primary at the last health check. */
+    private volatile long lagMs;
+    
+    public Replica(final String name, final DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+    
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return the dataSource
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+    
+    /**
+     * @return the healthy
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+    
+    /**
+     * @return the lagMs
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+    
+    /**
+     * Put the replica back in the rotation
+     * @param lagMs delay of the replica behind the primary
+     */
+    void up(final long lagMs) {
+        this.lagMs = lagMs;
+        this.healthy = true;
+    }
+    
+    /**
+     * Remove the replica from the rotation
+     */
+    void down() {
+        this.healthy = false;
+    }
+}
@@ -0,0 +1,123 @@
+package com.aymeric.gamestore.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Measure the delay of the replicas behind the primary and remove the late or unreachable ones from the rotation.
+ * The primary writes its time in a heartbeat row at every check: the lag of a replica is the difference
+ * between the last beat written on the primary and the beat the replica has received.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class ReplicaHealth {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealth.class);
+    
+    /** Table of the heartbeat, replicated from the primary like the catalog. */
+    public static final String HEARTBEAT_TABLE = "replica_heartbeat";
+    
+    /** Seconds given to a replica to answer. */
+    private static final int QUERY_TIMEOUT = 2;
+    
+    private final ReplicaRoutingDataSource routing;
+    
+    private final long maxLagMs;
+    
+    public ReplicaHealth(final ReplicaRoutingDataSource routing, final long maxLagMs) {
+        this.routing = routing;
+        this.maxLagMs = maxLagMs;
+    }
+    
+    @PostConstruct
+    public void createHeartbeat() throws SQLException {
+        try (Connection connection = routing.getPrimary().getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists " + HEARTBEAT_TABLE + " (id int not null primary key, beat bigint not null)");
+        }
+    }
+    
+    /**
+     * Check every replica against the previous beat of the primary, then beat again
+     */
+    @Scheduled(fixedDelayString = "${gamestore.datasource.replicas.health-check-ms:5000}")
+    public void check() {
+        Long primaryBeat;
+        
+        try (Connection connection = routing.getPrimary().getConnection()) {
+            primaryBeat = readBeat(connection);
+            beat(connection, System.currentTimeMillis(), primaryBeat == null);
+        } catch (SQLException e) {
+            logger.error("The heartbeat of the primary could not be written, replicas are not checked", e);
+            return;
+        }
+        
+        for(Replica replica : routing.getReplicas()) {
+            check(replica, primaryBeat);
+        }
+    }
+    
+    private void check(final Replica replica, final Long primaryBeat) {
+        boolean wasHealthy = replica.isHealthy();
+        
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            Long replicaBeat = readBeat(connection);
+            
+            if(primaryBeat == null) {
+                // First beat of the primary: nothing to compare, the replica is only known to answer
+                replica.up(0);
+            } else if(replicaBeat == null) {
+                down(replica, wasHealthy, "no heartbeat received");
+            } else if(primaryBeat - replicaBeat > maxLagMs) {
+                down(replica, wasHealthy, (primaryBeat - replicaBeat) + " ms behind the primary");
+            } else {
+                replica.up(Math.max(0, primaryBeat - replicaBeat));
+                if(!wasHealthy) {
+                    logger.info("Replica {} is back in the rotation, {} ms behind the primary", replica.getName(), replica.getLagMs());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            down(replica, wasHealthy, e.getMessage());
+        }
+    }
+    
+    private static void down(final Replica replica, final boolean wasHealthy, final String reason) {
+        replica.down();
+        
+        if(wasHealthy) {
+            logger.warn("Replica {} removed from the rotation: {}", replica.getName(), reason);
+        }
+    }
+    
+    private static Long readBeat(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT);
+            
+            try (ResultSet resultSet = statement.executeQuery("select beat from " + HEARTBEAT_TABLE + " where id = 1")) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+    
+    private static void beat(final Connection connection, final long beat, final boolean first) throws SQLException {
+        String sql = first ? "insert into " + HEARTBEAT_TABLE + " (beat, id) values (?, 1)" : "update " + HEARTBEAT_TABLE + " set beat = ? where id = 1";
+        
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, beat);
+            statement.executeUpdate();
+        }
+        
+        if(!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+}
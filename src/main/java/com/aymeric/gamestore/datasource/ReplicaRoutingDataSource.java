@@ -0,0 +1,140 @@
+package com.aymeric.gamestore.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Send the read only transactions to the healthy replicas in turn and everything else to the primary.
+ * The connection must be asked once the transaction is started, when its read only flag is known:
+ * this data source is used behind a LazyConnectionDataSourceProxy.
+ * A replica refusing a connection is removed from the rotation and the primary serves the transaction.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    /** Lookup key of the primary. */
+    public static final String PRIMARY = "primary";
+    
+    private final DataSource primary;
+    
+    private final List<Replica> replicas;
+    
+    private final Map<String, Replica> replicasByName = new HashMap<>();
+    
+    private final AtomicInteger next = new AtomicInteger();
+    
+    public ReplicaRoutingDataSource(final DataSource primary, final List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for(Replica replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+            replicasByName.put(replica.getName(), replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadConsistency.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        
+        Replica replica = nextHealthy();
+        
+        return replica == null ? PRIMARY : replica.getName();
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = replicasByName.get(determineCurrentLookupKey());
+        
+        if(replica == null) {
+            return primary.getConnection();
+        }
+        
+        try {
+            return replica.getDataSource().getConnection();
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Replica {} refused a connection, removed until its next health check", replica.getName(), e);
+            replica.down();
+            return primary.getConnection();
+        }
+    }
+    
+    /**
+     * @return the replicas, healthy or not
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    /**
+     * @return the primary
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+    
+    /**
+     * @return the largest delay of the healthy replicas behind the primary
+     */
+    public long getMaxLagMs() {
+        return replicas.stream().filter(Replica::isHealthy).mapToLong(Replica::getLagMs).max().orElse(0);
+    }
+    
+    /**
+     * Round robin over the healthy replicas
+     * @return the next healthy replica or null if none is healthy
+     */
+    private Replica nextHealthy() {
+        if(replicas.isEmpty()) {
+            return null;
+        }
+        
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        
+        for(int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if(replica.isHealthy()) {
+                return replica;
+            }
+        }
+        
+        return null;
+    }
+    
+    @Override
+    public void close() throws Exception {
+        for(Replica replica : replicas) {
+            closeIfPossible(replica.getDataSource());
+        }
+        closeIfPossible(primary);
+    }
+    
+    private static void closeIfPossible(final DataSource dataSource) throws Exception {
+        if(dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1 @@
+package com.aymeric.gamestore.datasource;
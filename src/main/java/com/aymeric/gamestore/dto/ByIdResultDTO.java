@@ -0,0 +1,61 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Result of the read of one id of a multi get
+ * @author Aymeric NEUMANN
+ *
+ * @param <T> type of the read element
+ */
+public class ByIdResultDTO<T> {
+    
+    private UUID id;
+    
+    /** False if nothing has this id, the element being null. */
+    private boolean found;
+    
+    private T element;
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the found
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * @param found the found to set
+     */
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+
+    /**
+     * @return the element
+     */
+    public T getElement() {
+        return element;
+    }
+
+    /**
+     * @param element the element to set
+     */
+    public void setElement(T element) {
+        this.element = element;
+    }
+}
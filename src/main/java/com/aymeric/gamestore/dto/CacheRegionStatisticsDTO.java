@@ -0,0 +1,99 @@
+package com.aymeric.gamestore.dto;
+
+/**
+ * Hit and miss counters of a Hibernate cache region
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CacheRegionStatisticsDTO {
+    
+    /** Name of the region. */
+    private String region;
+    
+    private long hitCount;
+    
+    private long missCount;
+    
+    private long putCount;
+    
+    /** Number of entries currently in memory or -1 if unknown. */
+    private long elementCountInMemory;
+    
+    /**
+     * @return the region
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * @param region the region to set
+     */
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    /**
+     * @return the hitCount
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @param hitCount the hitCount to set
+     */
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    /**
+     * @return the missCount
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @param missCount the missCount to set
+     */
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    /**
+     * @return the putCount
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * @param putCount the putCount to set
+     */
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    /**
+     * @return the elementCountInMemory
+     */
+    public long getElementCountInMemory() {
+        return elementCountInMemory;
+    }
+
+    /**
+     * @param elementCountInMemory the elementCountInMemory to set
+     */
+    public void setElementCountInMemory(long elementCountInMemory) {
+        this.elementCountInMemory = elementCountInMemory;
+    }
+    
+    /**
+     * @return the ratio of hits over lookups, 0 without lookup
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+}
@@ -0,0 +1,217 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.Map;
+
+/**
+ * Counters and load latencies of a cache
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CacheStatisticsDTO {
+    
+    /** Name of the cache. */
+    private String name;
+    
+    private long hits;
+    
+    private long misses;
+    
+    private long puts;
+    
+    /** Entries removed on purpose. */
+    private long removals;
+    
+    /** Entries removed to respect the size of the cache. */
+    private long evictions;
+    
+    /** Entries removed at the end of their time to live. */
+    private long expiries;
+    
+    /** Number of loads of missing values. */
+    private long loadCount;
+    
+    private long loadMeanMicros;
+    
+    private long loadP50Micros;
+    
+    private long loadP99Micros;
+    
+    /** Number of loads by upper bound of latency in microseconds. */
+    private Map<Long, Long> loadHistogram;
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name the name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @param hits the hits to set
+     */
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    /**
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @param misses the misses to set
+     */
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * @return the puts
+     */
+    public long getPuts() {
+        return puts;
+    }
+
+    /**
+     * @param puts the puts to set
+     */
+    public void setPuts(long puts) {
+        this.puts = puts;
+    }
+
+    /**
+     * @return the removals
+     */
+    public long getRemovals() {
+        return removals;
+    }
+
+    /**
+     * @param removals the removals to set
+     */
+    public void setRemovals(long removals) {
+        this.removals = removals;
+    }
+
+    /**
+     * @return the evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @param evictions the evictions to set
+     */
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    /**
+     * @return the expiries
+     */
+    public long getExpiries() {
+        return expiries;
+    }
+
+    /**
+     * @param expiries the expiries to set
+     */
+    public void setExpiries(long expiries) {
+        this.expiries = expiries;
+    }
+
+    /**
+     * @return the loadCount
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @param loadCount the loadCount to set
+     */
+    public void setLoadCount(long loadCount) {
+        this.loadCount = loadCount;
+    }
+
+    /**
+     * @return the loadMeanMicros
+     */
+    public long getLoadMeanMicros() {
+        return loadMeanMicros;
+    }
+
+    /**
+     * @param loadMeanMicros the loadMeanMicros to set
+     */
+    public void setLoadMeanMicros(long loadMeanMicros) {
+        this.loadMeanMicros = loadMeanMicros;
+    }
+
+    /**
+     * @return the loadP50Micros
+     */
+    public long getLoadP50Micros() {
+        return loadP50Micros;
+    }
+
+    /**
+     * @param loadP50Micros the loadP50Micros to set
+     */
+    public void setLoadP50Micros(long loadP50Micros) {
+        this.loadP50Micros = loadP50Micros;
+    }
+
+    /**
+     * @return the loadP99Micros
+     */
+    public long getLoadP99Micros() {
+        return loadP99Micros;
+    }
+
+    /**
+     * @param loadP99Micros the loadP99Micros to set
+     */
+    public void setLoadP99Micros(long loadP99Micros) {
+        this.loadP99Micros = loadP99Micros;
+    }
+
+    /**
+     * @return the loadHistogram
+     */
+    public Map<Long, Long> getLoadHistogram() {
+        return loadHistogram;
+    }
+
+    /**
+     * @param loadHistogram the loadHistogram to set
+     */
+    public void setLoadHistogram(Map<Long, Long> loadHistogram) {
+        this.loadHistogram = loadHistogram;
+    }
+    
+    /**
+     * @return the ratio of hits over lookups, 0 without lookup
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,79 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Game, developper or editor matching a search of the whole catalog
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CatalogHitDTO {
+    
+    /** game, developer or editor. */
+    private String type;
+    
+    /** Id of the matching entity. */
+    private UUID id;
+    
+    /** Title or name of the matching entity. */
+    private String label;
+    
+    /** Relevance relative to the best hit of the same type, from 0 to 1, higher first. */
+    private float score;
+
+    /**
+     * @return the type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @param type the type to set
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param label the label to set
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * @param score the score to set
+     */
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
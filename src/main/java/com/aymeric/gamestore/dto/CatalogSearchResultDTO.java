@@ -0,0 +1,93 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.List;
+
+/**
+ * Results of a search of the whole catalog, grouped by type and merged by relevance
+ * @author Aymeric NEUMANN
+ *
+ */
+public class CatalogSearchResultDTO {
+    
+    /** Best matches of every type, by decreasing relevance. */
+    private List<CatalogHitDTO> best;
+    
+    private SearchResultDTO games;
+    
+    private SearchResultDTO developers;
+    
+    private SearchResultDTO editors;
+    
+    /** True if a section is empty because its search failed or timed out. */
+    private boolean partial;
+
+    /**
+     * @return the best
+     */
+    public List<CatalogHitDTO> getBest() {
+        return best;
+    }
+
+    /**
+     * @param best the best to set
+     */
+    public void setBest(List<CatalogHitDTO> best) {
+        this.best = best;
+    }
+
+    /**
+     * @return the games
+     */
+    public SearchResultDTO getGames() {
+        return games;
+    }
+
+    /**
+     * @param games the games to set
+     */
+    public void setGames(SearchResultDTO games) {
+        this.games = games;
+    }
+
+    /**
+     * @return the developers
+     */
+    public SearchResultDTO getDevelopers() {
+        return developers;
+    }
+
+    /**
+     * @param developers the developers to set
+     */
+    public void setDevelopers(SearchResultDTO developers) {
+        this.developers = developers;
+    }
+
+    /**
+     * @return the editors
+     */
+    public SearchResultDTO getEditors() {
+        return editors;
+    }
+
+    /**
+     * @param editors the editors to set
+     */
+    public void setEditors(SearchResultDTO editors) {
+        this.editors = editors;
+    }
+
+    /**
+     * @return the partial
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * @param partial the partial to set
+     */
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+}
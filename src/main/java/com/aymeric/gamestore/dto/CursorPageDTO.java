@@ -0,0 +1,62 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.List;
+
+/**
+ * Page read after a cursor
+ * @author Aymeric NEUMANN
+ *
+ * @param <T> type of the content
+ */
+public class CursorPageDTO<T> {
+    
+    private List<T> content;
+    
+    /** Number of elements of the page. */
+    private int size;
+    
+    /** Cursor to send back to get the next page, null on the last page. */
+    private String nextCursor;
+
+    /**
+     * @return the content
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @param content the content to set
+     */
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    /**
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param size the size to set
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the nextCursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @param nextCursor the nextCursor to set
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
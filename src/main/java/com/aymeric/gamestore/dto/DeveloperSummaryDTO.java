@@ -0,0 +1,43 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Developer summary Data Transfer Object: the developer without its games and owner
+ * @author Aymeric NEUMANN
+ *
+ */
+public class DeveloperSummaryDTO {
+    
+    private UUID id;
+    
+    private String name;
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name the name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+}
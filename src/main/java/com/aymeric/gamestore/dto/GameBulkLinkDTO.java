@@ -0,0 +1,93 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Result of the addition of a developper and an editor to a game by a batch Data Transfer Object
+ * @author Aymeric NEUMANN
+ *
+ */
+public class GameBulkLinkDTO {
+    
+    private UUID gameId;
+    
+    private UUID devId;
+    
+    private UUID editorId;
+    
+    /** LINKED, ALREADY_LINKED, GAME_NOT_FOUND or TARGET_NOT_FOUND, null if no developper is added. */
+    private String devStatus;
+    
+    /** LINKED, ALREADY_LINKED, GAME_NOT_FOUND or TARGET_NOT_FOUND, null if no editor is added. */
+    private String editorStatus;
+
+    /**
+     * @return the gameId
+     */
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @param gameId the gameId to set
+     */
+    public void setGameId(UUID gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return the devId
+     */
+    public UUID getDevId() {
+        return devId;
+    }
+
+    /**
+     * @param devId the devId to set
+     */
+    public void setDevId(UUID devId) {
+        this.devId = devId;
+    }
+
+    /**
+     * @return the editorId
+     */
+    public UUID getEditorId() {
+        return editorId;
+    }
+
+    /**
+     * @param editorId the editorId to set
+     */
+    public void setEditorId(UUID editorId) {
+        this.editorId = editorId;
+    }
+
+    /**
+     * @return the devStatus
+     */
+    public String getDevStatus() {
+        return devStatus;
+    }
+
+    /**
+     * @param devStatus the devStatus to set
+     */
+    public void setDevStatus(String devStatus) {
+        this.devStatus = devStatus;
+    }
+
+    /**
+     * @return the editorStatus
+     */
+    public String getEditorStatus() {
+        return editorStatus;
+    }
+
+    /**
+     * @param editorStatus the editorStatus to set
+     */
+    public void setEditorStatus(String editorStatus) {
+        this.editorStatus = editorStatus;
+    }
+}
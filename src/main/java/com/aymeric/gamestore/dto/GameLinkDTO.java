@@ -0,0 +1,76 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Result of the addition of a developper or an editor to a game Data Transfer Object
+ * @author Aymeric NEUMANN
+ *
+ */
+public class GameLinkDTO {
+    
+    private UUID gameId;
+    
+    private UUID devId;
+    
+    private UUID editorId;
+    
+    /** LINKED, ALREADY_LINKED, GAME_NOT_FOUND or TARGET_NOT_FOUND. */
+    private String status;
+
+    /**
+     * @return the gameId
+     */
+    public UUID getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @param gameId the gameId to set
+     */
+    public void setGameId(UUID gameId) {
+        this.gameId = gameId;
+    }
+
+    /**
+     * @return the devId
+     */
+    public UUID getDevId() {
+        return devId;
+    }
+
+    /**
+     * @param devId the devId to set
+     */
+    public void setDevId(UUID devId) {
+        this.devId = devId;
+    }
+
+    /**
+     * @return the editorId
+     */
+    public UUID getEditorId() {
+        return editorId;
+    }
+
+    /**
+     * @param editorId the editorId to set
+     */
+    public void setEditorId(UUID editorId) {
+        this.editorId = editorId;
+    }
+
+    /**
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @param status the status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
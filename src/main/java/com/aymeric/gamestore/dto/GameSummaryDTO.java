@@ -0,0 +1,60 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Game summary Data Transfer Object: the game without its developers and editors
+ * @author Aymeric NEUMANN
+ *
+ */
+public class GameSummaryDTO {
+    
+    private UUID id;
+    
+    private String title;
+    
+    private Date releaseDate;
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @param title the title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * @return the releaseDate
+     */
+    public Date getReleaseDate() {
+        return releaseDate;
+    }
+
+    /**
+     * @param releaseDate the releaseDate to set
+     */
+    public void setReleaseDate(Date releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+}
@@ -0,0 +1,41 @@
+package com.aymeric.gamestore.dto;
+
+/**
+ * Row rejected by an import Data Transfer Object
+ * @author Aymeric NEUMANN
+ *
+ */
+public class ImportErrorDTO {
+    
+    private long line;
+    
+    private String message;
+
+    /**
+     * @return the line
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @param line the line to set
+     */
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    /**
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @param message the message to set
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,76 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.List;
+
+/**
+ * Import report Data Transfer Object
+ * @author Aymeric NEUMANN
+ *
+ */
+public class ImportReportDTO {
+    
+    private long read;
+    
+    private long imported;
+    
+    private long rejected;
+    
+    /** First rejected rows, all of them being counted in rejected. */
+    private List<ImportErrorDTO> errors;
+
+    /**
+     * @return the read
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * @param read the read to set
+     */
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    /**
+     * @return the imported
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @param imported the imported to set
+     */
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    /**
+     * @return the rejected
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @param rejected the rejected to set
+     */
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * @return the errors
+     */
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param errors the errors to set
+     */
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,62 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Game, developper or editor matching a search
+ * @author Aymeric NEUMANN
+ *
+ */
+public class SearchHitDTO {
+    
+    /** Id of the matching game, developper or editor. */
+    private UUID id;
+    
+    /** Title or name of the matching game, developper or editor. */
+    private String label;
+    
+    /** Relevance, higher first. */
+    private float score;
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param label the label to set
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * @param score the score to set
+     */
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,79 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.List;
+
+/**
+ * Page of a search, by decreasing relevance
+ * @author Aymeric NEUMANN
+ *
+ */
+public class SearchResultDTO {
+    
+    /** Number of the page, 0 based. */
+    private int page;
+    
+    /** Maximum number of hits of a page. */
+    private int size;
+    
+    /** Number of matches over all pages. */
+    private long totalHits;
+    
+    /** Matches of the page. */
+    private List<SearchHitDTO> hits;
+
+    /**
+     * @return the page
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @param page the page to set
+     */
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    /**
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param size the size to set
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the totalHits
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @param totalHits the totalHits to set
+     */
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
+    /**
+     * @return the hits
+     */
+    public List<SearchHitDTO> getHits() {
+        return hits;
+    }
+
+    /**
+     * @param hits the hits to set
+     */
+    public void setHits(List<SearchHitDTO> hits) {
+        this.hits = hits;
+    }
+}
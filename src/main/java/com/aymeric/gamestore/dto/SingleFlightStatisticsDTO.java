@@ -0,0 +1,108 @@
+package com.aymeric.gamestore.dto;
+
+/**
+ * Counters of a single flight group
+ * @author Aymeric NEUMANN
+ *
+ */
+public class SingleFlightStatisticsDTO {
+    
+    /** Name of the group. */
+    private String group;
+    
+    /** Loads sent to the database. */
+    private long loads;
+    
+    /** Loads collapsed into a load already in flight. */
+    private long collapsed;
+    
+    private long loadMeanMicros;
+    
+    private long loadP50Micros;
+    
+    private long loadP99Micros;
+
+    /**
+     * @return the group
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * @param group the group to set
+     */
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    /**
+     * @return the loads
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * @param loads the loads to set
+     */
+    public void setLoads(long loads) {
+        this.loads = loads;
+    }
+
+    /**
+     * @return the collapsed
+     */
+    public long getCollapsed() {
+        return collapsed;
+    }
+
+    /**
+     * @param collapsed the collapsed to set
+     */
+    public void setCollapsed(long collapsed) {
+        this.collapsed = collapsed;
+    }
+
+    /**
+     * @return the loadMeanMicros
+     */
+    public long getLoadMeanMicros() {
+        return loadMeanMicros;
+    }
+
+    /**
+     * @param loadMeanMicros the loadMeanMicros to set
+     */
+    public void setLoadMeanMicros(long loadMeanMicros) {
+        this.loadMeanMicros = loadMeanMicros;
+    }
+
+    /**
+     * @return the loadP50Micros
+     */
+    public long getLoadP50Micros() {
+        return loadP50Micros;
+    }
+
+    /**
+     * @param loadP50Micros the loadP50Micros to set
+     */
+    public void setLoadP50Micros(long loadP50Micros) {
+        this.loadP50Micros = loadP50Micros;
+    }
+
+    /**
+     * @return the loadP99Micros
+     */
+    public long getLoadP99Micros() {
+        return loadP99Micros;
+    }
+
+    /**
+     * @param loadP99Micros the loadP99Micros to set
+     */
+    public void setLoadP99Micros(long loadP99Micros) {
+        this.loadP99Micros = loadP99Micros;
+    }
+}
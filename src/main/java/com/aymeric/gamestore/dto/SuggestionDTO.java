@@ -0,0 +1,45 @@
+package com.aymeric.gamestore.dto;
+
+import java.util.UUID;
+
+/**
+ * Entry suggested while typing a title or a name
+ * @author Aymeric NEUMANN
+ *
+ */
+public class SuggestionDTO {
+    
+    /** Id of the suggested game, developper or editor. */
+    private UUID id;
+    
+    /** Title or name of the suggested game, developper or editor. */
+    private String label;
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param label the label to set
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+}
@@ -4,19 +4,23 @@ import java.io.Serializable;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
-import org.springframework.cache.annotation.Cacheable;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
@@ -26,7 +30,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
  *
  */
 @Entity
+@Table(indexes = @Index(name = "idx_developer_name_id", columnList = "name, id"))
 @Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Developer implements Serializable {
     
     /**
@@ -36,11 +42,16 @@ public class Developer implements Serializable {
 
     /** Id of the developer. */
     @Id
-    @GeneratedValue(generator = "uuid2")
-    @GenericGenerator(name = "uuid2", strategy = "uuid2")
-    @Type(type="org.hibernate.type.UUIDCharType")
+    @GeneratedValue(generator = TimeOrderedUuidGenerator.NAME)
+    @GenericGenerator(name = TimeOrderedUuidGenerator.NAME, strategy = "com.aymeric.gamestore.entity.TimeOrderedUuidGenerator")
+    @Type(type = UuidStorage.TYPE)
     private UUID id;
     
+    /** Incremented by Hibernate on every update, used for optimistic locking and ETags. Existing rows start at 0. */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private long version;
+    
     /** Name of the company */
     private String name;
     
@@ -102,4 +113,11 @@ public class Developer implements Serializable {
     public UUID getId() {
         return id;
     }
+    
+    /**
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
 }
@@ -5,18 +5,25 @@ import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Type;
-import org.springframework.cache.annotation.Cacheable;
 
 /**
  * @author Aymeric NEUMANN
@@ -24,21 +31,34 @@ import org.springframework.cache.annotation.Cacheable;
  *
  */
 @Entity
+@Table(indexes = @Index(name = "idx_game_title_id", columnList = "title, id"))
+@NamedEntityGraph(name = Game.RELATIONS, 
+        attributeNodes = { @NamedAttributeNode(value = "developer", subgraph = "owner"), @NamedAttributeNode("editor") },
+        subgraphs = @NamedSubgraph(name = "owner", attributeNodes = @NamedAttributeNode("owner")))
 @Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Game implements Serializable {
     
     /**
      * 
      */
     private static final long serialVersionUID = 2193644206718434012L;
+    
+    /** Entity graph of the game with its developers, their owners and its editors, loaded in the same query. */
+    public static final String RELATIONS = "Game.relations";
 
     /** Id of the game. */
     @Id
-    @GeneratedValue(generator = "uuid2")
-    @GenericGenerator(name = "uuid2", strategy = "uuid2")
-    @Type(type="org.hibernate.type.UUIDCharType")
+    @GeneratedValue(generator = TimeOrderedUuidGenerator.NAME)
+    @GenericGenerator(name = TimeOrderedUuidGenerator.NAME, strategy = "com.aymeric.gamestore.entity.TimeOrderedUuidGenerator")
+    @Type(type = UuidStorage.TYPE)
     private UUID id;
     
+    /** Incremented by Hibernate on every update, used for optimistic locking and ETags. Existing rows start at 0. */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private long version;
+    
     /** Title of the game */
     private String title;
     
@@ -117,4 +137,11 @@ public class Game implements Serializable {
     public UUID getId() {
         return id;
     }
+    
+    /**
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
 }
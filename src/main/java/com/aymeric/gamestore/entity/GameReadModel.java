@@ -0,0 +1,105 @@
+package com.aymeric.gamestore.entity;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
+
+/**
+ * @author Aymeric NEUMANN
+ * Denormalized view of a game: its JSON representation with its developers, their owners and its editors,
+ * written on every change of the game or of its relationships so that it is read with a single row
+ *
+ */
+@Entity
+@Table(name = "game_read_model", indexes = @Index(name = "idx_game_read_model_title_id", columnList = "title, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class GameReadModel implements Serializable {
+    
+    /**
+     *
+     */
+    private static final long serialVersionUID = -3520811839426385519L;
+    
+    /** Id of the game. */
+    @Id
+    @Type(type = UuidStorage.TYPE)
+    private UUID id;
+    
+    /** Incremented by Hibernate when the document changes, used for ETags. */
+    @Version
+    @Column(nullable = false)
+    private long version;
+    
+    /** Title of the game, the sort key of the pages. */
+    private String title;
+    
+    /** JSON representation of the game. */
+    @Lob
+    @Column(nullable = false)
+    private String document;
+    
+    protected GameReadModel() {
+    }
+    
+    /**
+     * @param id id of the game
+     */
+    public GameReadModel(final UUID id) {
+        this.id = id;
+    }
+    
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+    
+    /**
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+    
+    /**
+     * @param title the title to set
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    /**
+     * @return the document
+     */
+    public String getDocument() {
+        return document;
+    }
+    
+    /**
+     * @param document the document to set
+     */
+    public void setDocument(String document) {
+        this.document = document;
+    }
+}
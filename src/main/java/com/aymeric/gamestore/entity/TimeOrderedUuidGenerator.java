@@ -0,0 +1,69 @@
+package com.aymeric.gamestore.entity;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Generate version 7 UUIDs: the 48 first bits are the creation time in milliseconds,
+ * followed by a counter within the millisecond and random bits.
+ * Ids are created in increasing order, in their binary form as well as in their text form,
+ * so new rows are appended at the end of the primary key and foreign key indexes instead of splitting random pages.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+    
+    /** Name of the generator in the entities mapping. */
+    public static final String NAME = "time-ordered-uuid";
+    
+    /** Bits of the counter within a millisecond. */
+    private static final int COUNTER_BITS = 12;
+    
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    
+    private static final SecureRandom random = new SecureRandom();
+    
+    /** Last millisecond and counter given, shifted together so that they are increased as one value. */
+    private static long lastTick;
+    
+    @Override
+    public Serializable generate(final SharedSessionContractImplementor session, final Object object) {
+        return next();
+    }
+    
+    /**
+     * @return a new id, greater than all the ids given before by this JVM
+     */
+    public static UUID next() {
+        long tick = nextTick(System.currentTimeMillis());
+        long msb = (tick >>> COUNTER_BITS) << 16 | 0x7000L | tick & COUNTER_MASK;
+        long lsb = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        
+        return new UUID(msb, lsb);
+    }
+    
+    /**
+     * @param id a time ordered id
+     * @return the time of creation of the id in milliseconds
+     */
+    public static long timestamp(final UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+    
+    /**
+     * Take the next counter value. When the clock goes back or more than 4096 ids are asked in the same millisecond,
+     * the counter overflows into the time part: ids stay ordered and get a few milliseconds ahead of the clock.
+     * @param now current time in milliseconds
+     * @return the millisecond and counter of the next id
+     */
+    private static synchronized long nextTick(final long now) {
+        long tick = now << COUNTER_BITS;
+        lastTick = tick > lastTick ? tick : lastTick + 1;
+        
+        return lastTick;
+    }
+}
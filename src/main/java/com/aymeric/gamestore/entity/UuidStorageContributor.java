@@ -0,0 +1,73 @@
+package com.aymeric.gamestore.entity;
+
+import java.util.Iterator;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.TypeContributions;
+import org.hibernate.boot.model.TypeContributor;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.Table;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+
+/**
+ * Register the id type of the configured storage under the gamestore-uuid name
+ * and give its length to the id and foreign key columns created by the schema update.
+ * Loaded by Hibernate from META-INF/services so that every persistence unit, the tests ones included, uses it.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class UuidStorageContributor implements TypeContributor, Integrator {
+    
+    /**
+     * The type is registered under the name of the mapping only: its own names keep the Hibernate types.
+     */
+    @Override
+    public void contribute(final TypeContributions typeContributions, final ServiceRegistry serviceRegistry) {
+        UuidStorage storage = UuidStorage.of(serviceRegistry.getService(ConfigurationService.class).getSettings());
+        typeContributions.getTypeConfiguration().getBasicTypeRegistry().register(storage.getType(), new String[] { UuidStorage.TYPE });
+    }
+    
+    /**
+     * Columns are 255 long by default: 16 bytes ids would be padded in a BINARY(255) column.
+     * Called before the schema update, which reads the columns length.
+     */
+    @Override
+    public void integrate(final Metadata metadata, final SessionFactoryImplementor sessionFactory,
+            final SessionFactoryServiceRegistry serviceRegistry) {
+        UuidStorage storage = UuidStorage.of(sessionFactory.getProperties());
+        
+        for(Table table : metadata.collectTableMappings()) {
+            // Raw iterator of the Hibernate 5 mapping, holding columns only
+            Iterator<?> columns = table.getColumnIterator();
+            
+            while(columns.hasNext()) {
+                Column column = (Column) columns.next();
+                
+                if(column.getValue() != null && isId(column.getValue().getType(), metadata, storage)) {
+                    column.setLength(storage.getLength());
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void disintegrate(final SessionFactoryImplementor sessionFactory, final SessionFactoryServiceRegistry serviceRegistry) {
+        // nothing registered on the session factory
+    }
+    
+    /**
+     * @param type type of a column value, the referenced entity for a foreign key
+     * @return true if the column holds an id of the configured storage
+     */
+    private static boolean isId(final Type type, final Metadata metadata, final UuidStorage storage) {
+        Type valueType = type instanceof EntityType ? ((EntityType) type).getIdentifierOrUniqueKeyType(metadata) : type;
+        
+        return valueType == storage.getType();
+    }
+}
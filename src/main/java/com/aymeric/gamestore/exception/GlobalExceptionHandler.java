@@ -31,12 +31,12 @@ public class GlobalExceptionHandler {
     /**
      * Exception handler for GameStore Entity Exception.
      * @param ex the thrown GameStore entity exception
-     * @return an exception with a message and a httpErrorNumber 
+     * @return an exception with a message and the httpErrorNumber of the thrown exception, BAD_REQUEST if it has none
      */
     @ExceptionHandler(GamestoreEntityException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<GamestoreEntityException> handleAapiEntityException(final GamestoreEntityException ex) {
-        GamestoreEntityException exception = new GamestoreEntityException(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        HttpStatus status = ex.getHttpErrorNumber() == null ? HttpStatus.BAD_REQUEST : ex.getHttpErrorNumber();
+        GamestoreEntityException exception = new GamestoreEntityException(ex.getMessage(), status);
         return new ResponseEntity<GamestoreEntityException>(exception, exception.getHttpErrorNumber());
     }
     
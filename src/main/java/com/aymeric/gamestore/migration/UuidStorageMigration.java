@@ -0,0 +1,461 @@
+package com.aymeric.gamestore.migration;
+
+import java.nio.ByteBuffer;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Convert the ids stored as 36 characters into 16 bytes, table by table and by batches.
+ * <ul>
+ * <li>backfill: adds a BINARY(16) shadow column next to every id and foreign key column and fills it by batches
+ * of rows in primary key order. The application keeps running in char storage meanwhile: a batch only locks its own rows.
+ * Can be stopped and run again, rows already copied are skipped.</li>
+ * <li>switch over: copies the rows written since the backfill, then replaces the char columns by the shadow ones
+ * and rebuilds the primary keys, indexes and foreign keys on them. Writes must be stopped:
+ * it runs before the persistence unit is started, the application then serving in binary storage.</li>
+ * </ul>
+ * Uses the MySQL statements to rename columns and the standard ones otherwise, as H2 does for the tests.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+public class UuidStorageMigration {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(UuidStorageMigration.class);
+    
+    /** Suffix of the shadow columns. */
+    static final String SHADOW = "_bin";
+    
+    /** Tables holding ids, referenced tables first. */
+    static final List<IdTable> TABLES = Collections.unmodifiableList(Arrays.asList(
+            new IdTable("editor", new IdColumn("id", true, null)),
+            new IdTable("developer", new IdColumn("id", true, null), new IdColumn("owner_id", false, "editor")),
+            new IdTable("game", new IdColumn("id", true, null)),
+            new IdTable("game_developer", new IdColumn("games_id", true, "game"), new IdColumn("developer_id", true, "developer")),
+            new IdTable("game_editor", new IdColumn("games_id", true, "game"), new IdColumn("editor_id", true, "editor")),
+            new IdTable("game_read_model", new IdColumn("id", true, null))));
+    
+    /** Number of rows read and updated together. */
+    @Value("${gamestore.id.migration.batch-size:1000}")
+    private int batchSize;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Add the missing shadow columns and copy the ids of the rows not copied yet.
+     * @return number of copied rows
+     */
+    public long backfill() {
+        if(isConverted()) {
+            logger.info("Ids are already stored in binary, nothing to backfill");
+            return 0;
+        }
+        
+        long start = System.currentTimeMillis();
+        long copied = 0;
+        
+        for(IdTable table : TABLES) {
+            addShadowColumns(table);
+            copied += copy(table, true);
+        }
+        
+        logger.info("Backfill of the binary ids done: {} rows copied in {} ms", copied, System.currentTimeMillis() - start);
+        
+        return copied;
+    }
+    
+    /**
+     * Copy the rows written since the backfill and replace the char id columns by the binary ones.
+     * The references that can be updated, unlike the keys, are copied again for every row.
+     */
+    public void switchOver() {
+        if(isConverted()) {
+            logger.info("Ids are already stored in binary, nothing to switch over");
+            return;
+        }
+        
+        long start = System.currentTimeMillis();
+        
+        for(IdTable table : TABLES) {
+            addShadowColumns(table);
+            copy(table, !table.hasUpdatableReferences());
+        }
+        
+        Database database = jdbcTemplate.execute((ConnectionCallback<Database>) Database::read);
+        
+        for(IdTable table : TABLES) {
+            for(ForeignKey foreignKey : database.foreignKeys(table)) {
+                jdbcTemplate.execute("alter table " + table.name + (database.mySql ? " drop foreign key " : " drop constraint ") + foreignKey.name);
+            }
+        }
+        
+        // Indexes read after dropping the foreign keys: H2 drops the indexes it created for them
+        Map<IdTable, List<Index>> indexes = new LinkedHashMap<>();
+        for(IdTable table : TABLES) {
+            indexes.put(table, jdbcTemplate.execute((ConnectionCallback<List<Index>>) connection -> Index.read(connection.getMetaData(), table)));
+        }
+        
+        for(IdTable table : TABLES) {
+            for(Index index : indexes.get(table)) {
+                jdbcTemplate.execute(database.mySql ? "drop index " + index.name + " on " + table.name : "drop index " + index.name);
+            }
+            
+            jdbcTemplate.execute("alter table " + table.name + (database.mySql ? " drop primary key" : " drop constraint " + database.primaryKeys.get(table.name)));
+            
+            for(IdColumn column : table.columns) {
+                jdbcTemplate.execute("alter table " + table.name + " drop column " + column.name);
+                rename(database, table, column);
+            }
+            
+            jdbcTemplate.execute("alter table " + table.name + " add primary key (" + table.keys() + ")");
+            
+            for(Index index : indexes.get(table)) {
+                jdbcTemplate.execute("create " + (index.unique ? "unique " : "") + "index " + index.name + " on " + table.name + " (" + String.join(", ", index.columns) + ")");
+            }
+        }
+        
+        for(IdTable table : TABLES) {
+            for(ForeignKey foreignKey : database.foreignKeys(table)) {
+                jdbcTemplate.execute("alter table " + table.name + " add constraint " + foreignKey.name
+                        + " foreign key (" + foreignKey.column + ") references " + foreignKey.referencedTable + " (id)");
+            }
+        }
+        
+        logger.info("Ids switched over to binary storage in {} ms", System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * @return true if the ids of the games are stored in binary
+     */
+    public boolean isConverted() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, identifier(metaData, "game"), identifier(metaData, "id"))) {
+                if(!columns.next()) {
+                    throw new IllegalStateException("The game table has no id column");
+                }
+                int type = columns.getInt("DATA_TYPE");
+                
+                return type == Types.BINARY || type == Types.VARBINARY;
+            }
+        });
+    }
+    
+    /**
+     * @param id an id
+     * @return the 16 bytes of the id, in the order of the binary storage
+     */
+    static byte[] toBytes(final UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+    
+    private void addShadowColumns(final IdTable table) {
+        List<String> existing = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<String> names = new ArrayList<>();
+            
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, identifier(metaData, table.name), null)) {
+                while(columns.next()) {
+                    names.add(columns.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            
+            return names;
+        });
+        
+        for(IdColumn column : table.columns) {
+            if(!existing.contains(column.shadow())) {
+                jdbcTemplate.execute("alter table " + table.name + " add column " + column.shadow() + " binary(16)");
+            }
+        }
+    }
+    
+    /**
+     * Copy the ids of a table into its shadow columns, by batches in primary key order.
+     * @param table table to copy
+     * @param missingOnly true to copy only the rows with no binary key yet
+     * @return number of copied rows
+     */
+    private long copy(final IdTable table, final boolean missingOnly) {
+        List<IdColumn> keys = table.columns.stream().filter(column -> column.key).collect(Collectors.toList());
+        String select = "select " + table.columns.stream().map(column -> column.name).collect(Collectors.joining(", ")) + " from " + table.name;
+        String missing = missingOnly ? keys.get(0).shadow() + " is null" : null;
+        String order = " order by " + table.keys() + " limit " + batchSize;
+        String update = "update " + table.name + " set " + table.columns.stream().map(column -> column.shadow() + " = ?").collect(Collectors.joining(", "))
+                + " where " + keys.stream().map(column -> column.name + " = ?").collect(Collectors.joining(" and "));
+        
+        long copied = 0;
+        Object[] after = null;
+        
+        while(true) {
+            List<String> conditions = new ArrayList<>();
+            if(after != null) {
+                conditions.add(keys.size() == 1 ? keys.get(0).name + " > ?" : keys.get(0).name + " > ? or (" + keys.get(0).name + " = ? and " + keys.get(1).name + " > ?)");
+            }
+            if(missing != null) {
+                conditions.add(missing);
+            }
+            String where = conditions.isEmpty() ? "" : " where " + conditions.stream().map(condition -> "(" + condition + ")").collect(Collectors.joining(" and "));
+            Object[] parameters = after == null ? new Object[0] : keys.size() == 1 ? after : new Object[] { after[0], after[0], after[1] };
+            
+            List<Object[]> rows = jdbcTemplate.query(select + where + order, parameters, (resultSet, rowNumber) -> {
+                Object[] row = new Object[table.columns.size()];
+                for(int i = 0; i < row.length; i++) {
+                    row[i] = resultSet.getString(i + 1);
+                }
+                return row;
+            });
+            
+            if(rows.isEmpty()) {
+                break;
+            }
+            
+            jdbcTemplate.batchUpdate(update, rows.stream().map(row -> updateParameters(table, row)).collect(Collectors.toList()));
+            copied += rows.size();
+            Object[] last = rows.get(rows.size() - 1);
+            after = keys.stream().map(key -> last[table.columns.indexOf(key)]).toArray();
+            
+            if(copied % (batchSize * 100L) < rows.size()) {
+                logger.info("{} rows of {} copied", copied, table.name);
+            }
+        }
+        
+        logger.info("Binary ids of {} copied: {} rows", table.name, copied);
+        
+        return copied;
+    }
+    
+    private static Object[] updateParameters(final IdTable table, final Object[] row) {
+        List<Object> parameters = new ArrayList<>();
+        
+        for(Object value : row) {
+            parameters.add(value == null ? null : toBytes(UUID.fromString((String) value)));
+        }
+        for(int i = 0; i < row.length; i++) {
+            if(table.columns.get(i).key) {
+                parameters.add(row[i]);
+            }
+        }
+        
+        return parameters.toArray();
+    }
+    
+    private void rename(final Database database, final IdTable table, final IdColumn column) {
+        if(database.mySql) {
+            jdbcTemplate.execute("alter table " + table.name + " change " + column.shadow() + " " + column.name + " binary(16)" + (column.key ? " not null" : ""));
+            return;
+        }
+        
+        jdbcTemplate.execute("alter table " + table.name + " alter column " + column.shadow() + " rename to " + column.name);
+        if(column.key) {
+            jdbcTemplate.execute("alter table " + table.name + " alter column " + column.name + " set not null");
+        }
+    }
+    
+    /**
+     * @return the name as stored by the database metadata
+     */
+    private static String identifier(final DatabaseMetaData metaData, final String name) throws SQLException {
+        if(metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        
+        return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+    }
+    
+    /**
+     * A table holding ids
+     */
+    static final class IdTable {
+        
+        final String name;
+        
+        final List<IdColumn> columns;
+        
+        IdTable(final String name, final IdColumn... columns) {
+            this.name = name;
+            this.columns = Arrays.asList(columns);
+        }
+        
+        String keys() {
+            return columns.stream().filter(column -> column.key).map(column -> column.name).collect(Collectors.joining(", "));
+        }
+        
+        boolean hasUpdatableReferences() {
+            return columns.stream().anyMatch(column -> !column.key);
+        }
+    }
+    
+    /**
+     * An id column, part of the primary key or referencing another table
+     */
+    static final class IdColumn {
+        
+        final String name;
+        
+        final boolean key;
+        
+        final String referencedTable;
+        
+        IdColumn(final String name, final boolean key, final String referencedTable) {
+            this.name = name;
+            this.key = key;
+            this.referencedTable = referencedTable;
+        }
+        
+        String shadow() {
+            return name + SHADOW;
+        }
+    }
+    
+    /**
+     * Keys of the id tables, read before they are dropped to be created again on the binary columns
+     */
+    private static final class Database {
+        
+        final boolean mySql;
+        
+        final Map<String, List<ForeignKey>> foreignKeys = new TreeMap<>();
+        
+        final Map<String, String> primaryKeys = new TreeMap<>();
+        
+        private Database(final boolean mySql) {
+            this.mySql = mySql;
+        }
+        
+        static Database read(final java.sql.Connection connection) throws SQLException {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Database database = new Database(metaData.getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql"));
+            
+            for(IdTable table : TABLES) {
+                List<ForeignKey> keys = new ArrayList<>();
+                
+                try (ResultSet imported = metaData.getImportedKeys(connection.getCatalog(), null, identifier(metaData, table.name))) {
+                    while(imported.next()) {
+                        String column = imported.getString("FKCOLUMN_NAME").toLowerCase(Locale.ROOT);
+                        
+                        if(table.columns.stream().anyMatch(idColumn -> idColumn.referencedTable != null && idColumn.name.equals(column))) {
+                            keys.add(new ForeignKey(imported.getString("FK_NAME"), column, imported.getString("PKTABLE_NAME").toLowerCase(Locale.ROOT)));
+                        }
+                    }
+                }
+                
+                database.foreignKeys.put(table.name, keys);
+                
+                try (ResultSet primaryKey = metaData.getPrimaryKeys(connection.getCatalog(), null, identifier(metaData, table.name))) {
+                    if(primaryKey.next()) {
+                        database.primaryKeys.put(table.name, primaryKey.getString("PK_NAME"));
+                    }
+                }
+            }
+            
+            return database;
+        }
+        
+        List<ForeignKey> foreignKeys(final IdTable table) {
+            return foreignKeys.get(table.name);
+        }
+    }
+    
+    private static final class ForeignKey {
+        
+        final String name;
+        
+        final String column;
+        
+        final String referencedTable;
+        
+        ForeignKey(final String name, final String column, final String referencedTable) {
+            this.name = name;
+            this.column = column;
+            this.referencedTable = referencedTable;
+        }
+    }
+    
+    /**
+     * Secondary index containing an id column, other than the primary key
+     */
+    private static final class Index {
+        
+        final String name;
+        
+        final boolean unique;
+        
+        final List<String> columns = new ArrayList<>();
+        
+        private Index(final String name, final boolean unique) {
+            this.name = name;
+            this.unique = unique;
+        }
+        
+        static List<Index> read(final DatabaseMetaData metaData, final IdTable table) throws SQLException {
+            String tableName = identifier(metaData, table.name);
+            String primaryKey = null;
+            
+            try (ResultSet keys = metaData.getPrimaryKeys(metaData.getConnection().getCatalog(), null, tableName)) {
+                if(keys.next()) {
+                    primaryKey = keys.getString("PK_NAME");
+                }
+            }
+            
+            Map<String, Index> indexes = new LinkedHashMap<>();
+            Map<String, Map<Short, String>> columns = new LinkedHashMap<>();
+            
+            try (ResultSet info = metaData.getIndexInfo(metaData.getConnection().getCatalog(), null, tableName, false, true)) {
+                while(info.next()) {
+                    String name = info.getString("INDEX_NAME");
+                    
+                    // The index of the primary key: PRIMARY on MySQL, PRIMARY_KEY_n on H2
+                    if(name == null || name.equals(primaryKey) || name.toUpperCase(Locale.ROOT).startsWith("PRIMARY")) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(name, key -> new Index(key, !readNonUnique(info)));
+                    columns.computeIfAbsent(name, key -> new TreeMap<>()).put(info.getShort("ORDINAL_POSITION"), info.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            
+            List<Index> result = new ArrayList<>();
+            
+            for(Index index : indexes.values()) {
+                index.columns.addAll(columns.get(index.name).values());
+                
+                if(table.columns.stream().anyMatch(column -> index.columns.contains(column.name))) {
+                    result.add(index);
+                }
+            }
+            
+            return result;
+        }
+        
+        private static boolean readNonUnique(final ResultSet info) {
+            try {
+                return info.getBoolean("NON_UNIQUE");
+            } catch (SQLException e) {
+                throw new IllegalStateException("Unreadable index of the id tables", e);
+            }
+        }
+    }
+}
@@ -3,10 +3,16 @@ package com.aymeric.gamestore.repository;
 import java.util.List;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.aymeric.gamestore.entity.Developer;
 
@@ -22,19 +28,84 @@ public interface DeveloperRepository extends CrudRepository<Developer, UUID>, Pa
      * @param pageable page parameters
      * @return a page of result
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Page<Developer> findAll(Pageable pageable);
+    
+    /**
+     * Find the summaries of all developpers: only their own columns are selected
+     * @param pageable page parameters
+     * @return a page of summaries
+     */
+    Page<DeveloperSummary> findSummariesBy(Pageable pageable);
 
     /**
-     * Find all developpers with the matching title
+     * Find the first developpers with the matching title
      * @param name of the developpers to find
+     * @param pageable number of developpers to find and their order
      * @return list of developpers
      */
-    List<Developer> findByName(String name);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Developer> findByName(String name, Pageable pageable);
     
     /**
-     * Find all developpers with a name containing the parameter
+     * Find the developpers with the matching name following an id, in id order
+     * @param name name of the developpers to find
+     * @param id id of the last developper read
+     * @param pageable number of developpers to find, the page number must be 0
+     * @return list of developpers
+     */
+    List<Developer> findByNameAndIdGreaterThanOrderByIdAsc(String name, UUID id, Pageable pageable);
+    
+    /**
+     * Find the first developpers with a name containing the parameter
      * @param name name/part of name of the games to find
+     * @param pageable number of developpers to find and their order
+     * @return a list of developpers
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Developer> findByNameContaining(String name, Pageable pageable);
+    
+    /**
+     * Find the developpers with a name containing the parameter following a name and id, in name then id order.
+     * The wildcards %, _ and the escape character of the parameter are matched literally, as by the search of the first page
+     * @param part name/part of name of the developpers to find
+     * @param name name of the last developper read
+     * @param id id of the last developper read
+     * @param pageable number of developpers to find, the page number must be 0
      * @return a list of developpers
      */
-    List<Developer> findByNameContainingOrderByNameAsc(String name);
+    @Query("select d from Developer d where d.name like concat('%', :#{escape(#part)}, '%') escape :#{escapeCharacter()} and d.name >= :name and (d.name > :name or d.id > :id) order by d.name, d.id")
+    List<Developer> findContainingAfter(@Param("part") String part, @Param("name") String name, @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the id and name of every developper, without loading the developpers
+     * @return rows of id and name
+     */
+    @Query("select d.id, d.name from Developer d")
+    List<Object[]> findAllIdAndName();
+    
+    /**
+     * Find a slice of all developpers, without counting them nor caching the result, to read the whole table in batches
+     * @param pageable slice parameters
+     * @return a slice of result
+     */
+    Slice<Developer> findAllBy(Pageable pageable);
+    
+    /**
+     * Find the first developpers in name then id order, without counting them
+     * @param pageable number of developpers to find, the page number must be 0
+     * @return the first developpers
+     */
+    List<Developer> findAllByOrderByNameAscIdAsc(Pageable pageable);
+    
+    /**
+     * Find the developpers following a name and id in name then id order, without counting them.
+     * The condition starts a range scan of the (name, id) index at the name, whatever the number of previous developpers.
+     * @param name name of the last developper read
+     * @param id id of the last developper read
+     * @param pageable number of developpers to find, the page number must be 0
+     * @return the following developpers
+     */
+    @Query("select d from Developer d where d.name >= :name and (d.name > :name or d.id > :id) order by d.name, d.id")
+    List<Developer> findAllAfter(@Param("name") String name, @Param("id") UUID id, Pageable pageable);
 }
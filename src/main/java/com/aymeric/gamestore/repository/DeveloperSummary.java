@@ -0,0 +1,21 @@
+package com.aymeric.gamestore.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of a developer on its own columns: its games and its owner are not loaded
+ * @author Aymeric NEUMANN
+ *
+ */
+public interface DeveloperSummary {
+    
+    /**
+     * @return the id
+     */
+    UUID getId();
+    
+    /**
+     * @return the name
+     */
+    String getName();
+}
@@ -3,10 +3,16 @@ package com.aymeric.gamestore.repository;
 import java.util.List;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.aymeric.gamestore.entity.Editor;
 
@@ -22,19 +28,84 @@ public interface EditorRepository extends CrudRepository<Editor, UUID>, PagingAn
      * @param pageable page parameters
      * @return a page of result
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Page<Editor> findAll(Pageable pageable);
     
     /**
-     * Find all editors with a strictly matching name
+     * Find the summaries of all editors: only their own columns are selected
+     * @param pageable page parameters
+     * @return a page of summaries
+     */
+    Page<EditorSummary> findSummariesBy(Pageable pageable);
+    
+    /**
+     * Find the first editors with a strictly matching name
      * @param name name to find
+     * @param pageable number of editors to find and their order
      * @return a list of Editor with matching name
      */
-    List<Editor> findAllByName(final String name);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Editor> findAllByName(final String name, final Pageable pageable);
     
     /**
-     * Find all editors with a name containing the string passed as parameter
+     * Find the editors with a strictly matching name following an id, in id order
      * @param name name to find
+     * @param id id of the last editor read
+     * @param pageable number of editors to find, the page number must be 0
+     * @return a list of Editor with matching name
+     */
+    List<Editor> findByNameAndIdGreaterThanOrderByIdAsc(final String name, final UUID id, final Pageable pageable);
+    
+    /**
+     * Find the first editors with a name containing the string passed as parameter
+     * @param name name to find
+     * @param pageable number of editors to find and their order
+     * @return a list of Editor with matching name
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Editor> findByNameContaining(final String name, final Pageable pageable);
+    
+    /**
+     * Find the editors with a name containing the string passed as parameter following a name and id, in name then id order.
+     * The wildcards %, _ and the escape character of the parameter are matched literally, as by the search of the first page
+     * @param part name to find
+     * @param name name of the last editor read
+     * @param id id of the last editor read
+     * @param pageable number of editors to find, the page number must be 0
      * @return a list of Editor with matching name
      */
-    List<Editor> findByNameContainingOrderByNameAsc(final String name);
+    @Query("select e from Editor e where e.name like concat('%', :#{escape(#part)}, '%') escape :#{escapeCharacter()} and e.name >= :name and (e.name > :name or e.id > :id) order by e.name, e.id")
+    List<Editor> findContainingAfter(@Param("part") String part, @Param("name") String name, @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the id and name of every editor, without loading the editors
+     * @return rows of id and name
+     */
+    @Query("select e.id, e.name from Editor e")
+    List<Object[]> findAllIdAndName();
+    
+    /**
+     * Find a slice of all editors, without counting them nor caching the result, to read the whole table in batches
+     * @param pageable slice parameters
+     * @return a slice of result
+     */
+    Slice<Editor> findAllBy(Pageable pageable);
+    
+    /**
+     * Find the first editors in name then id order, without counting them
+     * @param pageable number of editors to find, the page number must be 0
+     * @return the first editors
+     */
+    List<Editor> findAllByOrderByNameAscIdAsc(Pageable pageable);
+    
+    /**
+     * Find the editors following a name and id in name then id order, without counting them.
+     * The condition starts a range scan of the (name, id) index at the name, whatever the number of previous editors.
+     * @param name name of the last editor read
+     * @param id id of the last editor read
+     * @param pageable number of editors to find, the page number must be 0
+     * @return the following editors
+     */
+    @Query("select e from Editor e where e.name >= :name and (e.name > :name or e.id > :id) order by e.name, e.id")
+    List<Editor> findAllAfter(@Param("name") String name, @Param("id") UUID id, Pageable pageable);
 }
@@ -0,0 +1,21 @@
+package com.aymeric.gamestore.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection of an editor on its own columns: its games and its studios are not loaded
+ * @author Aymeric NEUMANN
+ *
+ */
+public interface EditorSummary {
+    
+    /**
+     * @return the id
+     */
+    UUID getId();
+    
+    /**
+     * @return the name
+     */
+    String getName();
+}
@@ -0,0 +1,91 @@
+package com.aymeric.gamestore.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.aymeric.gamestore.entity.GameReadModel;
+
+/**
+ * Repository of the denormalized views of the games
+ * @author Aymeric NEUMANN
+ *
+ */
+public interface GameReadModelRepository extends CrudRepository<GameReadModel, UUID>, PagingAndSortingRepository<GameReadModel, UUID> {
+    
+    /**
+     * Find a page of views, read from the (title, id) index when sorted by title then id
+     * @param pageable page parameters
+     * @return a page of views
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Page<GameReadModel> findAll(Pageable pageable);
+    
+    /**
+     * Find the ids of the games without a view following an id, in id order
+     * @param id id of the last game read
+     * @param pageable number of ids to find, the page number must be 0
+     * @return ids of the games to write a view for
+     */
+    @Query("select g.id from Game g where g.id > :id and not exists (select r.id from GameReadModel r where r.id = g.id) order by g.id")
+    List<UUID> findMissingAfter(@Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the ids of the first games without a view, in id order
+     * @param pageable number of ids to find, the page number must be 0
+     * @return ids of the games to write a view for
+     */
+    @Query("select g.id from Game g where not exists (select r.id from GameReadModel r where r.id = g.id) order by g.id")
+    List<UUID> findMissing(Pageable pageable);
+    
+    /**
+     * Find the ids of the games following an id, in id order
+     * @param id id of the last game read
+     * @param pageable number of ids to find, the page number must be 0
+     * @return ids of the games
+     */
+    @Query("select g.id from Game g where g.id > :id order by g.id")
+    List<UUID> findGameIdsAfter(@Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the ids of the first games, in id order
+     * @param pageable number of ids to find, the page number must be 0
+     * @return ids of the games
+     */
+    @Query("select g.id from Game g order by g.id")
+    List<UUID> findGameIds(Pageable pageable);
+    
+    /**
+     * Find the ids of the games developed by a developper
+     * @param devId id of the developper
+     * @return ids of the games
+     */
+    @Query("select g.id from Game g join g.developer d where d.id = :devId")
+    List<UUID> findGameIdsByDeveloper(@Param("devId") UUID devId);
+    
+    /**
+     * Find the ids of the games edited by an editor or developed by a studio it owns
+     * @param editorId id of the editor
+     * @return ids of the games
+     */
+    @Query("select distinct g.id from Game g left join g.editor e left join g.developer d where e.id = :editorId or d.owner.id = :editorId")
+    List<UUID> findGameIdsByEditor(@Param("editorId") UUID editorId);
+    
+    /**
+     * Delete the views of the games that no longer exist
+     * @return number of deleted views
+     */
+    @Modifying
+    @Query("delete from GameReadModel r where not exists (select g.id from Game g where g.id = r.id)")
+    int deleteOrphans();
+}
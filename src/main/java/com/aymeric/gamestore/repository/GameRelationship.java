@@ -0,0 +1,75 @@
+package com.aymeric.gamestore.repository;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+
+/**
+ * Relationships of the games, each one stored in a join table owned by the game
+ * @author Aymeric NEUMANN
+ *
+ */
+public enum GameRelationship {
+    
+    /** Developpers of a game. */
+    DEVELOPER("game_developer", "developer_id", "developer", "developer", Developer.class),
+    
+    /** Editors of a game. */
+    EDITOR("game_editor", "editor_id", "editor", "editor", Editor.class);
+    
+    /** Column of the join tables referencing the game. */
+    static final String GAME_COLUMN = "games_id";
+    
+    private final String table;
+    
+    private final String column;
+    
+    private final String targetTable;
+    
+    private final String gameRole;
+    
+    private final String targetRole;
+    
+    private GameRelationship(final String table, final String column, final String targetTable, final String gameProperty, final Class<?> target) {
+        this.table = table;
+        this.column = column;
+        this.targetTable = targetTable;
+        this.gameRole = Game.class.getName() + "." + gameProperty;
+        this.targetRole = target.getName() + ".games";
+    }
+    
+    /**
+     * @return the join table
+     */
+    public String getTable() {
+        return table;
+    }
+    
+    /**
+     * @return the column of the join table referencing the developper or the editor
+     */
+    public String getColumn() {
+        return column;
+    }
+    
+    /**
+     * @return the table of the developpers or of the editors
+     */
+    public String getTargetTable() {
+        return targetTable;
+    }
+    
+    /**
+     * @return the collection role of the relationship on the game, the name of its second level cache region
+     */
+    public String getGameRole() {
+        return gameRole;
+    }
+    
+    /**
+     * @return the collection role of the games on the developper or the editor
+     */
+    public String getTargetRole() {
+        return targetRole;
+    }
+}
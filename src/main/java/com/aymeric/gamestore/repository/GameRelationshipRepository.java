@@ -0,0 +1,204 @@
+package com.aymeric.gamestore.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.entity.UuidStorage;
+
+/**
+ * Relationships of the games written directly in their join tables, without loading the games and their collections.
+ * The existence of the game is checked by the increment of its version, the one of the developper or editor by the foreign key,
+ * and a relationship added twice is refused by the primary key of the join table.
+ * Relationships added by batches are checked beforehand with one query per table, then inserted by one JDBC batch.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Repository
+public class GameRelationshipRepository {
+    
+    /** Increment of the version of the game, so that an older copy of the game is not saved over the relationship. */
+    private static final String INCREMENT_VERSION = "update game set version = version + 1 where id = ?";
+    
+    /** Table of the games. */
+    private static final String GAME_TABLE = "game";
+    
+    @Value("${" + UuidStorage.SETTING + ":char}")
+    private String storageSetting;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private UuidStorage storage;
+    
+    @PostConstruct
+    public void init() {
+        storage = UuidStorage.of(Collections.singletonMap(UuidStorage.SETTING, storageSetting));
+    }
+    
+    /**
+     * Insert a relationship of a game with one statement, after the increment of the version of the game
+     * @param relationship relationship to add
+     * @param gameId id of the game
+     * @param targetId id of the developper or of the editor
+     * @return false if the game does not exist, nothing being inserted;
+     * DuplicateKeyException if the relationship exists or DataIntegrityViolationException if the developper or editor does not exist,
+     * the transaction being rolled back
+     */
+    @Transactional
+    public boolean insert(final GameRelationship relationship, final UUID gameId, final UUID targetId) {
+        if(jdbcTemplate.update(INCREMENT_VERSION, storage.toJdbc(gameId)) == 0) {
+            return false;
+        }
+        
+        jdbcTemplate.update("insert into " + relationship.getTable() + " (" + GameRelationship.GAME_COLUMN + ", " + relationship.getColumn() + ") values (?, ?)",
+                storage.toJdbc(gameId), storage.toJdbc(targetId));
+        
+        return true;
+    }
+    
+    /**
+     * Evict from the second level cache what Hibernate did not see change: the game, with its new version,
+     * its collection of the relationship and the games of the developper or editor.
+     * Called once the insert is committed, so that no transaction loads them back before.
+     * @param relationship added relationship
+     * @param gameId id of the game
+     * @param targetId id of the developper or of the editor
+     */
+    public void evict(final GameRelationship relationship, final UUID gameId, final UUID targetId) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Game.class, gameId);
+        cache.evictCollectionData(relationship.getGameRole(), gameId);
+        cache.evictCollectionData(relationship.getTargetRole(), targetId);
+    }
+    
+    /**
+     * Find the games that exist among ids, with one query
+     * @param gameIds ids of games
+     * @return ids of the existing games
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findExistingGames(final Collection<UUID> gameIds) {
+        return findExisting(GAME_TABLE, gameIds);
+    }
+    
+    /**
+     * Find the developpers or editors that exist among ids, with one query
+     * @param relationship relationship giving the table of the developpers or editors
+     * @param targetIds ids of developpers or editors
+     * @return ids of the existing ones
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findExistingTargets(final GameRelationship relationship, final Collection<UUID> targetIds) {
+        return findExisting(relationship.getTargetTable(), targetIds);
+    }
+    
+    /**
+     * Find the existing relationships between games and developpers or editors, with one query
+     * @param relationship relationship to read
+     * @param gameIds ids of the games
+     * @param targetIds ids of the developpers or editors
+     * @return ids of the developpers or editors of each game, among the given ones
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Set<UUID>> findLinks(final GameRelationship relationship, final Collection<UUID> gameIds, final Collection<UUID> targetIds) {
+        Map<UUID, Set<UUID>> links = new HashMap<>();
+        
+        if(gameIds.isEmpty() || targetIds.isEmpty()) {
+            return links;
+        }
+        
+        String sql = "select " + GameRelationship.GAME_COLUMN + ", " + relationship.getColumn() + " from " + relationship.getTable()
+                + " where " + GameRelationship.GAME_COLUMN + " in (:gameIds) and " + relationship.getColumn() + " in (:targetIds)";
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("gameIds", toJdbc(gameIds));
+        parameters.put("targetIds", toJdbc(targetIds));
+        
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            links.computeIfAbsent(storage.fromJdbc(rs.getObject(1)), id -> new HashSet<>()).add(storage.fromJdbc(rs.getObject(2)));
+        });
+        
+        return links;
+    }
+    
+    /**
+     * Insert relationships of games with one JDBC batch, after the increment of the versions of their games.
+     * The games are updated in the order of their ids, so that concurrent batches lock them in the same order.
+     * A refused relationship throws DuplicateKeyException or DataIntegrityViolationException, the transaction being rolled back.
+     * @param relationship relationship to add
+     * @param links ids of the developpers or editors to add to each game
+     */
+    @Transactional
+    public void insertAll(final GameRelationship relationship, final Map<UUID, Set<UUID>> links) {
+        List<Object[]> games = links.keySet().stream().sorted().map(id -> new Object[] { storage.toJdbc(id) }).collect(Collectors.toList());
+        List<Object[]> rows = new ArrayList<>();
+        links.forEach((gameId, targetIds) -> targetIds.forEach(targetId -> rows.add(new Object[] { storage.toJdbc(gameId), storage.toJdbc(targetId) })));
+        
+        jdbcTemplate.batchUpdate(INCREMENT_VERSION, games);
+        jdbcTemplate.batchUpdate("insert into " + relationship.getTable() + " (" + GameRelationship.GAME_COLUMN + ", " + relationship.getColumn() + ") values (?, ?)", rows);
+    }
+    
+    /**
+     * Evict from the second level cache the games, their collections of the relationship and the games of the developpers or editors
+     * of relationships added by batch
+     * @param relationship added relationship
+     * @param links ids of the developpers or editors added to each game
+     */
+    public void evictAll(final GameRelationship relationship, final Map<UUID, Set<UUID>> links) {
+        links.forEach((gameId, targetIds) -> targetIds.forEach(targetId -> evict(relationship, gameId, targetId)));
+    }
+    
+    /**
+     * @param table table of games, developpers or editors
+     * @param ids ids to find
+     * @return ids found in the table
+     */
+    private Set<UUID> findExisting(final String table, final Collection<UUID> ids) {
+        Set<UUID> existing = new HashSet<>();
+        
+        if(ids.isEmpty()) {
+            return existing;
+        }
+        
+        namedJdbcTemplate.query("select id from " + table + " where id in (:ids)", Collections.singletonMap("ids", toJdbc(ids)),
+                rs -> {
+                    existing.add(storage.fromJdbc(rs.getObject(1)));
+                });
+        
+        return existing;
+    }
+    
+    /**
+     * @param ids ids to bind
+     * @return the ids as bound to a JDBC statement, expanded by the named parameters
+     */
+    private List<Object> toJdbc(final Collection<UUID> ids) {
+        return ids.stream().map(storage::toJdbc).collect(Collectors.toList());
+    }
+}
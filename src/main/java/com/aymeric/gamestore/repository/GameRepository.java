@@ -2,12 +2,19 @@ package com.aymeric.gamestore.repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
-import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import com.aymeric.gamestore.entity.Game;
 
@@ -16,27 +23,117 @@ import com.aymeric.gamestore.entity.Game;
  * @author Aymeric NEUMANN
  *
  */
-@CacheConfig(cacheNames={"games"})
 public interface GameRepository extends CrudRepository<Game, UUID>, PagingAndSortingRepository<Game, UUID> {
 
     /**
-     * Find all games and return it in a paged result
+     * Find all games and return it in a paged result.
+     * The developpers and editors of the page are loaded by batches, see hibernate.default_batch_fetch_size:
+     * an entity graph would fetch them with the whole table before paging in memory.
      * @param pageable page parameters
      * @return a page of result
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Page<Game> findAll(Pageable pageable);
+    
+    /**
+     * Find the games of the ids with their developpers, their owners and their editors in one query
+     * @param ids ids of the games
+     * @return the games found
+     */
+    @Override
+    @EntityGraph(Game.RELATIONS)
+    Iterable<Game> findAllById(Iterable<UUID> ids);
+    
+    /**
+     * Find the summaries of all games: only their own columns are selected
+     * @param pageable page parameters
+     * @return a page of summaries
+     */
+    Page<GameSummary> findSummariesBy(Pageable pageable);
 
     /**
-     * Find all games with the matching title
+     * Find the first games with the matching title
      * @param Title title of the game to find
+     * @param pageable number of games to find and their order
      * @return a list of games
      */
-    List<Game> findByTitle(String title);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Game> findByTitle(String title, Pageable pageable);
     
     /**
-     * Find all games with a title containing the parameter
+     * Find the games with the matching title following an id, in id order
+     * @param title title of the game to find
+     * @param id id of the last game read
+     * @param pageable number of games to find, the page number must be 0
+     * @return a list of games
+     */
+    List<Game> findByTitleAndIdGreaterThanOrderByIdAsc(String title, UUID id, Pageable pageable);
+    
+    /**
+     * Find the first games with a title containing the parameter
      * @param title title/part of title of the games to find
+     * @param pageable number of games to find and their order
+     * @return a list of games
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Game> findByTitleContaining(String title, Pageable pageable);
+    
+    /**
+     * Find the games with a title containing the parameter following a title and id, in title then id order.
+     * The wildcards %, _ and the escape character of the parameter are matched literally, as by the search of the first page
+     * @param part title/part of title of the games to find
+     * @param title title of the last game read
+     * @param id id of the last game read
+     * @param pageable number of games to find, the page number must be 0
      * @return a list of games
      */
-    List<Game> findByTitleContainingOrderByTitleAsc(String title);
+    @Query("select g from Game g where g.title like concat('%', :#{escape(#part)}, '%') escape :#{escapeCharacter()} and g.title >= :title and (g.title > :title or g.id > :id) order by g.title, g.id")
+    List<Game> findContainingAfter(@Param("part") String part, @Param("title") String title, @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Find the id and title of every game, without loading the games
+     * @return rows of id and title
+     */
+    @Query("select g.id, g.title from Game g")
+    List<Object[]> findAllIdAndTitle();
+    
+    /**
+     * Find a slice of all games, without counting them nor caching the result, to read the whole table in batches
+     * @param pageable slice parameters
+     * @return a slice of result
+     */
+    Slice<Game> findAllBy(Pageable pageable);
+    
+    /**
+     * Find the first games in title then id order, without counting them
+     * @param pageable number of games to find, the page number must be 0
+     * @return the first games
+     */
+    List<Game> findAllByOrderByTitleAscIdAsc(Pageable pageable);
+    
+    /**
+     * Find the games following a title and id in title then id order, without counting them.
+     * The condition starts a range scan of the (title, id) index at the title, whatever the number of previous games.
+     * @param title title of the last game read
+     * @param id id of the last game read
+     * @param pageable number of games to find, the page number must be 0
+     * @return the following games
+     */
+    @Query("select g from Game g where g.title >= :title and (g.title > :title or g.id > :id) order by g.title, g.id")
+    List<Game> findAllAfter(@Param("title") String title, @Param("id") UUID id, Pageable pageable);
+    
+    /**
+     * Stream all games with their developpers, their owners and their editors, read forward in one query.
+     * Rows are fetched by batches of 500 and neither the games nor the query are cached, so the stream does not keep them.
+     * Must be consumed and closed inside a transaction.
+     * @return the stream of all games, in id order
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    @Query("select g from Game g left join fetch g.developer d left join fetch d.owner left join fetch g.editor order by g.id")
+    Stream<Game> streamAllBy();
 }
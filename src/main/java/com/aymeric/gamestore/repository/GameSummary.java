@@ -0,0 +1,27 @@
+package com.aymeric.gamestore.repository;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Projection of a game on its own columns: its developers and editors are not loaded
+ * @author Aymeric NEUMANN
+ *
+ */
+public interface GameSummary {
+    
+    /**
+     * @return the id
+     */
+    UUID getId();
+    
+    /**
+     * @return the title
+     */
+    String getTitle();
+    
+    /**
+     * @return the releaseDate
+     */
+    Date getReleaseDate();
+}
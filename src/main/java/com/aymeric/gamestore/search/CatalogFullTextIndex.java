@@ -0,0 +1,527 @@
+package com.aymeric.gamestore.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+
+/**
+ * Full text index of the catalog stored on disk.
+ * Games are indexed with the names of their developpers and editors, developpers with the name of their owner.
+ * Writes are visible to the searches at once and committed to the disk periodically and on shutdown.
+ * The index is rebuilt from the database at startup when it is empty or when a rebuild is requested.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+@Order(1)
+public class CatalogFullTextIndex implements ApplicationRunner {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(CatalogFullTextIndex.class);
+    
+    private static final String GAME = "game";
+    
+    private static final String DEVELOPER = "developer";
+    
+    private static final String EDITOR = "editor";
+    
+    /** Unique key of a document: type and id. */
+    private static final String UID = "uid";
+    
+    private static final String TYPE = "type";
+    
+    private static final String ID = "id";
+    
+    /** Title of a game, name of a developper or an editor. */
+    private static final String LABEL = "label";
+    
+    /** Names of the related developpers and editors. */
+    private static final String RELATED = "related";
+    
+    /** A match on the label counts more than a match on a related name. */
+    private static final float LABEL_BOOST = 3f;
+    
+    /** Leading characters a fuzzy word has to share, which keeps the automaton away from most of the dictionary. */
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+    
+    /** Entities read per query during a rebuild. */
+    private static final int REBUILD_BATCH_SIZE = 500;
+    
+    @Value("${gamestore.search.index-dir}")
+    private String indexDir;
+    
+    /** Rebuild even if the index is not empty, after a restore of the database for instance. */
+    @Value("${gamestore.search.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+    
+    @Autowired
+    private GameRepository gameRepository;
+    
+    @Autowired
+    private DeveloperRepository devRepository;
+    
+    @Autowired
+    private EditorRepository editorRepository;
+    
+    private final Analyzer analyzer = new StandardAnalyzer();
+    
+    private Directory directory;
+    
+    private IndexWriter writer;
+    
+    private SearcherManager searcherManager;
+    
+    /** Decided when the index is opened, before writes may be indexed. */
+    private boolean rebuildNeeded;
+    
+    /** True while the index is rebuilt from the database. */
+    private volatile boolean rebuilding;
+    
+    /** Documents deleted during a rebuild, deleted again at its end in case an older read indexed them back. */
+    private final Set<String> deletedWhileRebuilding = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Open the index, creating it if needed
+     * @throws IOException if the index directory cannot be opened
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        directory = FSDirectory.open(Files.createDirectories(Paths.get(indexDir)));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        rebuildNeeded = rebuildOnStartup || writer.getDocStats().numDocs == 0;
+    }
+    
+    /**
+     * Rebuild the index if it is empty or if requested
+     */
+    @Override
+    public void run(final ApplicationArguments args) throws IOException {
+        if(rebuildNeeded) {
+            rebuild();
+        } else {
+            logger.info("Full text index opened with {} documents", writer.getDocStats().numDocs);
+        }
+    }
+    
+    /**
+     * Index the whole catalog again, reading it by batches
+     * @throws IOException if the index cannot be written
+     */
+    public void rebuild() throws IOException {
+        long start = System.currentTimeMillis();
+        rebuilding = true;
+        
+        try {
+            writer.deleteAll();
+            readAll(gameRepository::findAllBy, this::indexGames);
+            readAll(devRepository::findAllBy, this::indexDevelopers);
+            readAll(editorRepository::findAllBy, this::indexEditors);
+        } finally {
+            rebuilding = false;
+        }
+        
+        for(String uid : deletedWhileRebuilding) {
+            writer.deleteDocuments(new Term(UID, uid));
+        }
+        deletedWhileRebuilding.clear();
+        writer.commit();
+        searcherManager.maybeRefresh();
+        
+        logger.info("Full text index rebuilt with {} documents in {} ms", writer.getDocStats().numDocs, System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Search games by title and by names of their developpers and editors
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of hits of the page
+     * @return the page of matching games by decreasing relevance
+     */
+    public SearchResult searchGames(final String text, final int page, final int size) {
+        return search(GAME, text, page, size);
+    }
+    
+    /**
+     * Search developpers by name and by name of their owner
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of hits of the page
+     * @return the page of matching developpers by decreasing relevance
+     */
+    public SearchResult searchDevelopers(final String text, final int page, final int size) {
+        return search(DEVELOPER, text, page, size);
+    }
+    
+    /**
+     * Search editors by name
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of hits of the page
+     * @return the page of matching editors by decreasing relevance
+     */
+    public SearchResult searchEditors(final String text, final int page, final int size) {
+        return search(EDITOR, text, page, size);
+    }
+    
+    /**
+     * Find the games with a title close to a text despite typos
+     * @param text title, possibly misspelled
+     * @param limit maximum number of games
+     * @return ids of the closest games first
+     */
+    public List<UUID> fuzzyGames(final String text, final int limit) {
+        return fuzzy(GAME, text, limit);
+    }
+    
+    /**
+     * Find the developpers with a name close to a text despite typos
+     * @param text name, possibly misspelled
+     * @param limit maximum number of developpers
+     * @return ids of the closest developpers first
+     */
+    public List<UUID> fuzzyDevelopers(final String text, final int limit) {
+        return fuzzy(DEVELOPER, text, limit);
+    }
+    
+    /**
+     * Find the editors with a name close to a text despite typos
+     * @param text name, possibly misspelled
+     * @param limit maximum number of editors
+     * @return ids of the closest editors first
+     */
+    public List<UUID> fuzzyEditors(final String text, final int limit) {
+        return fuzzy(EDITOR, text, limit);
+    }
+    
+    /**
+     * @param saved created or updated games
+     */
+    public void indexGames(final Collection<Game> saved) {
+        for(Game game : saved) {
+            if(game.getId() != null) {
+                update(GAME, game.getId(), game.getTitle(),
+                        names(game.getDevs(), Developer::getName) + " " + names(game.getEditors(), Editor::getName));
+            }
+        }
+        refresh();
+    }
+    
+    /**
+     * @param id id of the deleted game
+     */
+    public void removeGame(final UUID id) {
+        delete(GAME, id);
+    }
+    
+    /**
+     * @param saved created or updated developpers
+     */
+    public void indexDevelopers(final Collection<Developer> saved) {
+        for(Developer dev : saved) {
+            if(dev.getId() != null) {
+                update(DEVELOPER, dev.getId(), dev.getName(), dev.getOwner() == null ? "" : Objects.toString(dev.getOwner().getName(), ""));
+            }
+        }
+        refresh();
+    }
+    
+    /**
+     * @param id id of the deleted developper
+     */
+    public void removeDeveloper(final UUID id) {
+        delete(DEVELOPER, id);
+    }
+    
+    /**
+     * @param saved created or updated editors
+     */
+    public void indexEditors(final Collection<Editor> saved) {
+        for(Editor editor : saved) {
+            if(editor.getId() != null) {
+                update(EDITOR, editor.getId(), editor.getName(), "");
+            }
+        }
+        refresh();
+    }
+    
+    /**
+     * @param id id of the deleted editor
+     */
+    public void removeEditor(final UUID id) {
+        delete(EDITOR, id);
+    }
+    
+    /**
+     * Write the pending changes to the disk
+     */
+    @Scheduled(initialDelayString = "${gamestore.search.commit-delay-ms:10000}", fixedDelayString = "${gamestore.search.commit-delay-ms:10000}")
+    public void commit() {
+        try {
+            if(writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            logger.error("Cannot commit the full text index", e);
+        }
+    }
+    
+    /**
+     * Commit and close the index
+     * @throws IOException if the index cannot be committed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+    
+    private SearchResult search(final String type, final String text, final int page, final int size) {
+        Query query = query(type, text);
+        
+        if(query == null) {
+            return new SearchResult(page, size, 0, new ArrayList<>());
+        }
+        
+        TopHits top = top(query, page * size, (page + 1) * size);
+        
+        return new SearchResult(page, size, top.totalHits, top.hits);
+    }
+    
+    /**
+     * Every word has to be within a few edits of a word of the label: none for short words, one up to 5 letters, two above.
+     * Each fuzzy word is expanded against the term dictionary by a Levenshtein automaton, the labels are never scanned.
+     * @param type type of the searched entities
+     * @param text words to find, possibly misspelled
+     * @param limit maximum number of entities
+     * @return ids of the closest entities first
+     */
+    private List<UUID> fuzzy(final String type, final String text, final int limit) {
+        List<String> words = analyze(text);
+        
+        if(words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        BooleanQuery.Builder query = new BooleanQuery.Builder().add(new TermQuery(new Term(TYPE, type)), Occur.FILTER);
+        
+        for(String word : words) {
+            int maxEdits = word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+            query.add(new FuzzyQuery(new Term(LABEL, word), maxEdits, FUZZY_PREFIX_LENGTH), Occur.MUST);
+        }
+        
+        return top(query.build(), 0, limit).hits.stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+    
+    /**
+     * Run a query on the current searcher
+     * @param query query to run
+     * @param from rank of the first hit to return
+     * @param to rank after the last hit to return
+     * @return the hits between from and to with the total number of hits
+     */
+    private TopHits top(final Query query, final int from, final int to) {
+        List<SearchHit> hits = new ArrayList<>();
+        
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, to);
+                
+                for(int i = from; i < topDocs.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    Document document = searcher.doc(scoreDoc.doc);
+                    hits.add(new SearchHit(UUID.fromString(document.get(ID)), document.get(LABEL), scoreDoc.score));
+                }
+                
+                return new TopHits(topDocs.totalHits.value, hits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            logger.error("Cannot search the full text index", e);
+            throw new GamestoreEntityException("The search is unavailable", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+    
+    /**
+     * Any word of the text has to match the label or a related name, entities matching more words rank first
+     * @param type type of the searched entities
+     * @param text words to find
+     * @return the query or null if the text has no word
+     */
+    private Query query(final String type, final String text) {
+        BooleanQuery.Builder words = new BooleanQuery.Builder();
+        int wordCount = 0;
+        
+        for(String word : analyze(text)) {
+            words.add(new BoostQuery(new TermQuery(new Term(LABEL, word)), LABEL_BOOST), Occur.SHOULD);
+            words.add(new TermQuery(new Term(RELATED, word)), Occur.SHOULD);
+            wordCount++;
+        }
+        
+        if(wordCount == 0) {
+            return null;
+        }
+        
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, type)), Occur.FILTER)
+                .add(words.build(), Occur.MUST)
+                .build();
+    }
+    
+    /**
+     * @param text text to split
+     * @return the words of the text as indexed
+     */
+    private List<String> analyze(final String text) {
+        List<String> words = new ArrayList<>();
+        
+        try(TokenStream stream = analyzer.tokenStream(LABEL, text == null ? "" : text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while(stream.incrementToken()) {
+                words.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new GamestoreEntityException("Cannot read the search text: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        
+        return words;
+    }
+    
+    private void update(final String type, final UUID id, final String label, final String related) {
+        Document document = new Document();
+        document.add(new StringField(UID, type + ":" + id, Field.Store.NO));
+        document.add(new StringField(TYPE, type, Field.Store.NO));
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new TextField(LABEL, label == null ? "" : label, Field.Store.YES));
+        document.add(new TextField(RELATED, related, Field.Store.NO));
+        
+        try {
+            writer.updateDocument(new Term(UID, type + ":" + id), document);
+        } catch (IOException e) {
+            logger.error("Cannot index the {} {}", type, id, e);
+        }
+    }
+    
+    private void delete(final String type, final UUID id) {
+        String uid = type + ":" + id;
+        
+        if(rebuilding) {
+            deletedWhileRebuilding.add(uid);
+        }
+        
+        try {
+            writer.deleteDocuments(new Term(UID, uid));
+        } catch (IOException e) {
+            logger.error("Cannot remove the {} {} from the index", type, id, e);
+        }
+        refresh();
+    }
+    
+    /**
+     * Make the last writes visible to the searches
+     */
+    private void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            logger.error("Cannot refresh the full text index", e);
+        }
+    }
+    
+    private static <T> String names(final Collection<T> entities, final Function<T, String> name) {
+        if(entities == null) {
+            return "";
+        }
+        
+        return entities.stream().map(name).filter(Objects::nonNull).collect(Collectors.joining(" "));
+    }
+    
+    private static <T> void readAll(final Function<Pageable, Slice<T>> read, final Consumer<List<T>> index) {
+        Slice<T> slice = read.apply(PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+        index.accept(slice.getContent());
+        
+        while(slice.hasNext()) {
+            slice = read.apply(slice.nextPageable());
+            index.accept(slice.getContent());
+        }
+    }
+    
+    /**
+     * Hits of a range of ranks with the total number of hits
+     */
+    private static final class TopHits {
+        
+        private final long totalHits;
+        
+        private final List<SearchHit> hits;
+        
+        private TopHits(final long totalHits, final List<SearchHit> hits) {
+            this.totalHits = totalHits;
+            this.hits = hits;
+        }
+    }
+}
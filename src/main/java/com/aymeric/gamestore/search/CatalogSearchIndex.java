@@ -0,0 +1,239 @@
+package com.aymeric.gamestore.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+
+/**
+ * Trigram and prefix indexes of the game titles and of the developer and editor names.
+ * Built at startup then kept up to date by the services on every create and delete.
+ * Searches fall back to the database until the indexes are built.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Component
+@Order(0)
+public class CatalogSearchIndex implements ApplicationRunner {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+    
+    private final TrigramIndex games = new TrigramIndex();
+    
+    private final TrigramIndex developers = new TrigramIndex();
+    
+    private final TrigramIndex editors = new TrigramIndex();
+    
+    private final PrefixIndex gamePrefixes = new PrefixIndex();
+    
+    private final PrefixIndex developerPrefixes = new PrefixIndex();
+    
+    private final PrefixIndex editorPrefixes = new PrefixIndex();
+    
+    /** True once the indexes contain the whole catalog. */
+    private volatile boolean ready;
+    
+    @Autowired
+    private GameRepository gameRepository;
+    
+    @Autowired
+    private DeveloperRepository devRepository;
+    
+    @Autowired
+    private EditorRepository editorRepository;
+    
+    /**
+     * Load the whole catalog in the indexes.
+     * Writes done meanwhile are applied to the same indexes so none is lost,
+     * and the load leaves the ids they wrote or removed as they are: a game deleted during the load is not indexed again.
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        
+        load(gameRepository.findAllIdAndTitle(), games, gamePrefixes);
+        load(devRepository.findAllIdAndName(), developers, developerPrefixes);
+        load(editorRepository.findAllIdAndName(), editors, editorPrefixes);
+        ready = true;
+        
+        logger.info("Search indexes built with {} games, {} developers and {} editors in {} ms",
+                games.size(), developers.size(), editors.size(), System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * @return true if the indexes can be searched
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Queries shorter than a trigram are left to the database: the trigram indexes would have to check every text
+     * @param query title or name to find
+     * @return true if the query can be searched in the indexes
+     */
+    public boolean canSearch(final String query) {
+        return ready && TrigramIndex.isSearchable(query);
+    }
+    
+    /**
+     * Find a page of the games with a title containing a string, in title then id order
+     * @param title string to find, case insensitive
+     * @param afterTitle title of the last game of the previous page, null for the first page
+     * @param afterId id of the last game of the previous page, null for the first page
+     * @param limit maximum number of matches
+     * @return ids and titles of the matching games
+     */
+    public List<Suggestion> searchGames(final String title, final String afterTitle, final UUID afterId, final int limit) {
+        return games.search(title, afterTitle, afterId, limit);
+    }
+    
+    /**
+     * Find a page of the developers with a name containing a string, in name then id order
+     * @param name string to find, case insensitive
+     * @param afterName name of the last developer of the previous page, null for the first page
+     * @param afterId id of the last developer of the previous page, null for the first page
+     * @param limit maximum number of matches
+     * @return ids and names of the matching developers
+     */
+    public List<Suggestion> searchDevelopers(final String name, final String afterName, final UUID afterId, final int limit) {
+        return developers.search(name, afterName, afterId, limit);
+    }
+    
+    /**
+     * Find a page of the editors with a name containing a string, in name then id order
+     * @param name string to find, case insensitive
+     * @param afterName name of the last editor of the previous page, null for the first page
+     * @param afterId id of the last editor of the previous page, null for the first page
+     * @param limit maximum number of matches
+     * @return ids and names of the matching editors
+     */
+    public List<Suggestion> searchEditors(final String name, final String afterName, final UUID afterId, final int limit) {
+        return editors.search(name, afterName, afterId, limit);
+    }
+    
+    /**
+     * Suggest the games with a word of their title starting with a prefix
+     * @param prefix start of a word of the title, case insensitive
+     * @param limit maximum number of suggestions
+     * @return the suggested games
+     */
+    public List<Suggestion> suggestGames(final String prefix, final int limit) {
+        return gamePrefixes.suggest(prefix, limit);
+    }
+    
+    /**
+     * Suggest the developers with a word of their name starting with a prefix
+     * @param prefix start of a word of the name, case insensitive
+     * @param limit maximum number of suggestions
+     * @return the suggested developers
+     */
+    public List<Suggestion> suggestDevelopers(final String prefix, final int limit) {
+        return developerPrefixes.suggest(prefix, limit);
+    }
+    
+    /**
+     * Suggest the editors with a word of their name starting with a prefix
+     * @param prefix start of a word of the name, case insensitive
+     * @param limit maximum number of suggestions
+     * @return the suggested editors
+     */
+    public List<Suggestion> suggestEditors(final String prefix, final int limit) {
+        return editorPrefixes.suggest(prefix, limit);
+    }
+    
+    /**
+     * @param saved created or updated games
+     */
+    public void indexGames(final Collection<Game> saved) {
+        index(saved, Game::getId, Game::getTitle, games, gamePrefixes);
+    }
+    
+    /**
+     * @param id id of the deleted game
+     */
+    public void removeGame(final UUID id) {
+        games.remove(id);
+        gamePrefixes.remove(id);
+    }
+    
+    /**
+     * @param saved created or updated developers
+     */
+    public void indexDevelopers(final Collection<Developer> saved) {
+        index(saved, Developer::getId, Developer::getName, developers, developerPrefixes);
+    }
+    
+    /**
+     * @param id id of the deleted developer
+     */
+    public void removeDeveloper(final UUID id) {
+        developers.remove(id);
+        developerPrefixes.remove(id);
+    }
+    
+    /**
+     * @param saved created or updated editors
+     */
+    public void indexEditors(final Collection<Editor> saved) {
+        index(saved, Editor::getId, Editor::getName, editors, editorPrefixes);
+    }
+    
+    /**
+     * @param id id of the deleted editor
+     */
+    public void removeEditor(final UUID id) {
+        editors.remove(id);
+        editorPrefixes.remove(id);
+    }
+    
+    /**
+     * Load rows of id and label in a pair of indexes, the ids written since startup being skipped
+     * @param rows rows of id and label
+     * @param trigrams trigram index to fill
+     * @param prefixes prefix index to fill
+     */
+    private static void load(final List<Object[]> rows, final TrigramIndex trigrams, final PrefixIndex prefixes) {
+        Map<UUID, String> labels = new HashMap<>();
+        rows.forEach(row -> labels.put((UUID) row[0], (String) row[1]));
+        
+        trigrams.load(labels);
+        prefixes.load(labels);
+    }
+    
+    /**
+     * Index saved entities in a pair of indexes
+     * @param saved saved entities, the ones without id are skipped
+     * @param id id of an entity
+     * @param label title or name of an entity
+     * @param trigrams trigram index to update
+     * @param prefixes prefix index to update
+     */
+    private static <T> void index(final Collection<T> saved, final Function<T, UUID> id, final Function<T, String> label,
+            final TrigramIndex trigrams, final PrefixIndex prefixes) {
+        Map<UUID, String> labels = new HashMap<>();
+        saved.stream().filter(entity -> id.apply(entity) != null).forEach(entity -> labels.put(id.apply(entity), label.apply(entity)));
+        
+        labels.forEach(trigrams::put);
+        prefixes.update(labels, Collections.emptySet());
+    }
+}
@@ -0,0 +1,53 @@
+package com.aymeric.gamestore.search;
+
+/**
+ * Results of a search of the whole catalog, one page per type of entity
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class CatalogSearchResult {
+    
+    private final SearchResult games;
+    
+    private final SearchResult developers;
+    
+    private final SearchResult editors;
+    
+    /** True if a section is empty because its search failed or timed out. */
+    private final boolean partial;
+    
+    public CatalogSearchResult(final SearchResult games, final SearchResult developers, final SearchResult editors, final boolean partial) {
+        this.games = games;
+        this.developers = developers;
+        this.editors = editors;
+        this.partial = partial;
+    }
+
+    /**
+     * @return the games
+     */
+    public SearchResult getGames() {
+        return games;
+    }
+
+    /**
+     * @return the developers
+     */
+    public SearchResult getDevelopers() {
+        return developers;
+    }
+
+    /**
+     * @return the editors
+     */
+    public SearchResult getEditors() {
+        return editors;
+    }
+
+    /**
+     * @return the partial
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+}
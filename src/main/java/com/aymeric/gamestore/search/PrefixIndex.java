@@ -0,0 +1,437 @@
+package com.aymeric.gamestore.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Sorted arrays of the start of each word of the labels by id, to suggest the labels with a word starting with a prefix.
+ * A key is the label and the offset of one of its words so "pri" suggests "Metroid Prime", without copying the end of the label.
+ * Reads binary search immutable segments without locking: a large base and a small delta of the last writes.
+ * A write only copies the delta; the delta is merged into a new base once it holds an eighth of the base.
+ * The keys of replaced or removed labels are skipped by the reads and dropped by the next merge.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class PrefixIndex {
+    
+    /** Keys of the delta merged into the base whatever the size of the base. */
+    private static final int MIN_DELTA_SIZE = 256;
+    
+    /** Ratio of the keys of the base over the ones of the delta above which the delta is merged. */
+    private static final int BASE_TO_DELTA_RATIO = 8;
+    
+    /** Order of the suggestions: labels starting with the prefix, then the shortest labels, then alphabetical order. */
+    private static final Comparator<Match> RANK = Comparator.comparingInt((Match match) -> match.offset == 0 ? 0 : 1)
+            .thenComparingInt(match -> match.label.normalized.length())
+            .thenComparing(match -> match.label.label, TrigramIndex.TEXT_ORDER)
+            .thenComparing(match -> match.label.id);
+    
+    /** Current label by id, the keys of any other label being stale. */
+    private final Map<UUID, Label> current = new ConcurrentHashMap<>();
+    
+    /** Current segments of the index, replaced on every write. */
+    private volatile Segments segments = new Segments(Segment.EMPTY, Segment.EMPTY);
+    
+    /** Ids written before the first load, which must not be overwritten by it, null once loaded. */
+    private Set<UUID> writtenBeforeLoad = new HashSet<>();
+    
+    /**
+     * Index or re-index a label
+     * @param id id of the label
+     * @param label label to index, ignored if null
+     */
+    public void put(final UUID id, final String label) {
+        update(Collections.singletonMap(id, label), Collections.emptySet());
+    }
+    
+    /**
+     * Remove a label from the index
+     * @param id id of the label
+     */
+    public void remove(final UUID id) {
+        update(Collections.emptyMap(), Collections.singleton(id));
+    }
+    
+    /**
+     * Load the whole catalog read at startup.
+     * The labels written or removed since the index was created are left as they are: the rows may have been read before these writes.
+     * @param labels labels by id
+     */
+    public synchronized void load(final Map<UUID, String> labels) {
+        Map<UUID, String> loaded = new HashMap<>(labels);
+        
+        if(writtenBeforeLoad != null) {
+            loaded.keySet().removeAll(writtenBeforeLoad);
+            writtenBeforeLoad = null;
+        }
+        
+        apply(loaded, Collections.emptySet());
+    }
+    
+    /**
+     * Apply several writes with a single copy of the delta
+     * @param puts labels to index or re-index by id
+     * @param removes ids to remove
+     */
+    public synchronized void update(final Map<UUID, String> puts, final Collection<UUID> removes) {
+        if(writtenBeforeLoad != null) {
+            writtenBeforeLoad.addAll(puts.keySet());
+            writtenBeforeLoad.addAll(removes);
+        }
+        
+        apply(puts, removes);
+    }
+    
+    /**
+     * Suggest the labels with a word starting with a prefix, best ranked first:
+     * the labels starting with the prefix, then the shortest ones, then in alphabetical order.
+     * Only the suggestions are kept while the matches are ranked, whatever their number.
+     * @param prefix start of a word, case insensitive, not blank
+     * @param limit maximum number of suggestions
+     * @return at most limit suggestions, one per id
+     */
+    public List<Suggestion> suggest(final String prefix, final int limit) {
+        if(prefix == null || prefix.trim().isEmpty()) {
+            throw new IllegalArgumentException("Prefixes of the prefix index must not be blank");
+        }
+        
+        Segments read = segments;
+        String normalizedPrefix = normalize(prefix);
+        BestMatches best = new BestMatches(limit);
+        
+        read.base.collect(normalizedPrefix, current, best);
+        read.delta.collect(normalizedPrefix, current, best);
+        
+        return best.toList().stream().map(match -> new Suggestion(match.label.id, match.label.label)).collect(Collectors.toList());
+    }
+    
+    /**
+     * @return number of indexed labels
+     */
+    public int size() {
+        return current.size();
+    }
+    
+    /**
+     * Add the keys of the put labels to the delta, then make the labels current
+     * @param puts labels to index or re-index by id
+     * @param removes ids to remove
+     */
+    private void apply(final Map<UUID, String> puts, final Collection<UUID> removes) {
+        List<Label> added = new ArrayList<>();
+        puts.forEach((id, label) -> {
+            if(label != null) {
+                added.add(new Label(id, label));
+            }
+        });
+        
+        Segments read = segments;
+        Segment delta = read.delta.merge(Segment.of(added), current, false);
+        
+        // The keys are published before their labels become current: a read in between sees the previous labels
+        segments = new Segments(read.base, delta);
+        removes.forEach(current::remove);
+        added.forEach(label -> current.put(label.id, label));
+        
+        if(delta.size() > Math.max(MIN_DELTA_SIZE, read.base.size() / BASE_TO_DELTA_RATIO)) {
+            segments = new Segments(read.base.merge(delta, current, true), Segment.EMPTY);
+        }
+    }
+    
+    private static String normalize(final String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Compare the end of a text from an offset to another text, without copying it
+     * @param text text
+     * @param offset start of the end of the text
+     * @param other text to compare to
+     * @return the comparison, as String.compareTo
+     */
+    private static int compareFrom(final String text, final int offset, final String other) {
+        int length = Math.min(text.length() - offset, other.length());
+        
+        for(int i = 0; i < length; i++) {
+            char c = text.charAt(offset + i);
+            char o = other.charAt(i);
+            if(c != o) {
+                return c - o;
+            }
+        }
+        
+        return (text.length() - offset) - other.length();
+    }
+    
+    /**
+     * Compare the ends of two texts from their offsets, without copying them
+     */
+    private static int compareFrom(final String text, final int offset, final String other, final int otherOffset) {
+        int length = Math.min(text.length() - offset, other.length() - otherOffset);
+        
+        for(int i = 0; i < length; i++) {
+            char c = text.charAt(offset + i);
+            char o = other.charAt(otherOffset + i);
+            if(c != o) {
+                return c - o;
+            }
+        }
+        
+        return (text.length() - offset) - (other.length() - otherOffset);
+    }
+    
+    /**
+     * Indexed label, with its normalized text
+     */
+    private static final class Label {
+        
+        private final UUID id;
+        
+        private final String label;
+        
+        private final String normalized;
+        
+        private Label(final UUID id, final String label) {
+            this.id = id;
+            this.label = label;
+            this.normalized = normalize(label).trim();
+        }
+        
+        /**
+         * @return offsets of the start of each word of the label, or of the label if it has no word
+         */
+        private int[] wordStarts() {
+            int[] starts = new int[normalized.length()];
+            int count = 0;
+            
+            for(int i = 0; i < normalized.length(); i++) {
+                if(Character.isLetterOrDigit(normalized.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                    starts[count++] = i;
+                }
+            }
+            
+            if(count == 0 && !normalized.isEmpty()) {
+                starts[count++] = 0;
+            }
+            
+            int[] trimmed = new int[count];
+            System.arraycopy(starts, 0, trimmed, 0, count);
+            
+            return trimmed;
+        }
+    }
+    
+    /**
+     * Word of a label starting with the searched prefix
+     */
+    private static final class Match {
+        
+        private final Label label;
+        
+        private final int offset;
+        
+        private Match(final Label label, final int offset) {
+            this.label = label;
+            this.offset = offset;
+        }
+    }
+    
+    /**
+     * Best ranked matches, one per id, in a heap of at most limit matches
+     */
+    private static final class BestMatches {
+        
+        private final int limit;
+        
+        /** Worst first, so the head is the one to drop when the heap is full. */
+        private final PriorityQueue<Match> heap;
+        
+        /** Match of each id of the heap. */
+        private final Map<UUID, Match> byId = new HashMap<>();
+        
+        private BestMatches(final int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(limit + 1, RANK.reversed());
+        }
+        
+        /**
+         * Keep a match if it is among the best ones, replacing a worse match of its id.
+         * A later match of a dropped id is kept again only if it ranks among the best ones.
+         * @param match match to keep
+         */
+        private void offer(final Match match) {
+            Match kept = byId.get(match.label.id);
+            
+            if(kept != null) {
+                if(RANK.compare(match, kept) < 0) {
+                    heap.remove(kept);
+                    heap.add(match);
+                    byId.put(match.label.id, match);
+                }
+                return;
+            }
+            
+            heap.add(match);
+            byId.put(match.label.id, match);
+            
+            if(heap.size() > limit) {
+                byId.remove(heap.poll().label.id);
+            }
+        }
+        
+        /**
+         * @return the kept matches, best first
+         */
+        private List<Match> toList() {
+            List<Match> matches = new ArrayList<>(heap);
+            matches.sort(RANK);
+            
+            return matches;
+        }
+    }
+    
+    /**
+     * Base and delta read together
+     */
+    private static final class Segments {
+        
+        private final Segment base;
+        
+        private final Segment delta;
+        
+        private Segments(final Segment base, final Segment delta) {
+            this.base = base;
+            this.delta = delta;
+        }
+    }
+    
+    /**
+     * Immutable sorted parallel arrays of labels and offsets of their words, in order of the end of the label then id
+     */
+    private static final class Segment {
+        
+        private static final Segment EMPTY = new Segment(new Label[0], new int[0], 0);
+        
+        private final Label[] labels;
+        
+        private final int[] offsets;
+        
+        private final int size;
+        
+        private Segment(final Label[] labels, final int[] offsets, final int size) {
+            this.labels = labels;
+            this.offsets = offsets;
+            this.size = size;
+        }
+        
+        /**
+         * @param added labels to index
+         * @return a segment of the keys of the labels
+         */
+        private static Segment of(final List<Label> added) {
+            List<Match> keys = new ArrayList<>();
+            
+            for(Label label : added) {
+                for(int offset : label.wordStarts()) {
+                    keys.add(new Match(label, offset));
+                }
+            }
+            keys.sort((first, second) -> compare(first.label, first.offset, second.label, second.offset));
+            
+            Label[] labels = new Label[keys.size()];
+            int[] offsets = new int[keys.size()];
+            for(int i = 0; i < keys.size(); i++) {
+                labels[i] = keys.get(i).label;
+                offsets[i] = keys.get(i).offset;
+            }
+            
+            return new Segment(labels, offsets, labels.length);
+        }
+        
+        private int size() {
+            return size;
+        }
+        
+        /**
+         * Merge two segments into a new one, dropping the keys of this segment whose labels are no longer current
+         * @param other segment to merge with this one
+         * @param current current label by id
+         * @param dropOther true to drop the stale keys of the other segment too, false if its labels are not current yet
+         * @return the merged segment
+         */
+        private Segment merge(final Segment other, final Map<UUID, Label> current, final boolean dropOther) {
+            Label[] mergedLabels = new Label[size + other.size];
+            int[] mergedOffsets = new int[size + other.size];
+            int merged = 0;
+            int i = 0;
+            int j = 0;
+            
+            while(i < size || j < other.size) {
+                boolean fromThis = j == other.size
+                        || (i < size && compare(labels[i], offsets[i], other.labels[j], other.offsets[j]) <= 0);
+                Label label = fromThis ? labels[i] : other.labels[j];
+                int offset = fromThis ? offsets[i++] : other.offsets[j++];
+                
+                if((!fromThis && !dropOther) || current.get(label.id) == label) {
+                    mergedLabels[merged] = label;
+                    mergedOffsets[merged++] = offset;
+                }
+            }
+            
+            return new Segment(mergedLabels, mergedOffsets, merged);
+        }
+        
+        /**
+         * Offer the words of the current labels starting with a prefix to the best matches
+         * @param prefix normalized prefix
+         * @param current current label by id
+         * @param best best matches, completed by this segment
+         */
+        private void collect(final String prefix, final Map<UUID, Label> current, final BestMatches best) {
+            for(int i = lowerBound(prefix); i < size && labels[i].normalized.startsWith(prefix, offsets[i]); i++) {
+                Label label = labels[i];
+                
+                if(current.get(label.id) == label) {
+                    best.offer(new Match(label, offsets[i]));
+                }
+            }
+        }
+        
+        /**
+         * @param prefix normalized prefix
+         * @return index of the first key greater than or equal to the prefix
+         */
+        private int lowerBound(final String prefix) {
+            int low = 0;
+            int high = size;
+            
+            while(low < high) {
+                int middle = (low + high) >>> 1;
+                if(compareFrom(labels[middle].normalized, offsets[middle], prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            
+            return low;
+        }
+        
+        private static int compare(final Label label, final int offset, final Label other, final int otherOffset) {
+            int byKey = compareFrom(label.normalized, offset, other.normalized, otherOffset);
+            return byKey != 0 ? byKey : label.id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.aymeric.gamestore.search;
+
+import java.util.UUID;
+
+/**
+ * Entity matching a full text search
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class SearchHit {
+    
+    /** Id of the matching entity. */
+    private final UUID id;
+    
+    /** Title or name of the matching entity. */
+    private final String label;
+    
+    /** Relevance of the entity, higher first. */
+    private final float score;
+    
+    public SearchHit(final UUID id, final String label, final float score) {
+        this.id = id;
+        this.label = label;
+        this.score = score;
+    }
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,58 @@
+package com.aymeric.gamestore.search;
+
+import java.util.List;
+
+/**
+ * Page of the entities matching a full text search, by decreasing relevance
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class SearchResult {
+    
+    /** Number of the page, 0 based. */
+    private final int page;
+    
+    /** Maximum number of hits of a page. */
+    private final int size;
+    
+    /** Number of matching entities over all pages. */
+    private final long totalHits;
+    
+    /** Hits of the page. */
+    private final List<SearchHit> hits;
+    
+    public SearchResult(final int page, final int size, final long totalHits, final List<SearchHit> hits) {
+        this.page = page;
+        this.size = size;
+        this.totalHits = totalHits;
+        this.hits = hits;
+    }
+
+    /**
+     * @return the page
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the totalHits
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the hits
+     */
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+}
@@ -0,0 +1,36 @@
+package com.aymeric.gamestore.search;
+
+import java.util.UUID;
+
+/**
+ * Entry suggested for a prefix
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class Suggestion {
+    
+    /** Id of the suggested entity. */
+    private final UUID id;
+    
+    /** Title or name of the suggested entity. */
+    private final String label;
+    
+    public Suggestion(final UUID id, final String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
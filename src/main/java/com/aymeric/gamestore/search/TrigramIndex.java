@@ -0,0 +1,287 @@
+package com.aymeric.gamestore.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In memory index of the trigrams of a text by id, to find the texts containing a string without scanning them all.
+ * Matching is case insensitive, as the LIKE of the database. The texts are kept normalized to be checked without copies.
+ * Queries shorter than a trigram are refused: they would have to be checked against every text.
+ * @author Aymeric NEUMANN
+ *
+ */
+public class TrigramIndex {
+    
+    /** Order of the texts: case insensitive, then case sensitive so that it is total. */
+    public static final Comparator<String> TEXT_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+    
+    /** Length of the grams, and minimum length of a query. */
+    private static final int GRAM_LENGTH = 3;
+    
+    /** Ids of the texts containing each trigram. */
+    private final Map<String, Set<UUID>> postings = new HashMap<>();
+    
+    /** Indexed text by id. */
+    private final Map<UUID, String> texts = new HashMap<>();
+    
+    /** Normalized indexed text by id. */
+    private final Map<UUID, String> normalizedTexts = new HashMap<>();
+    
+    /** Ids written before the first load, which must not be overwritten by it, null once loaded. */
+    private Set<UUID> writtenBeforeLoad = new HashSet<>();
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Index or re-index a text
+     * @param id id of the text
+     * @param text text to index, ignored if null
+     */
+    public void put(final UUID id, final String text) {
+        if(text == null) {
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if(writtenBeforeLoad != null) {
+                writtenBeforeLoad.add(id);
+            }
+            putUnlocked(id, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Load the whole catalog read at startup.
+     * The texts written or removed since the index was created are left as they are: the rows may have been read before these writes.
+     * @param loaded texts by id
+     */
+    public void load(final Map<UUID, String> loaded) {
+        lock.writeLock().lock();
+        try {
+            loaded.forEach((id, text) -> {
+                if(text != null && (writtenBeforeLoad == null || !writtenBeforeLoad.contains(id))) {
+                    putUnlocked(id, text);
+                }
+            });
+            writtenBeforeLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Remove a text from the index
+     * @param id id of the text
+     */
+    public void remove(final UUID id) {
+        lock.writeLock().lock();
+        try {
+            if(writtenBeforeLoad != null) {
+                writtenBeforeLoad.add(id);
+            }
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Find the ids of the texts containing the query
+     * @param query string to find, case insensitive, at least a trigram long
+     * @return ids of the matching texts in no particular order
+     */
+    public List<UUID> search(final String query) {
+        String normalizedQuery = checkQuery(query);
+        List<UUID> ids = new ArrayList<>();
+        
+        lock.readLock().lock();
+        try {
+            for(UUID id : candidates(normalizedQuery)) {
+                if(normalizedTexts.get(id).contains(normalizedQuery)) {
+                    ids.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        return ids;
+    }
+    
+    /**
+     * Find a page of the texts containing the query, in text then id order.
+     * Only the page is kept while the matches are sorted, whatever their number.
+     * @param query string to find, case insensitive, at least a trigram long
+     * @param afterText text of the last id of the previous page, null for the first page
+     * @param afterId last id of the previous page, null for the first page
+     * @param limit maximum number of ids
+     * @return ids and texts of the matches following the previous page
+     */
+    public List<Suggestion> search(final String query, final String afterText, final UUID afterId, final int limit) {
+        String normalizedQuery = checkQuery(query);
+        Comparator<UUID> order = Comparator.comparing((UUID id) -> texts.get(id), TEXT_ORDER).thenComparing(Comparator.naturalOrder());
+        // Greatest first, so the head is the one to drop when the page is full
+        PriorityQueue<UUID> page = new PriorityQueue<>(limit + 1, order.reversed());
+        
+        lock.readLock().lock();
+        try {
+            for(UUID id : candidates(normalizedQuery)) {
+                String text = texts.get(id);
+                
+                if(!normalizedTexts.get(id).contains(normalizedQuery) || (afterId != null && compare(text, id, afterText, afterId) <= 0)) {
+                    continue;
+                }
+                
+                page.add(id);
+                if(page.size() > limit) {
+                    page.poll();
+                }
+            }
+            
+            List<UUID> ids = new ArrayList<>(page);
+            ids.sort(order);
+            
+            return ids.stream().map(id -> new Suggestion(id, texts.get(id))).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get the indexed text of an id
+     * @param id id of the text
+     * @return the text or null if the id is not indexed
+     */
+    public String get(final UUID id) {
+        lock.readLock().lock();
+        try {
+            return texts.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @return number of indexed texts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @param query string to find
+     * @return true if the query is at least a trigram long
+     */
+    public static boolean isSearchable(final String query) {
+        return normalize(query).length() >= GRAM_LENGTH;
+    }
+    
+    /**
+     * @param query query to check
+     * @return the normalized query or IllegalArgumentException if it is shorter than a trigram
+     */
+    private static String checkQuery(final String query) {
+        String normalizedQuery = normalize(query);
+        
+        if(!isSearchable(query)) {
+            throw new IllegalArgumentException(String.format("Queries of the trigram index must hold at least %d characters", GRAM_LENGTH));
+        }
+        
+        return normalizedQuery;
+    }
+    
+    /**
+     * Intersect the postings of the trigrams of the query, smallest first
+     * @param normalizedQuery normalized query, at least a trigram long
+     * @return ids of the texts that may contain the query
+     */
+    private Set<UUID> candidates(final String normalizedQuery) {
+        List<Set<UUID>> gramPostings = new ArrayList<>();
+        
+        for(String gram : grams(normalizedQuery)) {
+            Set<UUID> ids = postings.get(gram);
+            if(ids == null) {
+                return Collections.emptySet();
+            }
+            gramPostings.add(ids);
+        }
+        
+        gramPostings.sort((first, second) -> Integer.compare(first.size(), second.size()));
+        Set<UUID> candidates = new HashSet<>(gramPostings.get(0));
+        
+        for(int i = 1; i < gramPostings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(gramPostings.get(i));
+        }
+        
+        return candidates;
+    }
+    
+    private static int compare(final String text, final UUID id, final String otherText, final UUID otherId) {
+        int byText = TEXT_ORDER.compare(text, otherText);
+        return byText != 0 ? byText : id.compareTo(otherId);
+    }
+    
+    private void putUnlocked(final UUID id, final String text) {
+        removeUnlocked(id);
+        String normalizedText = normalize(text);
+        texts.put(id, text);
+        normalizedTexts.put(id, normalizedText);
+        
+        for(String gram : grams(normalizedText)) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+    
+    private void removeUnlocked(final UUID id) {
+        texts.remove(id);
+        String normalizedText = normalizedTexts.remove(id);
+        
+        if(normalizedText == null) {
+            return;
+        }
+        
+        for(String gram : grams(normalizedText)) {
+            Set<UUID> ids = postings.get(gram);
+            if(ids != null) {
+                ids.remove(id);
+                if(ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+    
+    private static Set<String> grams(final String normalizedText) {
+        Set<String> grams = new HashSet<>();
+        
+        for(int i = 0; i + GRAM_LENGTH <= normalizedText.length(); i++) {
+            grams.add(normalizedText.substring(i, i + GRAM_LENGTH));
+        }
+        
+        return grams;
+    }
+    
+    private static String normalize(final String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
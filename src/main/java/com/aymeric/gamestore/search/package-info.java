@@ -0,0 +1 @@
+package com.aymeric.gamestore.search;
\ No newline at end of file
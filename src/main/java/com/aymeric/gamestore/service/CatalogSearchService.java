@@ -0,0 +1,155 @@
+package com.aymeric.gamestore.service;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.aymeric.gamestore.datasource.ReadConsistency;
+import com.aymeric.gamestore.search.CatalogSearchResult;
+import com.aymeric.gamestore.search.SearchResult;
+
+/**
+ * Search games, developpers and editors at once.
+ * The three searches run concurrently on a bounded pool. When the pool and its queue are full a search is refused
+ * rather than run on the request thread: the response degrades instead of waiting for the searches one after the other.
+ * A search refused, failing or taking longer than the timeout leaves its section empty instead of failing the whole response,
+ * and a search abandoned at the timeout is interrupted so that it frees its thread.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Service
+public class CatalogSearchService {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchService.class);
+    
+    @Value("${gamestore.search.executor.threads:8}")
+    private int threads;
+    
+    @Value("${gamestore.search.executor.queue-capacity:200}")
+    private int queueCapacity;
+    
+    /** Time to wait for the three searches. */
+    @Value("${gamestore.search.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    @Autowired
+    private GameService gameService;
+    
+    @Autowired
+    private DeveloperService devService;
+    
+    @Autowired
+    private EditorService editorService;
+    
+    private ThreadPoolTaskExecutor executor;
+    
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-search-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Search the whole catalog by relevance
+     * @param text words to find
+     * @param gameLimit maximum number of games, 0 to skip the games
+     * @param devLimit maximum number of developpers, 0 to skip the developpers
+     * @param editorLimit maximum number of editors, 0 to skip the editors
+     * @return the best matches of each type
+     */
+    public CatalogSearchResult search(final String text, final int gameLimit, final int devLimit, final int editorLimit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        
+        Future<SearchResult> games = submit("games", gameLimit, () -> gameService.searchGames(text, 0, gameLimit));
+        Future<SearchResult> developers = submit("developpers", devLimit, () -> devService.searchDevelopers(text, 0, devLimit));
+        Future<SearchResult> editors = submit("editors", editorLimit, () -> editorService.searchEditors(text, 0, editorLimit));
+        
+        SearchResult gameResult = await("games", games, deadline);
+        SearchResult devResult = await("developpers", developers, deadline);
+        SearchResult editorResult = await("editors", editors, deadline);
+        boolean partial = gameResult == null || devResult == null || editorResult == null;
+        
+        return new CatalogSearchResult(orEmpty(gameResult, gameLimit), orEmpty(devResult, devLimit), orEmpty(editorResult, editorLimit), partial);
+    }
+    
+    /**
+     * Start a search on the pool
+     * @param section name of the searched entities
+     * @param limit maximum number of hits, 0 to skip the search
+     * @param search search to run
+     * @return the running search, a task completed with null if it is refused
+     */
+    private Future<SearchResult> submit(final String section, final int limit, final Supplier<SearchResult> search) {
+        if(limit == 0) {
+            return CompletableFuture.completedFuture(empty(limit));
+        }
+        
+        // Searches of a client that has just written read from the primary on the pool too
+        Supplier<SearchResult> propagated = ReadConsistency.propagate(search);
+        
+        try {
+            // A task of the pool, unlike a CompletableFuture, interrupts its thread when cancelled
+            return executor.submit(propagated::get);
+        } catch (TaskRejectedException e) {
+            logger.warn("The search of {} is refused: the search pool is full", section);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+    
+    /**
+     * Wait for a search until the deadline
+     * @param section name of the searched entities
+     * @param future running search
+     * @param deadline nano time after which the search is abandoned
+     * @return the result or null if the search was refused, failed or timed out
+     */
+    private SearchResult await(final String section, final Future<SearchResult> future, final long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("The search of {} timed out after {} ms", section, timeoutMs);
+        } catch (ExecutionException e) {
+            logger.warn("The search of {} failed", section, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        return null;
+    }
+    
+    private static SearchResult orEmpty(final SearchResult result, final int limit) {
+        return result == null ? empty(limit) : result;
+    }
+    
+    private static SearchResult empty(final int limit) {
+        return new SearchResult(0, limit, 0, new ArrayList<>());
+    }
+}
@@ -0,0 +1,81 @@
+package com.aymeric.gamestore.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.aymeric.gamestore.search.Suggestion;
+
+/**
+ * Page read after a cursor, with the cursor of the next page
+ * @author Aymeric NEUMANN
+ *
+ * @param <T> type of the entities
+ */
+public final class CursorPage<T> {
+    
+    private final List<T> content;
+    
+    /** Token of the next page or null if this page is the last one. */
+    private final String nextCursor;
+    
+    public CursorPage(final List<T> content, final String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the content
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the nextCursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    /**
+     * Build a page from the entities read after a cursor
+     * @param read entities read, one more than the size of the page if there is a next page
+     * @param size size of the page
+     * @param cursorOf cursor positioned after an entity
+     * @return the page
+     */
+    static <T> CursorPage<T> of(final List<T> read, final int size, final Function<T, SeekCursor> cursorOf) {
+        if(read.size() <= size) {
+            return new CursorPage<>(read, null);
+        }
+        
+        List<T> content = new ArrayList<>(read.subList(0, size));
+        
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)).encode());
+    }
+    
+    /**
+     * Build a page from the matches of the search index read after a cursor.
+     * The cursor is taken from the index, so that a match deleted from the database does not end the pages.
+     * @param matches matches read, one more than the size of the page if there is a next page
+     * @param size size of the page
+     * @param load loading of the entities by id, in the order of the ids
+     * @return the page
+     */
+    static <T> CursorPage<T> ofMatches(final List<Suggestion> matches, final int size, final Function<List<UUID>, List<T>> load) {
+        List<Suggestion> page = matches.size() > size ? matches.subList(0, size) : matches;
+        List<T> content = page.isEmpty() ? new ArrayList<>()
+                : load.apply(page.stream().map(Suggestion::getId).collect(Collectors.toList()));
+        
+        if(matches.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        
+        Suggestion last = page.get(size - 1);
+        
+        return new CursorPage<>(content, new SeekCursor(last.getLabel(), last.getId()).encode());
+    }
+}
@@ -1,22 +1,41 @@
 package com.aymeric.gamestore.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.aymeric.gamestore.cache.CacheMultiGet;
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.datasource.ReadConsistency;
 import com.aymeric.gamestore.entity.Developer;
 import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
 import com.aymeric.gamestore.exception.GamestoreEntityException;
 import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.DeveloperSummary;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+import com.aymeric.gamestore.search.SearchResult;
+import com.aymeric.gamestore.search.Suggestion;
 
 @Service
 public class DeveloperService {
@@ -27,18 +46,53 @@ public class DeveloperService {
     /** Number of user return per page. */
     private static final int NUM_OF_USER_PER_PAGE = 50;
     
+    /** Maximum number of developpers returned by a fuzzy search. */
+    private static final int MAX_FUZZY_RESULTS = 50;
+    
+    /** Single flight group of the pages. */
+    private static final String PAGES = "developerPages";
+    
+    /** Single flight group of the pages read after a cursor. */
+    private static final String SEEK = "developerSeek";
+    
+    /** Single flight group of the pages of summaries. */
+    private static final String SUMMARIES = "developerSummaries";
+    
+    /** Single flight group of the searches by name. */
+    private static final String NAME_SEARCH = "developerNameSearch";
+    
     @Autowired
     DeveloperRepository devRepository;
     
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private SingleFlight singleFlight;
+    
+    @Autowired
+    private CacheMultiGet cacheMultiGet;
+    
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+    
+    @Autowired
+    private CatalogFullTextIndex fullTextIndex;
+    
+    @Autowired
+    private GameReadModelService readModel;
+    
     /**
-     * Get all developers by page of 50 result each in title alphabetical order
+     * Get all developers by page of 50 result each in title alphabetical order.
+     * Pages are read from the primary as they fill the query cache.
      * @param pageNumber number of the required page
      * @return required page
      */
+    @Transactional(readOnly = true)
     public Page<Developer> getAllDevelopers(final Integer pageNumber) {
         Pageable pageable = PageRequest.of(pageNumber, NUM_OF_USER_PER_PAGE, Sort.by("name"));
          
-        Page<Developer> developers = devRepository.findAll(pageable);
+        Page<Developer> developers = singleFlight.loadPage(PAGES, pageNumber, Developer.class, () -> ReadConsistency.onPrimary(() -> devRepository.findAll(pageable)));
         
         if(developers.isEmpty()) {
             logger.warn("No developers found on the page number {}", pageNumber);
@@ -48,22 +102,80 @@ public class DeveloperService {
     }
     
     /**
-     * Get all developpers with a matching name
-     * @param name name of the developement company to find
-     * @return a list of matching developement company or an empty list
+     * Get the summaries of the developpers by page of 50 result each in name alphabetical order.
+     * Only their own columns are read, their games and owner are not loaded.
+     * @param pageNumber number of the required page
+     * @return required page
      */
-    public List<Developer> getDeveloppersByName(final String name, final String searchMode) {
-        List<Developer> developpers = null;
+    @Transactional(readOnly = true)
+    public Page<DeveloperSummary> getDeveloperSummaries(final Integer pageNumber) {
+        Pageable pageable = PageRequest.of(pageNumber, NUM_OF_USER_PER_PAGE, Sort.by("name"));
+        
+        return singleFlight.load(SUMMARIES, pageNumber, () -> devRepository.findSummariesBy(pageable));
+    }
+    
+    /**
+     * Get the developpers following a cursor in name then id order.
+     * Pages are read from the (name, id) index without offset nor count, at the same cost whatever their depth.
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size number of developpers of the page
+     * @return the page with the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Developer> getDevelopersAfter(final String cursor, final int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Developer> developpers;
+        
+        if(cursor == null) {
+            developpers = singleFlight.loadEntities(SEEK, "first:" + size, Developer.class, () -> devRepository.findAllByOrderByNameAscIdAsc(limit));
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            developpers = singleFlight.loadEntities(SEEK, cursor + ":" + size, Developer.class, () -> devRepository.findAllAfter(after.getKey(), after.getId(), limit));
+        }
+        
+        return CursorPage.of(developpers, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
+    }
+    
+    /**
+     * Get a page of the developpers with a matching name, each page giving the cursor of the next one.
+     * Names containing the string are found in the search index, the database is only read by id for the page.
+     * Strings shorter than a trigram are searched in the database, as before the index is built.
+     * The fuzzy mode tolerates typos and returns the closest names first, on a single page.
+     * @param name name of the developpers to find
+     * @param searchMode strict for an exact name, fuzzy for a name with typos, otherwise a part of the name
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size maximum number of developpers of the page
+     * @return the page of matching developpers, empty if none
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Developer> getDeveloppersByName(final String name, final String searchMode, final String cursor, final int size) {
+        SeekCursor after = cursor == null ? null : SeekCursor.decode(cursor);
+        String key = name + ":" + cursor + ":" + size;
+        Pageable limit = PageRequest.of(0, size + 1);
+        CursorPage<Developer> developpers;
         
         if(searchMode != null && searchMode.equals("strict")) {
             logger.debug("Getting developpers by name with strict search");
-            developpers = devRepository.findByName(name);
+            List<Developer> read = singleFlight.loadEntities(NAME_SEARCH, "strict:" + key, Developer.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> devRepository.findByName(name, PageRequest.of(0, size + 1, Sort.by("id"))))
+                    : devRepository.findByNameAndIdGreaterThanOrderByIdAsc(name, after.getId(), limit));
+            developpers = CursorPage.of(read, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
+        } else if(searchMode != null && searchMode.equals("fuzzy")) {
+            List<UUID> ids = fullTextIndex.fuzzyDevelopers(name, Math.min(size, MAX_FUZZY_RESULTS));
+            developpers = new CursorPage<>(ids.isEmpty() ? new ArrayList<>()
+                    : singleFlight.loadEntities(NAME_SEARCH, "fuzzy:" + name + ":" + size, Developer.class, () -> Ranks.sortByRank(ids, devRepository.findAllById(ids), Developer::getId)), null);
+        } else if(searchIndex.canSearch(name)) {
+            List<Suggestion> matches = searchIndex.searchDevelopers(name, after == null ? null : after.getKey(), after == null ? null : after.getId(), size + 1);
+            developpers = CursorPage.ofMatches(matches, size,
+                    ids -> singleFlight.loadEntities(NAME_SEARCH, "indexed:" + key, Developer.class, () -> Ranks.sortByRank(ids, devRepository.findAllById(ids), Developer::getId)));
         } else {
-            developpers = devRepository.findByNameContainingOrderByNameAsc(name);
+            List<Developer> read = singleFlight.loadEntities(NAME_SEARCH, "contains:" + key, Developer.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> devRepository.findByNameContaining(name, PageRequest.of(0, size + 1, Sort.by("name", "id"))))
+                    : devRepository.findContainingAfter(name, after.getKey(), after.getId(), limit));
+            developpers = CursorPage.of(read, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
         }
         
-        
-        if(developpers.isEmpty()) {
+        if(developpers.getContent().isEmpty()) {
             logger.info("No developpers found with the name {}", name);
         }
         
@@ -71,12 +183,36 @@ public class DeveloperService {
     }
     
     /**
-     * Get the developper with the matching id
+     * Suggest developpers with a word of their name starting with a prefix, without reading the database
+     * @param prefix start of a word of the name
+     * @param limit maximum number of suggestions
+     * @return the suggested developpers
+     */
+    public List<Suggestion> suggestDevelopers(final String prefix, final int limit) {
+        return searchIndex.suggestDevelopers(prefix, limit);
+    }
+    
+    /**
+     * Search developpers by relevance of their name and of the name of their owner
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of developpers of the page
+     * @return the page of matching developpers
+     */
+    @Transactional(readOnly = true)
+    public SearchResult searchDevelopers(final String text, final int page, final int size) {
+        return fullTextIndex.searchDevelopers(text, page, size);
+    }
+    
+    /**
+     * Get the developper with the matching id, read from the primary to be cached
      * @param id id of the developper to get
      * @return the retrieved developper or ??
      */
+    @Cacheable(cacheNames = CacheNames.DEVELOPER_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
     public Developer getDeveloppersById(final UUID id) {
-        Optional<Developer> developperOpt = devRepository.findById(id);
+        Optional<Developer> developperOpt = singleFlight.loadEntity(CacheNames.DEVELOPER_BY_ID, id, Developer.class, () -> ReadConsistency.onPrimary(() -> devRepository.findById(id)));
         
         if(!developperOpt.isPresent()) {
             String message = String.format("Cannot found a developper with this id: %s", id);
@@ -87,11 +223,34 @@ public class DeveloperService {
         return developperOpt.get();
     }
     
+    /**
+     * Get the developpers with the matching ids: the cached ones are read with one read of the cache, the others with one query
+     * @param ids ids of the developpers to get
+     * @return the found developpers by id, the ids not found being left out
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Developer> getDeveloppersByIds(final Collection<UUID> ids) {
+        return cacheMultiGet.getAll(CacheNames.DEVELOPER_BY_ID, ids, devRepository::findAllById, Developer::getId);
+    }
+    
+    /**
+     * Reload the developper with the matching id in the cache
+     * @param id id of the developper to reload
+     * @return the reloaded developper or GamestoreEntityException
+     */
+    @CachePut(cacheNames = CacheNames.DEVELOPER_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
+    public Developer refreshDeveloperById(final UUID id) {
+        return ReadConsistency.onPrimary(() -> devRepository.findById(id))
+                .orElseThrow(() -> new GamestoreEntityException(String.format("Cannot found a developper with this id: %s", id)));
+    }
+    
     /**
      * Check if a developper exists with this id
      * @param id id of the game to check
      * @return true is the game exists or false otherwise
      */
+    @Transactional(readOnly = true)
     public boolean developperExistById(final UUID id) {
         boolean isDevExist = devRepository.existsById(id);
         
@@ -113,6 +272,7 @@ public class DeveloperService {
         StringBuilder errorMsg = new StringBuilder();
         boolean isADevOnError = false;
         List<Developer> savedDevs = (List<Developer>) devRepository.saveAll(developpers);
+        catalogGeneration.bump();
         
         for(Developer dev : savedDevs) {
             if(dev.getId() == null) {
@@ -127,6 +287,11 @@ public class DeveloperService {
             throw new GamestoreEntityException(errorMsg.toString());
         }
         
+        Transactions.afterCommit(() -> {
+            searchIndex.indexDevelopers(savedDevs);
+            fullTextIndex.indexDevelopers(savedDevs);
+        });
+        
         return developpers;
     }
     
@@ -140,11 +305,14 @@ public class DeveloperService {
     }
     
     /**
-     * Add an owner to a developper
+     * Add an owner to a developper.
+     * The views of its games are written again in the same transaction as they embed the owner of their developpers.
      * @param devId id of the developper to update
      * @param owner owner to add to the developper
      * @return updated developper
      */
+    @CachePut(cacheNames = CacheNames.DEVELOPER_BY_ID, key = "#devId")
+    @Transactional
     public Developer addOwner(final UUID devId, final Editor owner) {
         Developer devToUpdate = getDeveloppersById(devId);
         
@@ -152,22 +320,36 @@ public class DeveloperService {
         devToUpdate.setOwner(owner);
         
         devRepository.save(devToUpdate);
+        readModel.refreshGames(readModel.findGamesOfDeveloper(devId));
+        catalogGeneration.bump();
+        Transactions.afterCommit(() -> fullTextIndex.indexDevelopers(Collections.singletonList(devToUpdate)));
         
         return devToUpdate;
     }
     
     /**
-     * Delete the developper
+     * Delete the developper, the views of its games being written again in the same transaction.
+     * Its games are indexed again once the delete is committed: their documents hold the names of their developpers.
      * @param id id of the developper to delete
      * @return the deleted developper
      */
+    @CacheEvict(cacheNames = CacheNames.DEVELOPER_BY_ID, key = "#id")
+    @Transactional
     public boolean deleteDevelopper(final UUID id) {
         boolean isDevDeleted = false;
         boolean isDevExists = devRepository.existsById(id);
         
         if(isDevExists) {
             logger.debug("Deleting developper with the id: {}", id);
+            List<UUID> gameIds = readModel.findGamesOfDeveloper(id);
             devRepository.deleteById(id);
+            Collection<Game> games = readModel.refreshGames(gameIds);
+            catalogGeneration.bump();
+            Transactions.afterCommit(() -> {
+                searchIndex.removeDeveloper(id);
+                fullTextIndex.removeDeveloper(id);
+                fullTextIndex.indexGames(games);
+            });
             isDevDeleted = true;
         } else {
             logger.info("No developper found with the id: {}", id);
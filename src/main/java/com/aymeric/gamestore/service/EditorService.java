@@ -1,21 +1,41 @@
 package com.aymeric.gamestore.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.aymeric.gamestore.cache.CacheMultiGet;
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.datasource.ReadConsistency;
 import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
 import com.aymeric.gamestore.exception.GamestoreEntityException;
 import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.EditorSummary;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+import com.aymeric.gamestore.search.SearchResult;
+import com.aymeric.gamestore.search.Suggestion;
 
 @Service
 public class EditorService {
@@ -25,51 +45,172 @@ public class EditorService {
     
     /** Number of user return per page. */
     private static final int NUM_OF_USER_PER_PAGE = 50;
+    
+    /** Maximum number of editors returned by a fuzzy search. */
+    private static final int MAX_FUZZY_RESULTS = 50;
+    
+    /** Single flight group of the pages. */
+    private static final String PAGES = "editorPages";
+    
+    /** Single flight group of the pages read after a cursor. */
+    private static final String SEEK = "editorSeek";
+    
+    /** Single flight group of the pages of summaries. */
+    private static final String SUMMARIES = "editorSummaries";
+    
+    /** Single flight group of the searches by name. */
+    private static final String NAME_SEARCH = "editorNameSearch";
 
     @Autowired
     EditorRepository editorRepository;
     
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private SingleFlight singleFlight;
+    
+    @Autowired
+    private CacheMultiGet cacheMultiGet;
+    
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+    
+    @Autowired
+    private CatalogFullTextIndex fullTextIndex;
+    
+    @Autowired
+    private GameReadModelService readModel;
+    
     /**
-     * Get all editors by page of 50 result each and in name alphabetical order
+     * Get all editors by page of 50 result each and in name alphabetical order.
+     * Pages are read from the primary as they fill the query cache.
      * @param pageNumber number of the required page
      * @return required page
      */
+    @Transactional(readOnly = true)
     public Page<Editor> getAllEditors(final Integer pageNumber) {
         Pageable pageable = PageRequest.of(pageNumber, NUM_OF_USER_PER_PAGE, Sort.by("name"));
         
-        return editorRepository.findAll(pageable);
+        return singleFlight.loadPage(PAGES, pageNumber, Editor.class, () -> ReadConsistency.onPrimary(() -> editorRepository.findAll(pageable)));
     }
     
     /**
-     * Get all editors with a matching name
-     * @param name name of the editor(s) to find
-     * @return a list of matching editors or an empty list
+     * Get the summaries of the editors by page of 50 result each in name alphabetical order.
+     * Only their own columns are read, their games and studios are not loaded.
+     * @param pageNumber number of the required page
+     * @return required page
      */
-    public List<Editor> getEditorsByName(final String name, final String searchMode) {
-        List<Editor> editors = null;
+    @Transactional(readOnly = true)
+    public Page<EditorSummary> getEditorSummaries(final Integer pageNumber) {
+        Pageable pageable = PageRequest.of(pageNumber, NUM_OF_USER_PER_PAGE, Sort.by("name"));
+        
+        return singleFlight.load(SUMMARIES, pageNumber, () -> editorRepository.findSummariesBy(pageable));
+    }
+    
+    /**
+     * Get the editors following a cursor in name then id order.
+     * Pages are read from the (name, id) index without offset nor count, at the same cost whatever their depth.
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size number of editors of the page
+     * @return the page with the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Editor> getEditorsAfter(final String cursor, final int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Editor> editors;
+        
+        if(cursor == null) {
+            editors = singleFlight.loadEntities(SEEK, "first:" + size, Editor.class, () -> editorRepository.findAllByOrderByNameAscIdAsc(limit));
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            editors = singleFlight.loadEntities(SEEK, cursor + ":" + size, Editor.class, () -> editorRepository.findAllAfter(after.getKey(), after.getId(), limit));
+        }
+        
+        return CursorPage.of(editors, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
+    }
+    
+    /**
+     * Get a page of the editors with a matching name, each page giving the cursor of the next one.
+     * Names containing the string are found in the search index, the database is only read by id for the page.
+     * Strings shorter than a trigram are searched in the database, as before the index is built.
+     * The fuzzy mode tolerates typos and returns the closest names first, on a single page.
+     * @param name name of the editors to find
+     * @param searchMode strict for an exact name, fuzzy for a name with typos, otherwise a part of the name
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size maximum number of editors of the page
+     * @return the page of matching editors, empty if none
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Editor> getEditorsByName(final String name, final String searchMode, final String cursor, final int size) {
+        SeekCursor after = cursor == null ? null : SeekCursor.decode(cursor);
+        String key = name + ":" + cursor + ":" + size;
+        Pageable limit = PageRequest.of(0, size + 1);
+        CursorPage<Editor> editors;
         
         if(searchMode != null && searchMode.equals("strict")) {
             logger.debug("Getting editors by title with strict search");
-            editors = editorRepository.findAllByName(name);
+            List<Editor> read = singleFlight.loadEntities(NAME_SEARCH, "strict:" + key, Editor.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> editorRepository.findAllByName(name, PageRequest.of(0, size + 1, Sort.by("id"))))
+                    : editorRepository.findByNameAndIdGreaterThanOrderByIdAsc(name, after.getId(), limit));
+            editors = CursorPage.of(read, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
+        } else if(searchMode != null && searchMode.equals("fuzzy")) {
+            logger.debug("Getting editors by name with fuzzy search");
+            List<UUID> ids = fullTextIndex.fuzzyEditors(name, Math.min(size, MAX_FUZZY_RESULTS));
+            editors = new CursorPage<>(ids.isEmpty() ? new ArrayList<>()
+                    : singleFlight.loadEntities(NAME_SEARCH, "fuzzy:" + name + ":" + size, Editor.class, () -> Ranks.sortByRank(ids, editorRepository.findAllById(ids), Editor::getId)), null);
+        } else if(searchIndex.canSearch(name)) {
+            logger.debug("Getting editors by title from the search index");
+            List<Suggestion> matches = searchIndex.searchEditors(name, after == null ? null : after.getKey(), after == null ? null : after.getId(), size + 1);
+            editors = CursorPage.ofMatches(matches, size,
+                    ids -> singleFlight.loadEntities(NAME_SEARCH, "indexed:" + key, Editor.class, () -> Ranks.sortByRank(ids, editorRepository.findAllById(ids), Editor::getId)));
         } else {
             logger.debug("Getting editors by title without strict search");
-            editors = editorRepository.findByNameContainingOrderByNameAsc(name);
+            List<Editor> read = singleFlight.loadEntities(NAME_SEARCH, "contains:" + key, Editor.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> editorRepository.findByNameContaining(name, PageRequest.of(0, size + 1, Sort.by("name", "id"))))
+                    : editorRepository.findContainingAfter(name, after.getKey(), after.getId(), limit));
+            editors = CursorPage.of(read, size, entity -> new SeekCursor(entity.getName(), entity.getId()));
         }
         
         return editors;
     }
     
+    /**
+     * Suggest editors with a word of their name starting with a prefix, without reading the database
+     * @param prefix start of a word of the name
+     * @param limit maximum number of suggestions
+     * @return the suggested editors
+     */
+    public List<Suggestion> suggestEditors(final String prefix, final int limit) {
+        return searchIndex.suggestEditors(prefix, limit);
+    }
+    
+    /**
+     * Search editors by relevance of their name
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of editors of the page
+     * @return the page of matching editors
+     */
+    @Transactional(readOnly = true)
+    public SearchResult searchEditors(final String text, final int page, final int size) {
+        return fullTextIndex.searchEditors(text, page, size);
+    }
+    
+    @Transactional(readOnly = true)
     public boolean editorExistById(final UUID id) {
         return editorRepository.existsById(id);
     }
     
     /**
-     * Get the editor with the matching id
+     * Get the editor with the matching id, read from the primary to be cached
      * @param id id of the editor to get
      * @return the retrieved editor or ??
      */
+    @Cacheable(cacheNames = CacheNames.EDITOR_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
     public Editor getEditorById(final UUID id) {
-        Optional<Editor> editorOpt =  editorRepository.findById(id);
+        Optional<Editor> editorOpt = singleFlight.loadEntity(CacheNames.EDITOR_BY_ID, id, Editor.class, () -> ReadConsistency.onPrimary(() -> editorRepository.findById(id)));
         
         if(!editorOpt.isPresent()) {
             StringBuilder message = new StringBuilder();
@@ -82,13 +223,42 @@ public class EditorService {
         return editorOpt.get();
     }
     
+    /**
+     * Get the editors with the matching ids: the cached ones are read with one read of the cache, the others with one query
+     * @param ids ids of the editors to get
+     * @return the found editors by id, the ids not found being left out
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Editor> getEditorsByIds(final Collection<UUID> ids) {
+        return cacheMultiGet.getAll(CacheNames.EDITOR_BY_ID, ids, editorRepository::findAllById, Editor::getId);
+    }
+    
+    /**
+     * Reload the editor with the matching id in the cache
+     * @param id id of the editor to reload
+     * @return the reloaded editor or GamestoreEntityException
+     */
+    @CachePut(cacheNames = CacheNames.EDITOR_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
+    public Editor refreshEditorById(final UUID id) {
+        return ReadConsistency.onPrimary(() -> editorRepository.findById(id))
+                .orElseThrow(() -> new GamestoreEntityException("No Editor found with this id: " + id));
+    }
+    
     /**
      * Save the editor in the database
      * @param editor a valid editor
      * @return the created editor or ??
      */
     public Editor createEditor(final Editor editor) {
-        return editorRepository.save(editor);
+        Editor createdEditor = editorRepository.save(editor);
+        catalogGeneration.bump();
+        Transactions.afterCommit(() -> {
+            searchIndex.indexEditors(Collections.singletonList(createdEditor));
+            fullTextIndex.indexEditors(Collections.singletonList(createdEditor));
+        });
+        
+        return createdEditor;
     }
     
     /**
@@ -97,7 +267,14 @@ public class EditorService {
      * @return the created editors or ??
      */
     public List<Editor> createAll(final List<Editor> editors) {
-        return (List<Editor>) editorRepository.saveAll(editors);
+        List<Editor> createdEditors = (List<Editor>) editorRepository.saveAll(editors);
+        catalogGeneration.bump();
+        Transactions.afterCommit(() -> {
+            searchIndex.indexEditors(createdEditors);
+            fullTextIndex.indexEditors(createdEditors);
+        });
+        
+        return createdEditors;
     }
     
     /**
@@ -110,21 +287,33 @@ public class EditorService {
     }
     
     /**
-     * Delete the editor
+     * Delete the editor, the views of its games being written again in the same transaction.
+     * Its games are indexed again once the delete is committed: their documents hold the names of their editors.
      * @param id id of the editor to delete
      * @return true is the editor is deleted or false otherwise
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheNames.EDITOR_BY_ID, key = "#id"),
+            @CacheEvict(cacheNames = CacheNames.DEVELOPER_BY_ID, allEntries = true)
+            })
+    @Transactional
     public boolean deleteEditor(final UUID id) {
         boolean isEditorDeleted = false;
         boolean isEditorExists = editorRepository.existsById(id);
         
         if(isEditorExists) {
+            List<UUID> gameIds = readModel.findGamesOfEditor(id);
             editorRepository.deleteById(id);
+            Collection<Game> games = readModel.refreshGames(gameIds);
+            catalogGeneration.bump();
+            Transactions.afterCommit(() -> {
+                searchIndex.removeEditor(id);
+                fullTextIndex.removeEditor(id);
+                fullTextIndex.indexGames(games);
+            });
             isEditorDeleted = true;
         }
         
         return isEditorDeleted;
     }
-    
-    
 }
@@ -0,0 +1,216 @@
+package com.aymeric.gamestore.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Import of games by chunks.
+ * Lines are read one chunk at a time, parsed and validated in parallel, then inserted by JDBC batches
+ * and committed with the views of the games.
+ * A rejected row is reported with its line instead of failing the import: a chunk refused by the database
+ * is inserted again row by row to find the rejected ones.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Service
+public class GameImportService {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(GameImportService.class);
+    
+    /** Number of rows committed together. */
+    @Value("${gamestore.import.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+    
+    @Autowired
+    private CatalogFullTextIndex fullTextIndex;
+    
+    @Autowired
+    private GameReadModelService readModel;
+    
+    /**
+     * Import the games of a content, one game per line, blank lines being skipped
+     * @param reader content to import, read once
+     * @param parser conversion of a line to a valid game, throwing GamestoreInvalidParameterException with the reason otherwise,
+     * or null for a line that is not a row, like a header
+     * @return the report of the import
+     * @throws IOException if the content cannot be read
+     */
+    public ImportReport importGames(final BufferedReader reader, final Function<String, Game> parser) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        
+        while((line = reader.readLine()) != null) {
+            lineNumber++;
+            
+            if(!line.trim().isEmpty()) {
+                chunk.add(new Row(lineNumber, line));
+            }
+            
+            if(chunk.size() == chunkSize) {
+                importChunk(chunk, parser, report);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        
+        if(!chunk.isEmpty()) {
+            importChunk(chunk, parser, report);
+        }
+        
+        logger.info("Import done: {} rows read, {} games imported, {} rows rejected", report.getRead(), report.getImported(), report.getRejected());
+        
+        return report;
+    }
+    
+    /**
+     * Parse, validate and insert a chunk of rows
+     * @param chunk rows of the chunk
+     * @param parser conversion of a line to a valid game
+     * @param report report completed with the chunk
+     */
+    private void importChunk(final List<Row> chunk, final Function<String, Game> parser, final ImportReport report) {
+        chunk.parallelStream().forEach(row -> row.parse(parser));
+        
+        List<Row> valid = new ArrayList<>(chunk.size());
+        
+        for(Row row : chunk) {
+            if(row.error != null) {
+                report.addRead(1);
+                report.reject(row.line, row.error);
+            } else if(row.game != null) {
+                report.addRead(1);
+                valid.add(row);
+            }
+        }
+        
+        List<Game> imported = valid.isEmpty() ? Collections.emptyList() : save(valid, parser, report);
+        
+        if(!imported.isEmpty()) {
+            catalogGeneration.bump();
+            searchIndex.indexGames(imported);
+            fullTextIndex.indexGames(imported);
+        }
+        
+        logger.info("Import progress: {} rows read, {} games imported, {} rows rejected", report.getRead(), report.getImported(), report.getRejected());
+    }
+    
+    /**
+     * Insert the valid rows of a chunk in one transaction, or row by row if the database refuses the chunk
+     * @param rows valid rows
+     * @param parser conversion of a line to a valid game
+     * @param report report completed with the inserted and rejected rows
+     * @return the inserted games
+     */
+    private List<Game> save(final List<Row> rows, final Function<String, Game> parser, final ImportReport report) {
+        List<Game> games = rows.stream().map(row -> row.game).collect(Collectors.toList());
+        
+        try {
+            insert(games);
+            report.addImported(games.size());
+            
+            return games;
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            logger.warn("Chunk ending at line {} refused by the database, inserting its rows one by one: {}", 
+                    rows.get(rows.size() - 1).line, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        
+        List<Game> inserted = new ArrayList<>(rows.size());
+        
+        for(Row row : rows) {
+            // The games of the refused chunk already got an id: the row is parsed again
+            Game game = parser.apply(row.text);
+            
+            try {
+                insert(Collections.singletonList(game));
+                report.addImported(1);
+                inserted.add(game);
+            } catch (PersistenceException | DataAccessException | TransactionException e) {
+                report.reject(row.line, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+        
+        return inserted;
+    }
+    
+    /**
+     * Insert games with their views in one transaction, by JDBC batches, without putting them in the second level cache
+     * @param games games to insert
+     */
+    private void insert(final List<Game> games) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            games.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+            readModel.refreshGames(games.stream().map(Game::getId).collect(Collectors.toList()));
+        });
+    }
+    
+    /**
+     * Line of the imported content and its parsing result
+     */
+    private static final class Row {
+        
+        private final long line;
+        
+        private final String text;
+        
+        private Game game;
+        
+        private String error;
+        
+        Row(final long line, final String text) {
+            this.line = line;
+            this.text = text;
+        }
+        
+        void parse(final Function<String, Game> parser) {
+            try {
+                game = parser.apply(text);
+            } catch (GamestoreInvalidParameterException e) {
+                error = e.getMessage();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.aymeric.gamestore.service;
+
+import java.util.UUID;
+
+import com.aymeric.gamestore.repository.GameRelationship;
+
+/**
+ * Developper and editor to add to a game by a batch, with the result of each addition
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class GameLink {
+    
+    private final UUID gameId;
+    
+    private final UUID devId;
+    
+    private final UUID editorId;
+    
+    private LinkStatus devStatus;
+    
+    private LinkStatus editorStatus;
+    
+    /**
+     * @param gameId id of the game
+     * @param devId id of the developper to add, null for none
+     * @param editorId id of the editor to add, null for none
+     */
+    public GameLink(final UUID gameId, final UUID devId, final UUID editorId) {
+        this.gameId = gameId;
+        this.devId = devId;
+        this.editorId = editorId;
+    }
+    
+    /**
+     * @return the gameId
+     */
+    public UUID getGameId() {
+        return gameId;
+    }
+    
+    /**
+     * @return the devId
+     */
+    public UUID getDevId() {
+        return devId;
+    }
+    
+    /**
+     * @return the editorId
+     */
+    public UUID getEditorId() {
+        return editorId;
+    }
+    
+    /**
+     * @return the result of the addition of the developper, null if none is added
+     */
+    public LinkStatus getDevStatus() {
+        return devStatus;
+    }
+    
+    /**
+     * @return the result of the addition of the editor, null if none is added
+     */
+    public LinkStatus getEditorStatus() {
+        return editorStatus;
+    }
+    
+    /**
+     * @param relationship a relationship
+     * @return the id of the developper or of the editor to add, null for none
+     */
+    UUID getTargetId(final GameRelationship relationship) {
+        return relationship == GameRelationship.DEVELOPER ? devId : editorId;
+    }
+    
+    /**
+     * @param relationship added relationship
+     * @param status result of the addition of the developper or of the editor
+     */
+    void setStatus(final GameRelationship relationship, final LinkStatus status) {
+        if(relationship == GameRelationship.DEVELOPER) {
+            devStatus = status;
+        } else {
+            editorStatus = status;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.aymeric.gamestore.service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.repository.GameRelationship;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+
+/**
+ * Addition of developpers and editors to games by batches.
+ * The links are handled one chunk at a time: the games, developpers, editors and existing relationships of a chunk
+ * are read with one query per table, then the new relationships are inserted by JDBC batches
+ * and committed with the views of their games.
+ * A chunk refused by the database, because of a concurrent write, is inserted again link by link.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Service
+public class GameLinkService {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(GameLinkService.class);
+    
+    /** Number of links committed together, also bounding the ids of each query. */
+    @Value("${gamestore.link.chunk-size:1000}")
+    private int chunkSize;
+    
+    /** Maximum number of links of a request. */
+    @Value("${gamestore.link.max-size:10000}")
+    private int maxSize;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private GameRelationshipRepository relationshipRepository;
+    
+    @Autowired
+    private GameReadModelService readModel;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private CatalogFullTextIndex fullTextIndex;
+    
+    /**
+     * Add developpers and editors to games, a game not existing or a relationship already existing not failing the other links.
+     * @param links developper and editor to add to each game, given their results
+     * @return the links with their results, in the same order, or GamestoreInvalidParameterException if there are too many
+     */
+    public List<GameLink> linkGames(final List<GameLink> links) {
+        if(links.size() > maxSize) {
+            throw new GamestoreInvalidParameterException(String.format("Cannot add more than %d links at once", maxSize));
+        }
+        
+        long start = System.currentTimeMillis();
+        
+        for(int from = 0; from < links.size(); from += chunkSize) {
+            linkChunk(links.subList(from, Math.min(from + chunkSize, links.size())));
+        }
+        
+        logger.info("{} links of games handled in {} ms", links.size(), System.currentTimeMillis() - start);
+        
+        return links;
+    }
+    
+    /**
+     * Insert the relationships of a chunk with the views of their games, then make the caches and the full text index see them
+     * @param chunk links of the chunk
+     */
+    private void linkChunk(final List<GameLink> chunk) {
+        Map<UUID, Game> games = new HashMap<>();
+        Map<GameRelationship, Map<UUID, Set<UUID>>> added;
+        
+        try {
+            added = transactionTemplate.execute(status -> {
+                Map<GameRelationship, Map<UUID, Set<UUID>>> inserted = insert(chunk);
+                refreshGames(inserted, games);
+                return inserted;
+            });
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Chunk of {} links refused by the database, inserting them one by one: {}",
+                    chunk.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            games.clear();
+            added = insertOneByOne(chunk, games);
+        }
+        
+        added.forEach(relationshipRepository::evictAll);
+        
+        if(!games.isEmpty()) {
+            catalogGeneration.bump();
+            fullTextIndex.indexGames(games.values());
+        }
+    }
+    
+    /**
+     * Give its result to every link of a chunk and insert the new relationships, in the transaction of the chunk
+     * @param chunk links of the chunk
+     * @return ids of the developpers or editors added to each game, by relationship
+     */
+    private Map<GameRelationship, Map<UUID, Set<UUID>>> insert(final List<GameLink> chunk) {
+        Map<GameRelationship, Map<UUID, Set<UUID>>> added = new EnumMap<>(GameRelationship.class);
+        Set<UUID> games = relationshipRepository.findExistingGames(chunk.stream().map(GameLink::getGameId).collect(Collectors.toSet()));
+        
+        for(GameRelationship relationship : GameRelationship.values()) {
+            List<GameLink> requested = chunk.stream().filter(link -> link.getTargetId(relationship) != null).collect(Collectors.toList());
+            
+            if(requested.isEmpty()) {
+                continue;
+            }
+            
+            Set<UUID> targets = relationshipRepository.findExistingTargets(relationship,
+                    requested.stream().map(link -> link.getTargetId(relationship)).collect(Collectors.toSet()));
+            Map<UUID, Set<UUID>> existing = relationshipRepository.findLinks(relationship, games, targets);
+            Map<UUID, Set<UUID>> toInsert = new HashMap<>();
+            
+            for(GameLink link : requested) {
+                UUID targetId = link.getTargetId(relationship);
+                
+                if(!games.contains(link.getGameId())) {
+                    link.setStatus(relationship, LinkStatus.GAME_NOT_FOUND);
+                } else if(!targets.contains(targetId)) {
+                    link.setStatus(relationship, LinkStatus.TARGET_NOT_FOUND);
+                } else if(existing.getOrDefault(link.getGameId(), Collections.emptySet()).contains(targetId)
+                        // Given twice in the request: added once
+                        || !toInsert.computeIfAbsent(link.getGameId(), id -> new HashSet<>()).add(targetId)) {
+                    link.setStatus(relationship, LinkStatus.ALREADY_LINKED);
+                } else {
+                    link.setStatus(relationship, LinkStatus.LINKED);
+                }
+            }
+            
+            if(!toInsert.isEmpty()) {
+                relationshipRepository.insertAll(relationship, toInsert);
+                added.put(relationship, toInsert);
+            }
+        }
+        
+        return added;
+    }
+    
+    /**
+     * Insert the relationships of a refused chunk one by one, each one in its own transaction with the view of its game
+     * @param chunk links of the chunk
+     * @param games receiving the games of the written views, by id
+     * @return ids of the developpers or editors added to each game, by relationship
+     */
+    private Map<GameRelationship, Map<UUID, Set<UUID>>> insertOneByOne(final List<GameLink> chunk, final Map<UUID, Game> games) {
+        Map<GameRelationship, Map<UUID, Set<UUID>>> added = new EnumMap<>(GameRelationship.class);
+        
+        for(GameLink link : chunk) {
+            for(GameRelationship relationship : GameRelationship.values()) {
+                UUID targetId = link.getTargetId(relationship);
+                
+                if(targetId != null) {
+                    LinkStatus status = insert(relationship, link.getGameId(), targetId, games);
+                    link.setStatus(relationship, status);
+                    
+                    if(status == LinkStatus.LINKED) {
+                        added.computeIfAbsent(relationship, key -> new HashMap<>())
+                            .computeIfAbsent(link.getGameId(), id -> new HashSet<>()).add(targetId);
+                    }
+                }
+            }
+        }
+        
+        return added;
+    }
+    
+    /**
+     * @param relationship relationship to add
+     * @param gameId id of the game
+     * @param targetId id of the developper or of the editor
+     * @param games receiving the game of the written view, by id
+     * @return the result of the addition
+     */
+    private LinkStatus insert(final GameRelationship relationship, final UUID gameId, final UUID targetId, final Map<UUID, Game> games) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if(!relationshipRepository.insert(relationship, gameId, targetId)) {
+                    return LinkStatus.GAME_NOT_FOUND;
+                }
+                
+                readModel.refreshGames(Collections.singletonList(gameId)).forEach(game -> games.put(game.getId(), game));
+                return LinkStatus.LINKED;
+            });
+        } catch (DuplicateKeyException e) {
+            return LinkStatus.ALREADY_LINKED;
+        } catch (DataIntegrityViolationException e) {
+            return LinkStatus.TARGET_NOT_FOUND;
+        }
+    }
+    
+    /**
+     * Write the views of the games of the inserted relationships, in the transaction of the insert
+     * @param added ids of the developpers or editors added to each game, by relationship
+     * @param games receiving the games of the written views, by id
+     */
+    private void refreshGames(final Map<GameRelationship, Map<UUID, Set<UUID>>> added, final Map<UUID, Game> games) {
+        Set<UUID> gameIds = new HashSet<>();
+        added.values().forEach(links -> gameIds.addAll(links.keySet()));
+        
+        readModel.refreshGames(gameIds).forEach(game -> games.put(game.getId(), game));
+    }
+}
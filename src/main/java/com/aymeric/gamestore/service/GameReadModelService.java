@@ -0,0 +1,341 @@
+package com.aymeric.gamestore.service;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.datasource.ReadConsistency;
+import com.aymeric.gamestore.dto.GameDTO;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.entity.GameReadModel;
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.repository.GameReadModelRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Denormalized views of the games, each one holding the JSON of a game with its developpers, their owners and its editors.
+ * A game and its pages are read from one table by an indexed read, without joins nor mapping.
+ * Views are written again by the services after every write of a game or of a related developper or editor,
+ * before the catalog generation is bumped, and the missing ones are written at startup.
+ * Views read by id are cached until they are written again: the cached ones are evicted once the write is committed.
+ * @author Aymeric NEUMANN
+ *
+ */
+@Service
+public class GameReadModelService implements ApplicationRunner {
+    
+    /** Logback logger reference. */
+    private static final Logger logger = LoggerFactory.getLogger(GameReadModelService.class);
+    
+    /** Number of games per page, as for the pages of entities. */
+    private static final int NUM_OF_GAMES_PER_PAGE = 50;
+    
+    /** Games written per transaction at startup. */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    
+    /** Write all views again at startup, after a restore of the database or a change of the representation of the games. */
+    @Value("${gamestore.read-model.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+    
+    @Autowired
+    private GameReadModelRepository readModelRepository;
+    
+    @Autowired
+    private GameRepository gameRepository;
+    
+    @Autowired
+    private ModelMapper modelMapper;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Write the views of the games that do not have one, or of all games if a rebuild is requested.
+     * The catalog generation is bumped if views changed: pages may have been served while they were missing.
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        int deleted = transactionTemplate.execute(status -> readModelRepository.deleteOrphans());
+        long written = 0;
+        UUID last = null;
+        List<UUID> ids;
+        
+        do {
+            ids = nextBatch(last);
+            
+            if(!ids.isEmpty()) {
+                last = ids.get(ids.size() - 1);
+                written += backfill(ids);
+            }
+        } while(ids.size() == BACKFILL_BATCH_SIZE);
+        
+        if(deleted > 0) {
+            cacheManager.getCache(CacheNames.GAME_VIEW_BY_ID).clear();
+        }
+        
+        if(written > 0 || deleted > 0) {
+            catalogGeneration.bump();
+        }
+        
+        logger.info("Game read model backfilled: {} views written, {} deleted in {} ms", written, deleted, System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Get the view of a game, read from the primary to be cached
+     * @param id id of the game
+     * @return the view, empty if the game does not exist or if its view is not written yet
+     */
+    @Cacheable(cacheNames = CacheNames.GAME_VIEW_BY_ID, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<GameReadModel> getGame(final UUID id) {
+        return ReadConsistency.onPrimary(() -> readModelRepository.findById(id));
+    }
+    
+    /**
+     * Reload the view of a game in the cache
+     * @param id id of the game
+     * @return the reloaded view or GamestoreEntityException if the game does not exist or if its view is not written yet
+     */
+    @CachePut(cacheNames = CacheNames.GAME_VIEW_BY_ID, key = "#id")
+    @Transactional(readOnly = true)
+    public GameReadModel refreshGameView(final UUID id) {
+        return ReadConsistency.onPrimary(() -> readModelRepository.findById(id))
+                .orElseThrow(() -> new GamestoreEntityException(String.format("Cannot found a game with this id: %s", id)));
+    }
+    
+    /**
+     * Get the views of the games by page of 50 in title then id order, read from the primary to be cached
+     * @param pageNumber number of the required page
+     * @return required page
+     */
+    @Transactional(readOnly = true)
+    public Page<GameReadModel> getGames(final Integer pageNumber) {
+        Pageable pageable = PageRequest.of(pageNumber, NUM_OF_GAMES_PER_PAGE, Sort.by("title", "id"));
+        
+        return ReadConsistency.onPrimary(() -> readModelRepository.findAll(pageable));
+    }
+    
+    /**
+     * Get the views of games with one query
+     * @param ids ids of the games
+     * @return the found views by id, the games not existing or without a view yet being left out
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, GameReadModel> getGames(final Collection<UUID> ids) {
+        return toMap(readModelRepository.findAllById(new HashSet<>(ids)));
+    }
+    
+    /**
+     * Write the views of games from their tables
+     * @param ids ids of the games
+     * @return the written views by id, the games not existing being left out
+     */
+    @Transactional
+    public Map<UUID, GameReadModel> refreshGameViews(final Collection<UUID> ids) {
+        refreshGames(ids);
+        
+        return toMap(readModelRepository.findAllById(ids));
+    }
+    
+    /**
+     * Write the view of a game from its tables
+     * @param id id of the game
+     * @return the written view or GamestoreEntityException if the game does not exist
+     */
+    @Transactional
+    public GameReadModel refreshGame(final UUID id) {
+        refreshGames(Collections.singletonList(id));
+        
+        return readModelRepository.findById(id)
+                .orElseThrow(() -> new GamestoreEntityException(String.format("Cannot found a game with this id: %s", id)));
+    }
+    
+    /**
+     * Write the views of games from their tables, in one transaction.
+     * The games are read again with their relationships: the saved entities may only hold the ids of their developpers and editors.
+     * A view is only updated, and its version incremented, if its document changed. The views of deleted games are deleted.
+     * The cached views of the games are evicted after the commit.
+     * @param ids ids of the games
+     * @return the games read, with their relationships
+     */
+    @Transactional
+    public Collection<Game> refreshGames(final Collection<UUID> ids) {
+        if(ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<UUID, GameReadModel> views = new HashMap<>();
+        readModelRepository.findAllById(ids).forEach(view -> views.put(view.getId(), view));
+        
+        // The fetch joins of the relationships may return a game more than once
+        Map<UUID, Game> games = new HashMap<>();
+        gameRepository.findAllById(ids).forEach(game -> games.put(game.getId(), game));
+        
+        for(Game game : games.values()) {
+            GameReadModel view = views.remove(game.getId());
+            
+            if(view == null) {
+                view = new GameReadModel(game.getId());
+                write(view, game);
+                entityManager.persist(view);
+            } else {
+                write(view, game);
+            }
+        }
+        
+        views.values().forEach(entityManager::remove);
+        evictAfterCommit(ids);
+        
+        return games.values();
+    }
+    
+    /**
+     * Delete the view of a deleted game
+     * @param id id of the game
+     */
+    @Transactional
+    public void removeGame(final UUID id) {
+        readModelRepository.findById(id).ifPresent(entityManager::remove);
+        evictAfterCommit(Collections.singletonList(id));
+    }
+    
+    /**
+     * Find the games embedding a developper, to write their views again once it is changed or deleted.
+     * Read from the primary: a late replica would miss the games linked lately.
+     * @param devId id of the developper
+     * @return ids of the games
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findGamesOfDeveloper(final UUID devId) {
+        return ReadConsistency.onPrimary(() -> readModelRepository.findGameIdsByDeveloper(devId));
+    }
+    
+    /**
+     * Find the games embedding an editor, directly or as the owner of one of their developpers,
+     * to write their views again once it is changed or deleted. Read from the primary, as the games of a developper.
+     * @param editorId id of the editor
+     * @return ids of the games
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findGamesOfEditor(final UUID editorId) {
+        return ReadConsistency.onPrimary(() -> readModelRepository.findGameIdsByEditor(editorId));
+    }
+    
+    /**
+     * @param last id of the last game of the previous batch, null for the first batch
+     * @return ids of the next games to write a view for
+     */
+    private List<UUID> nextBatch(final UUID last) {
+        Pageable limit = PageRequest.of(0, BACKFILL_BATCH_SIZE);
+        
+        if(rebuildOnStartup) {
+            return last == null ? readModelRepository.findGameIds(limit) : readModelRepository.findGameIdsAfter(last, limit);
+        }
+        
+        return last == null ? readModelRepository.findMissing(limit) : readModelRepository.findMissingAfter(last, limit);
+    }
+    
+    /**
+     * Write the views of a batch of games.
+     * A batch refused because a write of the application created one of its views meanwhile is skipped:
+     * its missing views are written on their first read.
+     * @param ids ids of the games
+     * @return number of games of the written batch, 0 if it is skipped
+     */
+    private int backfill(final List<UUID> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> refreshGames(ids));
+            
+            return ids.size();
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            logger.warn("Views of the games up to {} not written: {}", ids.get(ids.size() - 1), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            
+            return 0;
+        }
+    }
+    
+    /**
+     * Evict cached views once their write is committed: a reader evicting them earlier could cache them again unchanged
+     * @param ids ids of the games
+     */
+    private void evictAfterCommit(final Collection<UUID> ids) {
+        List<UUID> evicted = new ArrayList<>(ids);
+        
+        Transactions.afterCommit(() -> evicted.forEach(cacheManager.getCache(CacheNames.GAME_VIEW_BY_ID)::evict));
+    }
+    
+    /**
+     * @param views views of games
+     * @return the views by id
+     */
+    private static Map<UUID, GameReadModel> toMap(final Iterable<GameReadModel> views) {
+        Map<UUID, GameReadModel> byId = new HashMap<>();
+        views.forEach(view -> byId.put(view.getId(), view));
+        
+        return byId;
+    }
+    
+    /**
+     * @param view view to write
+     * @param game game with its relationships
+     */
+    private void write(final GameReadModel view, final Game game) {
+        view.setTitle(game.getTitle());
+        
+        try {
+            view.setDocument(objectMapper.writeValueAsString(modelMapper.map(game, GameDTO.class)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
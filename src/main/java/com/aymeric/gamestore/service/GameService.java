@@ -1,26 +1,46 @@
 package com.aymeric.gamestore.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.aymeric.gamestore.entity.Developer;
-import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.datasource.ReadConsistency;
 import com.aymeric.gamestore.entity.Game;
 import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.repository.GameRelationship;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
 import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.repository.GameSummary;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+import com.aymeric.gamestore.search.SearchResult;
+import com.aymeric.gamestore.search.Suggestion;
 
 /**
  * Service for games
@@ -36,44 +56,155 @@ public class GameService {
     /** Number of user return per page. */
     private static final int NUM_OF_USER_PER_PAGE = 50;
     
+    /** Maximum number of games returned by a fuzzy search. */
+    private static final int MAX_FUZZY_RESULTS = 50;
+    
+    /** Single flight group of the pages read after a cursor. */
+    private static final String SEEK = "gameSeek";
+    
+    /** Single flight group of the pages of summaries. */
+    private static final String SUMMARIES = "gameSummaries";
+    
+    /** Single flight group of the searches by title. */
+    private static final String TITLE_SEARCH = "gameTitleSearch";
+    
+    /** Number of exported games after which the persistence context is cleared. */
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+    
     @Autowired
     private GameRepository gameRepository;
     
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+    
+    @Autowired
+    private SingleFlight singleFlight;
+    
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+    
+    @Autowired
+    private CatalogFullTextIndex fullTextIndex;
+    
+    @Autowired
+    private GameReadModelService readModel;
+    
+    @Autowired
+    private GameRelationshipRepository relationshipRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     /**
-     * Get all games by page of 50 result each in title alphabetical order
+     * Get the summaries of the games by page of 50 result each in title alphabetical order.
+     * Only their own columns are read, their developpers and editors are not loaded.
      * @param pageNumber number of the required page
      * @return required page
      */
-    @Cacheable(cacheNames = "gameCache")
-    public Page<Game> getAllGames(final Integer pageNumber){
+    @Transactional(readOnly = true)
+    public Page<GameSummary> getGameSummaries(final Integer pageNumber) {
         Pageable pageable = PageRequest.of(pageNumber, NUM_OF_USER_PER_PAGE, Sort.by("title"));
         
-        Page<Game> games = gameRepository.findAll(pageable);
+        return singleFlight.load(SUMMARIES, pageNumber, () -> gameRepository.findSummariesBy(pageable));
+    }
+    
+    /**
+     * Get the games following a cursor in title then id order.
+     * Pages are read from the (title, id) index without offset nor count, at the same cost whatever their depth.
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size number of games of the page
+     * @return the page with the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Game> getGamesAfter(final String cursor, final int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Game> games;
         
-        if(games.isEmpty()) {
-            logger.warn("No games found on the page number {}", pageNumber);
+        if(cursor == null) {
+            games = singleFlight.loadEntities(SEEK, "first:" + size, Game.class, () -> gameRepository.findAllByOrderByTitleAscIdAsc(limit));
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            games = singleFlight.loadEntities(SEEK, cursor + ":" + size, Game.class, () -> gameRepository.findAllAfter(after.getKey(), after.getId(), limit));
         }
         
-        return games;
+        return CursorPage.of(games, size, entity -> new SeekCursor(entity.getTitle(), entity.getId()));
+    }
+    
+    /**
+     * Read all games with their developpers and editors in one forward only query and hand them one by one.
+     * Each game is detached once handed and the persistence context is regularly cleared,
+     * so the memory used does not grow with the catalog.
+     * @param consumer receiver of the games, in id order
+     * @return number of exported games
+     */
+    @Transactional(readOnly = true)
+    public long exportGames(final Consumer<Game> consumer) {
+        long exported = 0;
+        
+        try(Stream<Game> games = gameRepository.streamAllBy()) {
+            Iterator<Game> iterator = games.iterator();
+            
+            while(iterator.hasNext()) {
+                Game game = iterator.next();
+                consumer.accept(game);
+                entityManager.detach(game);
+                
+                if(++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        
+        return exported;
     }
     
     /**
-     * Get all games with a matching title
-     * @param title title of the game(s) to find
-     * @return a list of matching games or an empty list
+     * Get a page of the games with a matching title, each page giving the cursor of the next one.
+     * Titles containing the string are found in the search index, the database is only read by id for the page.
+     * Strings shorter than a trigram are searched in the database, as before the index is built.
+     * The fuzzy mode tolerates typos and returns the closest titles first, on a single page.
+     * First pages of the database searches fill the query cache: they are read from the primary.
+     * @param title title of the games to find
+     * @param searchMode strict for an exact title, fuzzy for a title with typos, otherwise a part of the title
+     * @param cursor token of the cursor returned with the previous page, null for the first page
+     * @param size maximum number of games of the page
+     * @return the page of matching games, empty if none
      */
-    public List<Game> getGamesByTile(String title, String searchMode) {
-        List<Game> games = null;
+    @Transactional(readOnly = true)
+    public CursorPage<Game> getGamesByTile(final String title, final String searchMode, final String cursor, final int size) {
+        SeekCursor after = cursor == null ? null : SeekCursor.decode(cursor);
+        String key = title + ":" + cursor + ":" + size;
+        Pageable limit = PageRequest.of(0, size + 1);
+        CursorPage<Game> games;
         
         if(searchMode != null && searchMode.equals("strict")) {
             logger.debug("Getting games by title with strict search");
-            games = gameRepository.findByTitle(title);
+            List<Game> read = singleFlight.loadEntities(TITLE_SEARCH, "strict:" + key, Game.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> gameRepository.findByTitle(title, PageRequest.of(0, size + 1, Sort.by("id"))))
+                    : gameRepository.findByTitleAndIdGreaterThanOrderByIdAsc(title, after.getId(), limit));
+            games = CursorPage.of(read, size, entity -> new SeekCursor(entity.getTitle(), entity.getId()));
+        } else if(searchMode != null && searchMode.equals("fuzzy")) {
+            logger.debug("Getting games by title with fuzzy search");
+            List<UUID> ids = fullTextIndex.fuzzyGames(title, Math.min(size, MAX_FUZZY_RESULTS));
+            games = new CursorPage<>(ids.isEmpty() ? new ArrayList<>()
+                    : singleFlight.loadEntities(TITLE_SEARCH, "fuzzy:" + title + ":" + size, Game.class, () -> Ranks.sortByRank(ids, gameRepository.findAllById(ids), Game::getId)), null);
+        } else if(searchIndex.canSearch(title)) {
+            logger.debug("Getting games by title from the search index");
+            List<Suggestion> matches = searchIndex.searchGames(title, after == null ? null : after.getKey(), after == null ? null : after.getId(), size + 1);
+            games = CursorPage.ofMatches(matches, size,
+                    ids -> singleFlight.loadEntities(TITLE_SEARCH, "indexed:" + key, Game.class, () -> Ranks.sortByRank(ids, gameRepository.findAllById(ids), Game::getId)));
         } else {
             logger.debug("Getting games by title without strict search");
-            games = gameRepository.findByTitleContainingOrderByTitleAsc(title);
+            List<Game> read = singleFlight.loadEntities(TITLE_SEARCH, "contains:" + key, Game.class, () -> after == null
+                    ? ReadConsistency.onPrimary(() -> gameRepository.findByTitleContaining(title, PageRequest.of(0, size + 1, Sort.by("title", "id"))))
+                    : gameRepository.findContainingAfter(title, after.getKey(), after.getId(), limit));
+            games = CursorPage.of(read, size, entity -> new SeekCursor(entity.getTitle(), entity.getId()));
         }
         
-        if(games.isEmpty()) {
+        if(games.getContent().isEmpty()) {
             logger.info("No games found with the title {}", title);
         }
         
@@ -81,21 +212,25 @@ public class GameService {
     }
     
     /**
-     * Get the game with the matching id
-     * @param id id of the game to get
-     * @return the retrieved game or ??
+     * Suggest games with a word of their title starting with a prefix, without reading the database
+     * @param prefix start of a word of the title
+     * @param limit maximum number of suggestions
+     * @return the suggested games
      */
-    public Game getGameById(final UUID id) {
-        
-        Optional<Game> gameOpt = gameRepository.findById(id);
-        
-        if(!gameOpt.isPresent()) {
-            String message = String.format("Cannot found a game with this id: %s", id);
-            logger.info(message);
-            throw new GamestoreEntityException(message);
-        }
-        
-        return gameOpt.get();
+    public List<Suggestion> suggestGames(final String prefix, final int limit) {
+        return searchIndex.suggestGames(prefix, limit);
+    }
+    
+    /**
+     * Search games by relevance of their title and of the names of their developpers and editors
+     * @param text words to find
+     * @param page number of the page, 0 based
+     * @param size maximum number of games of the page
+     * @return the page of matching games
+     */
+    @Transactional(readOnly = true)
+    public SearchResult searchGames(final String text, final int page, final int size) {
+        return fullTextIndex.searchGames(text, page, size);
     }
     
     /**
@@ -103,6 +238,7 @@ public class GameService {
      * @param id id of the game to check
      * @return true is the game exists or false otherwise
      */
+    @Transactional(readOnly = true)
     public boolean gameExistById(final UUID id) {
         boolean isGameExist = gameRepository.existsById(id);
         
@@ -114,11 +250,21 @@ public class GameService {
     }
     
     /**
-     * Save the game in the database
+     * Find the games that exist among ids, with one query
+     * @param ids ids of the games to check
+     * @return ids of the existing games
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findExistingGames(final Collection<UUID> ids) {
+        return relationshipRepository.findExistingGames(ids);
+    }
+    
+    /**
+     * Save the game in the database, with its view in the same transaction, and index it once committed
      * @param game a valid game
      * @return the created game or GamestoreEntityException
      */
-    @CacheEvict
+    @Transactional
     public Game createGame(final Game gameToCreate) {
         Game createdGame = gameRepository.save(gameToCreate);
         
@@ -128,6 +274,13 @@ public class GameService {
             throw new GamestoreEntityException(message);
         }
         
+        readModel.refreshGames(Collections.singletonList(createdGame.getId()));
+        catalogGeneration.bump();
+        Transactions.afterCommit(() -> {
+            searchIndex.indexGames(Collections.singletonList(createdGame));
+            fullTextIndex.indexGames(Collections.singletonList(createdGame));
+        });
+        
         return createdGame;
     }
     
@@ -136,11 +289,13 @@ public class GameService {
      * @param games all games to create
      * @return the created games or ??
      */
+    @Transactional
     public List<Game> createGames(List<Game> gamesToCreate) {
         StringBuilder errorMsg = new StringBuilder();
         boolean isAGameOnError = false;
         List<Game> games = (List<Game>) gameRepository.saveAll(gamesToCreate);
-        
+        readModel.refreshGames(games.stream().map(Game::getId).filter(Objects::nonNull).collect(Collectors.toList()));
+        catalogGeneration.bump();
         
         for (Game game : games) {
             if(game.getId() == null) {
@@ -155,6 +310,11 @@ public class GameService {
             throw new GamestoreEntityException(errorMsg.toString());
         }
         
+        Transactions.afterCommit(() -> {
+            searchIndex.indexGames(games);
+            fullTextIndex.indexGames(games);
+        });
+        
         return games;
     }
     
@@ -168,43 +328,31 @@ public class GameService {
     }
     
     /**
-     * Add a developper to a game
+     * Add a developper to a game, without loading them
      * @param gameId id of the game to update
-     * @param dev developper to add to the game
-     * @return updated game
+     * @param devId id of the developper to add to the game
+     * @return the result of the addition
      */
-    public Game addDevToGame(final UUID gameId, final Developer dev) {
-        Game gameToUpdate = getGameById(gameId);
-        
-        logger.debug("Adding the developper {} to the game {}", dev.getName(), gameToUpdate.getTitle());
-        Set<Developer> devs = gameToUpdate.getDevs();
-        devs.add(dev);
-        
-        return createGame(gameToUpdate);
+    public LinkStatus linkDeveloper(final UUID gameId, final UUID devId) {
+        return link(GameRelationship.DEVELOPER, gameId, devId);
     }
     
     /**
-     * Add an editor to a game
+     * Add an editor to a game, without loading them
      * @param gameId id of the game to update
-     * @param editor editor to add to the game
-     * @return updated game
+     * @param editorId id of the editor to add to the game
+     * @return the result of the addition
      */
-    public Game addEditorToGame(final UUID gameId, final Editor editor) {
-        Game gameToUpdate = getGameById(gameId);
-        
-        logger.debug("Adding the editor {} to the game {}", editor.getName(), gameToUpdate.getTitle());
-        Set<Editor> editors = gameToUpdate.getEditors();
-        editors.add(editor);
-        
-        return createGame(gameToUpdate);
+    public LinkStatus linkEditor(final UUID gameId, final UUID editorId) {
+        return link(GameRelationship.EDITOR, gameId, editorId);
     }
     
     /**
-     * Delete the game
+     * Delete the game and its view in one transaction, and remove it from the indexes once committed
      * @param id id of the game to delete
      * @return true is the game is deleted or false otherwise
      */
-    @CacheEvict(key = "#id")
+    @Transactional
     public boolean deleteGame(final UUID id) {
         boolean isGameDeleted = false;
         boolean isGameExists = gameRepository.existsById(id);
@@ -212,6 +360,12 @@ public class GameService {
         if(isGameExists) {
             logger.debug("Deleting game with the id: {}", id);
             gameRepository.deleteById(id);
+            readModel.removeGame(id);
+            catalogGeneration.bump();
+            Transactions.afterCommit(() -> {
+                searchIndex.removeGame(id);
+                fullTextIndex.removeGame(id);
+            });
             isGameDeleted = true;
         } else {
             logger.info("No game found with the id: {}", id);
@@ -219,4 +373,39 @@ public class GameService {
         
         return isGameDeleted;
     }
+    
+    /**
+     * Insert a relationship in its join table with the view of the game in one transaction,
+     * then make the caches and the full text index of the game see it.
+     * A relationship added twice is not an error: the second addition changes nothing.
+     * @param relationship relationship to add
+     * @param gameId id of the game
+     * @param targetId id of the developper or of the editor
+     * @return the result of the addition
+     */
+    private LinkStatus link(final GameRelationship relationship, final UUID gameId, final UUID targetId) {
+        Collection<Game> games;
+        
+        try {
+            games = transactionTemplate.execute(status -> relationshipRepository.insert(relationship, gameId, targetId)
+                    ? readModel.refreshGames(Collections.singletonList(gameId)) : null);
+            
+            if(games == null) {
+                logger.info("Cannot found a game with the id: {}", gameId);
+                return LinkStatus.GAME_NOT_FOUND;
+            }
+        } catch (DuplicateKeyException e) {
+            logger.debug("The game {} already has the {} {}", gameId, relationship, targetId);
+            return LinkStatus.ALREADY_LINKED;
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Cannot found the {} with the id: {}", relationship, targetId);
+            return LinkStatus.TARGET_NOT_FOUND;
+        }
+        
+        relationshipRepository.evict(relationship, gameId, targetId);
+        catalogGeneration.bump();
+        fullTextIndex.indexGames(games);
+        
+        return LinkStatus.LINKED;
+    }
 }
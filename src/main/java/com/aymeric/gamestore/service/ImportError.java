@@ -0,0 +1,34 @@
+package com.aymeric.gamestore.service;
+
+/**
+ * Row rejected by an import
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class ImportError {
+    
+    /** Line of the row in the imported content, 1 based. */
+    private final long line;
+    
+    /** Reason of the rejection. */
+    private final String message;
+    
+    public ImportError(final long line, final String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    /**
+     * @return the line
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,77 @@
+package com.aymeric.gamestore.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of an import: rows read, imported and rejected, with the first errors
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class ImportReport {
+    
+    /** Maximum number of errors kept, the rejected rows are all counted. */
+    static final int MAX_ERRORS = 1000;
+    
+    private long read;
+    
+    private long imported;
+    
+    private long rejected;
+    
+    private final List<ImportError> errors = new ArrayList<>();
+    
+    /**
+     * @param rows number of rows read
+     */
+    void addRead(final int rows) {
+        read += rows;
+    }
+    
+    /**
+     * @param rows number of rows imported
+     */
+    void addImported(final int rows) {
+        imported += rows;
+    }
+    
+    /**
+     * @param line line of the rejected row
+     * @param message reason of the rejection
+     */
+    void reject(final long line, final String message) {
+        rejected++;
+        
+        if(errors.size() < MAX_ERRORS) {
+            errors.add(new ImportError(line, message));
+        }
+    }
+
+    /**
+     * @return the read
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * @return the imported
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * @return the rejected
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the errors
+     */
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+}
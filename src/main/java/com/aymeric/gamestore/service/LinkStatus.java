@@ -0,0 +1,21 @@
+package com.aymeric.gamestore.service;
+
+/**
+ * Result of the addition of a developper or an editor to a game
+ * @author Aymeric NEUMANN
+ *
+ */
+public enum LinkStatus {
+    
+    /** The relationship has been added. */
+    LINKED,
+    
+    /** The relationship already existed, nothing changed. */
+    ALREADY_LINKED,
+    
+    /** No game has this id. */
+    GAME_NOT_FOUND,
+    
+    /** No developper or editor has this id. */
+    TARGET_NOT_FOUND
+}
@@ -0,0 +1,34 @@
+package com.aymeric.gamestore.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Order of the entities read by id for a search, whose ids come ranked from an index
+ * @author Aymeric NEUMANN
+ *
+ */
+final class Ranks {
+    
+    private Ranks() {
+    }
+    
+    /**
+     * Put entities in the order of their ids, the ones not found being skipped
+     * @param ids ids in the wanted order
+     * @param entities entities to order, read by id in any order
+     * @param idOf id of an entity
+     * @return ordered list of entities
+     */
+    static <T> List<T> sortByRank(final List<UUID> ids, final Iterable<T> entities, final Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new HashMap<>();
+        entities.forEach(entity -> byId.put(idOf.apply(entity), entity));
+        
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+}
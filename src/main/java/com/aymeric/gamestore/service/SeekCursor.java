@@ -0,0 +1,64 @@
+package com.aymeric.gamestore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+
+/**
+ * Position after the last entity of a page: its sort key and its id.
+ * Given to the clients as an opaque token they send back to get the next page.
+ * @author Aymeric NEUMANN
+ *
+ */
+public final class SeekCursor {
+    
+    /** Length of a UUID as a string. */
+    private static final int ID_LENGTH = 36;
+    
+    /** Title or name of the last entity. */
+    private final String key;
+    
+    /** Id of the last entity, to order the entities with the same key. */
+    private final UUID id;
+    
+    public SeekCursor(final String key, final UUID id) {
+        this.key = key;
+        this.id = id;
+    }
+    
+    /**
+     * @return the token of the cursor
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((id + key).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @param token token of a cursor
+     * @return the cursor or GamestoreInvalidParameterException if the token is not one of ours
+     */
+    public static SeekCursor decode(final String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new SeekCursor(decoded.substring(ID_LENGTH), UUID.fromString(decoded.substring(0, ID_LENGTH)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new GamestoreInvalidParameterException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the id
+     */
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,33 @@
+package com.aymeric.gamestore.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Work done once a write is visible to the readers, as the bump of the catalog generation
+ * @author Aymeric NEUMANN
+ *
+ */
+final class Transactions {
+    
+    private Transactions() {
+    }
+    
+    /**
+     * Run an action after the commit if a transaction is running, immediately otherwise.
+     * Nothing is run if the transaction is rolled back.
+     * @param action action to run
+     */
+    static void afterCommit(final Runnable action) {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
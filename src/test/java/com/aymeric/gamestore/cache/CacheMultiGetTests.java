@@ -0,0 +1,115 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Multi get tests, on a JCache decorated as in the application and on a cache without bulk operations
+ * @author Aymeric NEUMANN
+ *
+ */
+class CacheMultiGetTests {
+
+    private static final String CACHE = "developerByIdCache";
+
+    private final CacheMetrics cacheMetrics = new CacheMetrics();
+
+    private final CacheMultiGet multiGet = new CacheMultiGet();
+
+    private final List<Set<UUID>> loads = new ArrayList<>();
+
+    private javax.cache.CacheManager jCacheManager;
+
+    private UUID retro;
+
+    private UUID rare;
+
+    private UUID unknown;
+
+    @BeforeEach
+    void setUp() {
+        jCacheManager = Caching.getCachingProvider().getCacheManager();
+        jCacheManager.createCache(CACHE, new MutableConfiguration<Object, Object>());
+        ReflectionTestUtils.setField(multiGet, "cacheMetrics", cacheMetrics);
+        retro = UUID.randomUUID();
+        rare = UUID.randomUUID();
+        unknown = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jCacheManager.destroyCache(CACHE);
+        jCacheManager.close();
+    }
+
+    @Test
+    void onlyTheMissesAreLoadedTogether() {
+        use(new MetricsCacheManager(new JCacheCacheManager(jCacheManager), cacheMetrics));
+
+        Map<UUID, String> first = multiGet.getAll(CACHE, Arrays.asList(retro, unknown, retro), this::load, this::idOf);
+        Map<UUID, String> second = multiGet.getAll(CACHE, Arrays.asList(rare, retro, unknown), this::load, this::idOf);
+
+        assertEquals(Collections.singletonMap(retro, name(retro)), first);
+        assertEquals(2, second.size());
+        assertEquals(name(rare), second.get(rare));
+        // Retro is read from the cache, the unknown id is looked for again
+        assertEquals(Arrays.asList(new HashSet<>(Arrays.asList(retro, unknown)), new HashSet<>(Arrays.asList(rare, unknown))), loads);
+        assertEquals(1, cacheMetrics.forCache(CACHE).getHits());
+        assertEquals(4, cacheMetrics.forCache(CACHE).getMisses());
+        assertEquals(2, cacheMetrics.forCache(CACHE).getPuts());
+    }
+
+    @Test
+    void cacheWithoutBulkOperationsIsReadKeyByKey() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CACHE);
+        use(cacheManager);
+
+        multiGet.getAll(CACHE, Arrays.asList(retro, rare), this::load, this::idOf);
+        Map<UUID, String> found = multiGet.getAll(CACHE, Arrays.asList(retro, rare, unknown), this::load, this::idOf);
+
+        assertEquals(2, found.size());
+        assertEquals(Collections.singleton(unknown), loads.get(1));
+        assertTrue(cacheManager.getCache(CACHE).get(rare) != null);
+    }
+
+    private void use(final CacheManager cacheManager) {
+        ReflectionTestUtils.setField(multiGet, "cacheManager", cacheManager);
+    }
+
+    /**
+     * Load of the developpers: all exist but the unknown one
+     */
+    private Iterable<String> load(final Set<UUID> ids) {
+        loads.add(new HashSet<>(ids));
+        return ids.stream().filter(id -> !id.equals(unknown)).map(CacheMultiGetTests::name).collect(Collectors.toList());
+    }
+
+    private UUID idOf(final String name) {
+        return Arrays.asList(retro, rare).stream().filter(id -> name(id).equals(name)).findFirst().get();
+    }
+
+    private static String name(final UUID id) {
+        return "dev-" + id;
+    }
+}
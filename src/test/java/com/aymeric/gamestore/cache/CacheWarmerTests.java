@@ -0,0 +1,113 @@
+package com.aymeric.gamestore.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.service.DeveloperService;
+import com.aymeric.gamestore.service.EditorService;
+import com.aymeric.gamestore.service.GameReadModelService;
+
+/**
+ * Cache warmer tests: front pages at startup, hottest ids on every refresh
+ * @author Aymeric NEUMANN
+ *
+ */
+class CacheWarmerTests {
+
+    private final DeveloperService devService = mock(DeveloperService.class);
+
+    private final EditorService editorService = mock(EditorService.class);
+
+    private final GameReadModelService gameReadModelService = mock(GameReadModelService.class);
+
+    private final HotKeys hotKeys = new HotKeys();
+
+    private final CacheWarmer cacheWarmer = new CacheWarmer();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmer, "warmPages", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "hotIds", 2);
+        ReflectionTestUtils.setField(cacheWarmer, "devService", devService);
+        ReflectionTestUtils.setField(cacheWarmer, "editorService", editorService);
+        ReflectionTestUtils.setField(cacheWarmer, "gameReadModelService", gameReadModelService);
+        ReflectionTestUtils.setField(cacheWarmer, "hotKeys", hotKeys);
+    }
+
+    @Test
+    void frontPagesAreLoadedAtStartup() {
+        cacheWarmer.run(null);
+
+        verify(gameReadModelService).getGames(0);
+        verify(gameReadModelService).getGames(1);
+        verify(devService).getAllDevelopers(0);
+        verify(devService).getAllDevelopers(1);
+        verify(editorService).getAllEditors(0);
+        verify(editorService).getAllEditors(1);
+        verifyNoMoreInteractions(gameReadModelService, devService, editorService);
+    }
+
+    @Test
+    void hottestIdsAreReloaded() {
+        UUID hot = UUID.randomUUID();
+        UUID warm = UUID.randomUUID();
+        UUID cold = UUID.randomUUID();
+        UUID editor = UUID.randomUUID();
+        UUID game = UUID.randomUUID();
+        record(CacheNames.DEVELOPER_BY_ID, hot, 3);
+        record(CacheNames.DEVELOPER_BY_ID, warm, 2);
+        record(CacheNames.DEVELOPER_BY_ID, cold, 1);
+        record(CacheNames.EDITOR_BY_ID, editor, 1);
+        record(CacheNames.GAME_VIEW_BY_ID, game, 1);
+
+        cacheWarmer.refreshHotEntries();
+
+        verify(devService).refreshDeveloperById(hot);
+        verify(devService).refreshDeveloperById(warm);
+        verify(devService, never()).refreshDeveloperById(cold);
+        verify(editorService).refreshEditorById(editor);
+        verify(gameReadModelService).refreshGameView(game);
+    }
+
+    @Test
+    void idsAreOnlyReloadedIfRequestedSinceTheLastRefresh() {
+        UUID hot = UUID.randomUUID();
+        record(CacheNames.DEVELOPER_BY_ID, hot, 1);
+
+        cacheWarmer.refreshHotEntries();
+        cacheWarmer.refreshHotEntries();
+
+        verify(devService, times(1)).refreshDeveloperById(any());
+    }
+
+    @Test
+    void deletedIdsDoNotStopTheRefresh() {
+        UUID deleted = UUID.randomUUID();
+        UUID hot = UUID.randomUUID();
+        record(CacheNames.DEVELOPER_BY_ID, deleted, 2);
+        record(CacheNames.DEVELOPER_BY_ID, hot, 1);
+        doThrow(new GamestoreEntityException("Cannot found a developper")).when(devService).refreshDeveloperById(deleted);
+
+        cacheWarmer.refreshHotEntries();
+
+        verify(devService).refreshDeveloperById(hot);
+    }
+
+    private void record(final String cacheName, final UUID id, final int requests) {
+        for(int i = 0; i < requests; i++) {
+            hotKeys.record(cacheName, id);
+        }
+    }
+}
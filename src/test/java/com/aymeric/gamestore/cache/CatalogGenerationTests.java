@@ -0,0 +1,48 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Catalog generation tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class CatalogGenerationTests {
+
+    private final CatalogGeneration catalogGeneration = new CatalogGeneration();
+
+    @AfterEach
+    void tearDown() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bumpChangesTheTag() {
+        String tag = catalogGeneration.tag();
+        catalogGeneration.bump();
+
+        assertNotEquals(tag, catalogGeneration.tag());
+    }
+
+    @Test
+    void bumpIsDeferredUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        long generation = catalogGeneration.current();
+
+        catalogGeneration.bump();
+        assertEquals(generation, catalogGeneration.current());
+
+        for(TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(generation + 1, catalogGeneration.current());
+    }
+}
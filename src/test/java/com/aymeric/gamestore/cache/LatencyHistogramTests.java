@@ -0,0 +1,81 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Latency histogram tests: power of two buckets, mean and percentiles
+ * @author Aymeric NEUMANN
+ *
+ */
+class LatencyHistogramTests {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanMicros());
+        assertEquals(0, histogram.getPercentileMicros(0.99));
+        assertTrue(histogram.getBuckets().isEmpty());
+    }
+
+    @Test
+    void latenciesAreCountedUnderTheirPowerOfTwoBound() {
+        histogram.record(0);
+        histogram.record(999);
+        histogram.record(1000);
+        histogram.record(1999);
+        histogram.record(2000);
+        histogram.record(3999);
+        histogram.record(4000);
+
+        Map<Long, Long> expected = new LinkedHashMap<>();
+        expected.put(1L, 2L);
+        expected.put(2L, 2L);
+        expected.put(4L, 2L);
+        expected.put(8L, 1L);
+        assertEquals(expected, histogram.getBuckets());
+        assertEquals(7, histogram.getCount());
+    }
+
+    @Test
+    void longLatenciesAreCountedInTheLastBucket() {
+        histogram.record(TimeUnit.MICROSECONDS.toNanos((1L << 23) - 1));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1L << 23));
+        histogram.record(TimeUnit.HOURS.toNanos(1));
+
+        Map<Long, Long> expected = new LinkedHashMap<>();
+        expected.put(1L << 23, 1L);
+        expected.put(Long.MAX_VALUE, 2L);
+        assertEquals(expected, histogram.getBuckets());
+    }
+
+    @Test
+    void negativeLatenciesAreCountedAsZero() {
+        histogram.record(-5000);
+
+        assertEquals(1L, histogram.getBuckets().get(1L));
+        assertEquals(0, histogram.getMeanMicros());
+    }
+
+    @Test
+    void percentilesAreTheBoundOfTheirBucket() {
+        for(int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+        }
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(5000));
+
+        assertEquals(16, histogram.getPercentileMicros(0.5));
+        assertEquals(16, histogram.getPercentileMicros(0.99));
+        assertEquals(8192, histogram.getPercentileMicros(0.999));
+        assertEquals(8192, histogram.getPercentileMicros(1));
+        assertEquals(59, histogram.getMeanMicros());
+    }
+}
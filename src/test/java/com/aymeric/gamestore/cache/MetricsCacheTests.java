@@ -0,0 +1,90 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Metrics cache tests: each operation of the decorated cache is counted once
+ * @author Aymeric NEUMANN
+ *
+ */
+class MetricsCacheTests {
+
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    private final MetricsCache cache = new MetricsCache(new ConcurrentMapCache("games"), statistics);
+
+    @Test
+    void lookupsAreCountedAsHitsOrMisses() {
+        assertNull(cache.get("a"));
+        cache.put("a", "Metroid Prime");
+
+        assertEquals("Metroid Prime", cache.get("a").get());
+        assertEquals("Metroid Prime", cache.get("a", String.class));
+        assertNull(cache.get("b", String.class));
+
+        assertEquals(2, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(1, statistics.getPuts());
+    }
+
+    @Test
+    void loadIsTimedAndCountedOnlyOnAMiss() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("Metroid Prime", cache.get("a", () -> {
+            loads.incrementAndGet();
+            return "Metroid Prime";
+        }));
+        assertEquals("Metroid Prime", cache.get("a", () -> {
+            loads.incrementAndGet();
+            return "other load";
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getPuts());
+        assertEquals(1, statistics.getLoads().getCount());
+    }
+
+    @Test
+    void putAfterAMissIsTimedAsALoad() {
+        assertNull(cache.get("a"));
+        cache.put("a", "Metroid Prime");
+        // Not loaded after a miss
+        cache.put("b", "Metroid Dread");
+        assertNull(cache.get("c", String.class));
+        cache.put("d", "Metroid Fusion");
+
+        assertEquals(1, statistics.getLoads().getCount());
+    }
+
+    @Test
+    void putIfAbsentIsOnlyCountedWhenItPuts() {
+        assertNull(cache.putIfAbsent("a", "Metroid Prime"));
+        assertEquals("Metroid Prime", cache.putIfAbsent("a", "Metroid Dread").get());
+
+        assertEquals(1, statistics.getPuts());
+    }
+
+    @Test
+    void evictionsAndClearsAreCountedAsRemovals() {
+        cache.put("a", "Metroid Prime");
+
+        assertTrue(cache.evictIfPresent("a"));
+        assertFalse(cache.evictIfPresent("a"));
+        cache.evict("b");
+        cache.clear();
+
+        assertEquals(3, statistics.getRemovals());
+        assertEquals(0, statistics.getEvictions());
+    }
+}
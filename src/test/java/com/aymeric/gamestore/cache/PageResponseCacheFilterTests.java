@@ -0,0 +1,161 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.datasource.ReadConsistency;
+
+/**
+ * Page response cache tests: hits written as is, other requests passed through, writes invalidating the pages
+ * @author Aymeric NEUMANN
+ *
+ */
+class PageResponseCacheFilterTests {
+
+    private final CatalogGeneration catalogGeneration = new CatalogGeneration();
+
+    private final PageResponseCacheFilter filter = new PageResponseCacheFilter();
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "cacheManager", new ConcurrentMapCacheManager(CacheNames.PAGE_RESPONSES));
+        ReflectionTestUtils.setField(filter, "catalogGeneration", catalogGeneration);
+    }
+
+    @Test
+    void secondReadOfAPageIsServedFromTheCache() throws Exception {
+        MockHttpServletResponse first = perform("GET", "/games/0", null);
+        MockHttpServletResponse second = perform("GET", "/games/0", null);
+
+        assertEquals(1, renders.get());
+        assertEquals(200, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertEquals("\"page-1\"", second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void cachedPageIsNotSentAgainIfTheClientHasIt() throws Exception {
+        perform("GET", "/games/0", null);
+        MockHttpServletResponse response = perform("GET", "/games/0", "\"page-1\"");
+
+        assertEquals(1, renders.get());
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void pagesAreCachedByQuery() throws Exception {
+        perform("GET", "/games/0", null);
+        MockHttpServletRequest request = request("GET", "/games/0");
+        request.setQueryString("view=summary");
+        filter.doFilter(request, new MockHttpServletResponse(), chain());
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void otherMethodsAndUrisAreNotCached() throws Exception {
+        perform("POST", "/games/0", null);
+        perform("POST", "/games/0", null);
+        perform("GET", "/games/id/0", null);
+        perform("GET", "/games/id/0", null);
+
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void writeMakesTheCachedPagesUnreachable() throws Exception {
+        perform("GET", "/developers/2", null);
+        catalogGeneration.bump();
+        MockHttpServletResponse response = perform("GET", "/developers/2", null);
+
+        assertEquals(2, renders.get());
+        assertEquals("{\"render\":2}", response.getContentAsString());
+    }
+
+    @Test
+    void failedPagesAreNotCached() throws Exception {
+        filter.doFilter(request("GET", "/editors/9"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) {
+                renders.incrementAndGet();
+                resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        }));
+        perform("GET", "/editors/9", null);
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void missedPagesAreReadFromThePrimary() throws Exception {
+        boolean[] primaryRequired = new boolean[1];
+        filter.doFilter(request("GET", "/games/0"), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) {
+                primaryRequired[0] = ReadConsistency.isPrimaryRequired();
+            }
+        }));
+
+        assertTrue(primaryRequired[0]);
+    }
+
+    private MockHttpServletResponse perform(final String method, final String uri, final String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = request(method, uri);
+        if(ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain());
+
+        return response;
+    }
+
+    private static MockHttpServletRequest request(final String method, final String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    /**
+     * @return a chain rendering a numbered page with its ETag
+     */
+    private MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
+                int render = renders.incrementAndGet();
+                resp.setContentType("application/json");
+                resp.setHeader(HttpHeaders.ETAG, "\"page-" + render + "\"");
+                resp.getWriter().write("{\"render\":" + render + "}");
+            }
+        });
+    }
+}
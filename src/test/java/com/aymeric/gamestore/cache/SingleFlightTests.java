@@ -0,0 +1,192 @@
+package com.aymeric.gamestore.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.entity.Developer;
+
+/**
+ * Single flight tests: collapsed loads, generations, failures and entities read by each caller
+ * @author Aymeric NEUMANN
+ *
+ */
+class SingleFlightTests {
+
+    private final CatalogGeneration catalogGeneration = new CatalogGeneration();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(singleFlight, "catalogGeneration", catalogGeneration);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsOfTheSameKeyAreCollapsed() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> singleFlight.load("pages", 0, () -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            await(releaseLoad);
+            return "page 0";
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        Future<String> follower = executor.submit(() -> singleFlight.load("pages", 0, () -> {
+            loads.incrementAndGet();
+            return "other load";
+        }));
+        waitForCollapsed("pages", 1);
+        releaseLoad.countDown();
+
+        assertEquals("page 0", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("page 0", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1L, singleFlight.getLoads().get("pages"));
+    }
+
+    @Test
+    void loadsAfterAWriteAreNotCollapsedWithOlderLoads() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        Future<String> before = executor.submit(() -> singleFlight.load("ids", "a", () -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            return "before write";
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+        catalogGeneration.bump();
+
+        assertEquals("after write", singleFlight.load("ids", "a", () -> "after write"));
+        releaseLoad.countDown();
+        assertEquals("before write", before.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failureIsRethrownAndNotKept() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.load("ids", "b", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("loaded", singleFlight.load("ids", "b", () -> "loaded"));
+    }
+
+    @Test
+    void waitingCallersReadTheEntityInTheirOwnPersistenceContext() throws Exception {
+        UUID id = UUID.randomUUID();
+        Developer loaded = new Developer();
+        Developer read = new Developer();
+        EntityManager entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        when(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(loaded)).thenReturn(id);
+        when(entityManager.find(Developer.class, id)).thenReturn(read);
+        ReflectionTestUtils.setField(singleFlight, "entityManager", entityManager);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        Future<Optional<Developer>> leader = executor.submit(() -> singleFlight.loadEntity("ids", id, Developer.class, () -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            return Optional.of(loaded);
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        Future<Optional<Developer>> follower = executor.submit(() -> singleFlight.loadEntity("ids", id, Developer.class, Optional::empty));
+        waitForCollapsed("ids", 1);
+        releaseLoad.countDown();
+
+        assertSame(loaded, leader.get(5, TimeUnit.SECONDS).get());
+        assertSame(read, follower.get(5, TimeUnit.SECONDS).get());
+    }
+
+    @Test
+    void waitingCallersSkipTheEntitiesDeletedSinceTheLoad() throws Exception {
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        Developer first = new Developer();
+        Developer second = new Developer();
+        Developer read = new Developer();
+        EntityManager entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        when(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(first)).thenReturn(deleted);
+        when(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(second)).thenReturn(kept);
+        when(entityManager.find(Developer.class, kept)).thenReturn(read);
+        ReflectionTestUtils.setField(singleFlight, "entityManager", entityManager);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        Future<List<Developer>> leader = executor.submit(() -> singleFlight.loadEntities("pages", 0, Developer.class, () -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            return Arrays.asList(first, second);
+        }));
+        assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+        Future<List<Developer>> follower = executor.submit(() -> singleFlight.loadEntities("pages", 0, Developer.class, Collections::emptyList));
+        waitForCollapsed("pages", 1);
+        releaseLoad.countDown();
+
+        assertEquals(Arrays.asList(first, second), leader.get(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(read), follower.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void latenciesAreKeptByGroup() {
+        singleFlight.load("pages", 0, () -> "page 0");
+        singleFlight.load("pages", 1, () -> "page 1");
+
+        assertEquals(2, singleFlight.getLatencies().get("pages").getCount());
+        assertFalse(singleFlight.getLatencies().containsKey("ids"));
+    }
+
+    private void waitForCollapsed(final String group, final long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while(singleFlight.getCollapsed().getOrDefault(group, 0L) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
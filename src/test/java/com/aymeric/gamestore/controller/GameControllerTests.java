@@ -0,0 +1,278 @@
+package com.aymeric.gamestore.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.HotKeys;
+import com.aymeric.gamestore.configuration.ApplicationConfig;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.entity.GameReadModel;
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.service.GameImportService;
+import com.aymeric.gamestore.service.GameLinkService;
+import com.aymeric.gamestore.service.GameReadModelService;
+import com.aymeric.gamestore.service.GameService;
+
+/**
+ * Reads of games by ids, served from their views, their ETags, and export of the games
+ * @author Aymeric NEUMANN
+ *
+ */
+@WebMvcTest(controllers = GameController.class, properties = "spring.cache.type=none")
+@Import(ApplicationConfig.class)
+class GameControllerTests {
+
+    @MockBean
+    private GameService gameService;
+
+    @MockBean
+    private GameImportService gameImportService;
+
+    @MockBean
+    private GameLinkService gameLinkService;
+
+    @MockBean
+    private GameReadModelService gameReadModelService;
+
+    @MockBean
+    private CatalogGeneration catalogGeneration;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @MockBean
+    private HotKeys hotKeys;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void gameIsReadFromItsView() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.of(view(id)));
+
+        mockMvc.perform(get("/games/id/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(content().json("{\"title\":\"Metroid Prime\"}"));
+
+        verify(gameReadModelService, never()).refreshGame(any());
+        verify(hotKeys).record(CacheNames.GAME_VIEW_BY_ID, id);
+    }
+
+    @Test
+    void gameIsNotSentAgainIfItsETagMatches() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.of(view(id)));
+
+        String etag = mockMvc.perform(get("/games/id/{id}", id))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals("\"game-" + id + "-0\"", etag);
+        mockMvc.perform(get("/games/id/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        verify(gameService, never()).gameExistById(any());
+    }
+
+    @Test
+    void gameIsSentIfItsETagChanged() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.of(view(id)));
+
+        mockMvc.perform(get("/games/id/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"game-" + id + "-1\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"game-" + id + "-0\""))
+            .andExpect(content().json("{\"title\":\"Metroid Prime\"}"));
+    }
+
+    @Test
+    void anyETagMatchesAnExistingGame() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.of(view(id)));
+
+        mockMvc.perform(get("/games/id/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "*"))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"game-" + id + "-0\""))
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void weakETagMatchesTheStrongOne() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.of(view(id)));
+
+        mockMvc.perform(get("/games/id/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "W/\"game-" + id + "-0\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void blankPrefixIsNotSuggested() throws Exception {
+        mockMvc.perform(get("/games/suggest").param("prefix", " "))
+            .andExpect(status().isBadRequest());
+
+        verify(gameService, never()).suggestGames(any(), anyInt());
+    }
+
+    @Test
+    void pageIsNotSentAgainUntilTheCatalogChanges() throws Exception {
+        when(cacheManager.getCache(CacheNames.PAGE_RESPONSES)).thenReturn(new ConcurrentMapCache(CacheNames.PAGE_RESPONSES));
+        when(catalogGeneration.tag()).thenReturn("4");
+
+        mockMvc.perform(get("/games/{pageNumber}", 0).header(HttpHeaders.IF_NONE_MATCH, "\"games-0-4\""))
+            .andExpect(status().isNotModified());
+        verify(gameReadModelService, never()).getGames(0);
+
+        when(catalogGeneration.tag()).thenReturn("5");
+        when(gameReadModelService.getGames(0)).thenReturn(new PageImpl<>(Collections.singletonList(view(UUID.randomUUID()))));
+
+        mockMvc.perform(get("/games/{pageNumber}", 0).header(HttpHeaders.IF_NONE_MATCH, "\"games-0-4\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"games-0-5\""));
+    }
+
+    @Test
+    void missingViewOfAnExistingGameIsWritten() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.empty());
+        when(gameService.gameExistById(id)).thenReturn(true);
+        when(gameReadModelService.refreshGame(id)).thenReturn(view(id));
+
+        mockMvc.perform(get("/games/id/{id}", id)).andExpect(status().isOk());
+
+        verify(gameReadModelService).refreshGame(id);
+    }
+
+    @Test
+    void unknownIdIsAnsweredWithoutAWrite() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameReadModelService.getGame(id)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/games/id/{id}", id)).andExpect(status().isBadRequest());
+
+        verify(gameReadModelService, never()).refreshGame(any());
+    }
+
+    @Test
+    void malformedIdIsAnsweredWithoutAnyRead() throws Exception {
+        mockMvc.perform(get("/games/id/{id}", "not-an-id")).andExpect(status().isBadRequest());
+
+        verify(gameReadModelService, never()).getGame(any());
+        verify(gameReadModelService, never()).refreshGame(any());
+    }
+
+    @Test
+    void missingViewsAreOnlyWrittenForExistingGames() throws Exception {
+        UUID read = UUID.randomUUID();
+        UUID written = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(gameReadModelService.getGames(anyCollection())).thenReturn(new HashMap<>(Collections.singletonMap(read, view(read))));
+        when(gameService.findExistingGames(Arrays.asList(written, unknown))).thenReturn(Collections.singleton(written));
+        when(gameReadModelService.refreshGameViews(Collections.singleton(written))).thenReturn(Collections.singletonMap(written, view(written)));
+
+        mockMvc.perform(get("/games/ids").param("ids", read.toString(), written.toString(), unknown.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].found").value(contains(true, true, false)));
+
+        verify(gameReadModelService).refreshGameViews(Collections.singleton(written));
+    }
+
+    @Test
+    void unknownIdsAreAnsweredWithoutAWrite() throws Exception {
+        UUID unknown = UUID.randomUUID();
+        when(gameReadModelService.getGames(anyCollection())).thenReturn(new HashMap<>());
+        when(gameService.findExistingGames(anyCollection())).thenReturn(Collections.emptySet());
+
+        mockMvc.perform(get("/games/ids").param("ids", unknown.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].found").value(false));
+
+        verify(gameReadModelService, never()).refreshGameViews(anyCollection());
+    }
+
+    @Test
+    void unavailableSearchKeepsItsStatus() throws Exception {
+        when(gameService.searchGames("metroid", 0, 20))
+            .thenThrow(new GamestoreEntityException("The search is unavailable", HttpStatus.SERVICE_UNAVAILABLE));
+
+        mockMvc.perform(get("/games/search").param("q", "metroid").param("size", "20"))
+            .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void exportStreamsOneGamePerLineWithItsOwnTimeout() throws Exception {
+        when(gameService.exportGames(any())).thenAnswer(invocation -> {
+            Consumer<Game> consumer = invocation.getArgument(0);
+            consumer.accept(game("Metroid Prime"));
+            consumer.accept(game("Metroid Dread"));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/games/export")).andExpect(request().asyncStarted()).andReturn();
+
+        assertEquals(3600000L, result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"title\":\"Metroid Dread\""));
+    }
+
+    /**
+     * @param title title of the game
+     * @return a game
+     */
+    static Game game(final String title) {
+        Game game = new Game();
+        game.setTitle(title);
+
+        return game;
+    }
+
+    /**
+     * @param id id of the game
+     * @return a view of a game
+     */
+    static GameReadModel view(final UUID id) {
+        GameReadModel view = new GameReadModel(id);
+        view.setTitle("Metroid Prime");
+        view.setDocument("{\"id\":\"" + id + "\",\"title\":\"Metroid Prime\"}");
+
+        return view;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aymeric.gamestore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.aymeric.gamestore.dto.CatalogHitDTO;
+import com.aymeric.gamestore.dto.CatalogSearchResultDTO;
+import com.aymeric.gamestore.search.CatalogSearchResult;
+import com.aymeric.gamestore.search.SearchHit;
+import com.aymeric.gamestore.search.SearchResult;
+
+/**
+ * Merge of the sections of a catalog search
+ * @author Aymeric NEUMANN
+ *
+ */
+class SearchResultsTests {
+
+    @Test
+    void hitsAreMergedByScoreRelativeToTheirType() {
+        // Raw scores of the games are far above the ones of the developers: they come from another query
+        SearchResult games = result(hit("Metroid Prime", 12f), hit("Metroid Dread", 3f));
+        SearchResult developers = result(hit("Retro Studios", 2f), hit("Retro Games", 1.5f));
+        SearchResult editors = result();
+
+        CatalogSearchResultDTO dto = SearchResults.toDTO(new CatalogSearchResult(games, developers, editors, false), 3);
+
+        assertEquals(Arrays.asList("Metroid Prime", "Retro Studios", "Retro Games"), labels(dto.getBest()));
+        assertEquals(1f, dto.getBest().get(0).getScore());
+        assertEquals(0.75f, dto.getBest().get(2).getScore());
+        assertEquals(12f, dto.getGames().getHits().get(0).getScore());
+    }
+
+    private static SearchResult result(final SearchHit... hits) {
+        return new SearchResult(0, 5, hits.length, new ArrayList<>(Arrays.asList(hits)));
+    }
+
+    private static SearchHit hit(final String label, final float score) {
+        return new SearchHit(UUID.randomUUID(), label, score);
+    }
+
+    private static List<String> labels(final List<CatalogHitDTO> hits) {
+        return hits.stream().map(CatalogHitDTO::getLabel).collect(Collectors.toList());
+    }
+}
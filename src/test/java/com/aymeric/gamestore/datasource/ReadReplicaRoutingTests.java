@@ -0,0 +1,199 @@
+package com.aymeric.gamestore.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.configuration.ReadReplicaConfig;
+
+/**
+ * Routing between a primary and two replicas, embedded databases named after their role.
+ * The second replica does not exist and can never be connected to.
+ * Replication is played by copying the heartbeat of the primary to the first replica.
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "gamestore.datasource.replicas.urls=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1, jdbc:h2:mem:missing;IFEXISTS=TRUE",
+        "gamestore.datasource.replicas.max-lag-ms=1000",
+        // Checks are run by the tests, the scheduled one only at start
+        "gamestore.datasource.replicas.health-check-ms=3600000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadReplicaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingTests {
+
+    private static final String PRIMARY = "PRIMARY";
+
+    private static final String REPLICA = "REPLICA";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReplicaHealth health;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReplicaRoutingDataSource routing;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        primary = new JdbcTemplate(routing.getPrimary());
+        replica = new JdbcTemplate(routing.getReplicas().get(0).getDataSource());
+        replica.execute("create table if not exists " + ReplicaHealth.HEARTBEAT_TABLE + " (id int not null primary key, beat bigint not null)");
+
+        health.check();
+        replicate();
+        health.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadConsistency.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheHealthyReplica() {
+        assertTrue(routing.getReplicas().get(0).isHealthy());
+        assertFalse(routing.getReplicas().get(1).isHealthy());
+
+        assertEquals(REPLICA, database(true));
+        assertEquals(PRIMARY, database(false));
+        assertEquals(PRIMARY, jdbcTemplate.queryForObject("call database()", String.class));
+    }
+
+    @Test
+    void lateReplicaIsRemovedUntilItCatchesUp() {
+        replica.update("update " + ReplicaHealth.HEARTBEAT_TABLE + " set beat = beat - 5000");
+        health.check();
+
+        assertFalse(routing.getReplicas().get(0).isHealthy());
+        assertEquals(PRIMARY, database(true));
+
+        replicate();
+        health.check();
+
+        assertTrue(routing.getReplicas().get(0).isHealthy());
+        assertEquals(REPLICA, database(true));
+    }
+
+    @Test
+    void replicaRefusingConnectionsIsRemovedAndThePrimaryServes() {
+        Replica missing = routing.getReplicas().get(1);
+        missing.up(0);
+
+        Set<String> databases = new HashSet<>();
+        for(int i = 0; i < 4; i++) {
+            databases.add(database(true));
+        }
+
+        assertFalse(missing.isHealthy());
+        assertTrue(databases.contains(PRIMARY));
+        assertTrue(databases.contains(REPLICA));
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromThePrimary() {
+        ReadConsistency.requirePrimary(true);
+
+        assertEquals(PRIMARY, database(true));
+    }
+
+    @Test
+    void cacheLoadsAreReadFromThePrimary() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        String database = transaction.execute(status -> ReadConsistency.onPrimary(() -> jdbcTemplate.queryForObject("call database()", String.class)));
+
+        assertEquals(PRIMARY, database);
+        assertFalse(ReadConsistency.isPrimaryRequired());
+        assertEquals(REPLICA, database(true));
+    }
+
+    @Test
+    void writeMakesTheNextReadsOfTheClientStickToThePrimary() throws Exception {
+        ReadConsistencyFilter filter = new ReadConsistencyFilter(routing, 1000);
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/games"), written, (request, response) -> primaryRequired.set(ReadConsistency.isPrimaryRequired()));
+        Cookie cookie = written.getCookie(ReadConsistencyFilter.COOKIE);
+
+        assertTrue(primaryRequired.get());
+        assertNotNull(cookie);
+
+        MockHttpServletRequest sameClient = new MockHttpServletRequest("GET", "/games/0");
+        sameClient.setCookies(cookie);
+        filter.doFilter(sameClient, new MockHttpServletResponse(), (request, response) -> primaryRequired.set(ReadConsistency.isPrimaryRequired()));
+        assertTrue(primaryRequired.get());
+
+        MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/games/0"), otherResponse, (request, response) -> primaryRequired.set(ReadConsistency.isPrimaryRequired()));
+        assertFalse(primaryRequired.get());
+        assertNull(otherResponse.getCookie(ReadConsistencyFilter.COOKIE));
+        assertFalse(ReadConsistency.isPrimaryRequired());
+    }
+
+    /**
+     * @param readOnly true to run a read only transaction
+     * @return name of the database serving the transaction
+     */
+    private String database(final boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+
+        return transaction.execute(status -> jdbcTemplate.queryForObject("call database()", String.class));
+    }
+
+    private void replicate() {
+        Long beat = primary.queryForObject("select beat from " + ReplicaHealth.HEARTBEAT_TABLE + " where id = 1", Long.class);
+
+        if(replica.update("update " + ReplicaHealth.HEARTBEAT_TABLE + " set beat = ? where id = 1", beat) == 0) {
+            replica.update("insert into " + ReplicaHealth.HEARTBEAT_TABLE + " (id, beat) values (1, ?)", beat);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.aymeric.gamestore.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aymeric.gamestore.repository.GameRelationship;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+
+/**
+ * Ids mapped in binary storage, the schema being created with the MySQL statements
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:binary-ids;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL55Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties." + UuidStorage.SETTING + "=binary",
+        UuidStorage.SETTING + "=binary" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(GameRelationshipRepository.class)
+class BinaryUuidStorageTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GameRelationshipRepository relationshipRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idColumnsAreSixteenBytes() {
+        String idColumns = "from information_schema.columns where column_name in ('id', 'owner_id', 'games_id', 'developer_id', 'editor_id')"
+                + " and table_name in ('game', 'developer', 'editor', 'game_developer', 'game_editor', 'game_read_model')";
+
+        assertEquals(9, jdbcTemplate.queryForObject("select count(*) " + idColumns, Integer.class));
+        assertEquals(9, jdbcTemplate.queryForObject("select count(*) " + idColumns
+                + " and data_type in (" + Types.BINARY + ", " + Types.VARBINARY + ") and character_maximum_length = 16", Integer.class));
+    }
+
+    @Test
+    void entitiesAndRelationshipsAreReadBack() {
+        Editor editor = new Editor();
+        editor.setName("Editor");
+        entityManager.persist(editor);
+
+        Developer dev = new Developer();
+        dev.setName("Studio");
+        dev.setOwner(editor);
+        entityManager.persist(dev);
+
+        Game game = new Game();
+        game.setTitle("Game");
+        game.setReleaseDate(new Date());
+        game.setDevs(new HashSet<>(Collections.singletonList(dev)));
+        game.setEditors(new HashSet<>(Collections.singletonList(editor)));
+        entityManager.persist(game);
+        entityManager.flush();
+        entityManager.clear();
+
+        Game found = entityManager.find(Game.class, game.getId());
+
+        assertEquals(7, found.getId().version());
+        assertEquals(dev.getId(), found.getDevs().iterator().next().getId());
+        assertEquals(editor.getId(), found.getDevs().iterator().next().getOwner().getId());
+        assertEquals(editor.getId(), found.getEditors().iterator().next().getId());
+        assertEquals(16, jdbcTemplate.queryForObject("select id from game", byte[].class).length);
+    }
+
+    @Test
+    void relationshipsAreInsertedWithBinaryIds() {
+        Developer dev = new Developer();
+        dev.setName("Studio");
+        entityManager.persist(dev);
+
+        Game game = new Game();
+        game.setTitle("Game");
+        game.setReleaseDate(new Date());
+        entityManager.persist(game);
+        entityManager.flush();
+
+        assertTrue(relationshipRepository.insert(GameRelationship.DEVELOPER, game.getId(), dev.getId()));
+        entityManager.clear();
+
+        assertEquals(dev.getId(), entityManager.find(Game.class, game.getId()).getDevs().iterator().next().getId());
+        assertEquals(Collections.singleton(game.getId()), relationshipRepository.findExistingGames(Collections.singletonList(game.getId())));
+        assertEquals(Collections.singletonMap(game.getId(), Collections.singleton(dev.getId())),
+                relationshipRepository.findLinks(GameRelationship.DEVELOPER, Collections.singletonList(game.getId()), Collections.singletonList(dev.getId())));
+    }
+}
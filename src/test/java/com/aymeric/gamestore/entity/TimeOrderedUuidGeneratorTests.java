@@ -0,0 +1,43 @@
+package com.aymeric.gamestore.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Time ordered ids
+ * @author Aymeric NEUMANN
+ *
+ */
+class TimeOrderedUuidGeneratorTests {
+
+    @Test
+    void idsAreVersion7WithTheCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(TimeOrderedUuidGenerator.timestamp(id) >= before);
+        assertTrue(TimeOrderedUuidGenerator.timestamp(id) <= System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void idsIncreaseInBinaryAndTextOrder() {
+        UUID previous = TimeOrderedUuidGenerator.next();
+
+        // More ids than the counter of a millisecond holds
+        for(int i = 0; i < 20000; i++) {
+            UUID id = TimeOrderedUuidGenerator.next();
+            String order = previous + " then " + id;
+
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0, order);
+            assertTrue(previous.toString().compareTo(id.toString()) < 0, order);
+            assertEquals(7, id.version());
+            previous = id;
+        }
+    }
+}
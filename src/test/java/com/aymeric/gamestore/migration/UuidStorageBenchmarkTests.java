@@ -0,0 +1,118 @@
+package com.aymeric.gamestore.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import com.aymeric.gamestore.entity.TimeOrderedUuidGenerator;
+
+/**
+ * Insert and lookup throughput of the ids before the migration, random and in 36 characters,
+ * and after, time ordered and in 16 bytes.
+ * Runs on an in memory H2 database, on MySQL with -Dgamestore.benchmark.url, .user and .password,
+ * with -Dgamestore.benchmark.rows rows (20000 by default).
+ * Only run by the benchmark profile: mvn test -Pbenchmark
+ * @author Aymeric NEUMANN
+ *
+ */
+@Tag("benchmark")
+class UuidStorageBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(UuidStorageBenchmarkTests.class);
+
+    private static final int ROWS = Integer.getInteger("gamestore.benchmark.rows", 20000);
+
+    private static final int LOOKUPS = 5000;
+
+    private static final int BATCH = 100;
+
+    private SingleConnectionDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource(System.getProperty("gamestore.benchmark.url", "jdbc:h2:mem:uuid-benchmark"),
+                System.getProperty("gamestore.benchmark.user", "sa"), System.getProperty("gamestore.benchmark.password", ""), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table uuid_bench_char (id varchar(36) not null primary key, title varchar(255))");
+        jdbcTemplate.execute("create table uuid_bench_binary (id binary(16) not null primary key, title varchar(255))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table uuid_bench_char");
+        jdbcTemplate.execute("drop table uuid_bench_binary");
+        dataSource.destroy();
+    }
+
+    @Test
+    void timeOrderedBinaryIdsAgainstRandomCharIds() {
+        Measure before = measure("uuid_bench_char", UUID::randomUUID, UUID::toString);
+        Measure after = measure("uuid_bench_binary", TimeOrderedUuidGenerator::next, UuidStorageMigration::toBytes);
+
+        logger.info("{} rows, {} lookups - random char ids: {} - time ordered binary ids: {}", ROWS, LOOKUPS, before, after);
+    }
+
+    private <T> Measure measure(final String table, final Supplier<UUID> ids, final Function<UUID, T> column) {
+        List<UUID> created = new ArrayList<>(ROWS);
+        List<Object[]> batch = new ArrayList<>(BATCH);
+
+        long start = System.nanoTime();
+        for(int i = 0; i < ROWS; i++) {
+            UUID id = ids.get();
+            created.add(id);
+            batch.add(new Object[] { column.apply(id), "Game " + i });
+
+            if(batch.size() == BATCH || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("insert into " + table + " (id, title) values (?, ?)", batch);
+                batch.clear();
+            }
+        }
+        long inserts = System.nanoTime() - start;
+
+        Collections.shuffle(created, new Random(42));
+        start = System.nanoTime();
+        int found = 0;
+        for(UUID id : created.subList(0, Math.min(LOOKUPS, ROWS))) {
+            found += jdbcTemplate.queryForObject("select count(*) from " + table + " where id = ?", Integer.class, column.apply(id));
+        }
+        long lookups = System.nanoTime() - start;
+
+        assertEquals(Math.min(LOOKUPS, ROWS), found);
+
+        return new Measure(ROWS * 1e9 / inserts, Math.min(LOOKUPS, ROWS) * 1e9 / lookups);
+    }
+
+    private static final class Measure {
+
+        private final double insertsPerSecond;
+
+        private final double lookupsPerSecond;
+
+        Measure(final double insertsPerSecond, final double lookupsPerSecond) {
+            this.insertsPerSecond = insertsPerSecond;
+            this.lookupsPerSecond = lookupsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f inserts/s, %.0f lookups/s", insertsPerSecond, lookupsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.aymeric.gamestore.migration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+
+/**
+ * Migration of a catalog stored in char to binary ids.
+ * The schema is created by Hibernate in char storage, then converted in place.
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:uuid-migration",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "gamestore.id.migration.batch-size=7" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UuidStorageMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+// The schema is converted: the persistence unit in char storage cannot be used after a test
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UuidStorageMigrationTests {
+
+    private static final int GAMES = 30;
+
+    @Autowired
+    private UuidStorageMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private DeveloperRepository devRepository;
+
+    @Autowired
+    private EditorRepository editorRepository;
+
+    private final List<Game> games = new ArrayList<>();
+
+    private Developer developer;
+
+    private Editor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new Editor();
+        editor.setName("Editor");
+        editor = editorRepository.save(editor);
+
+        developer = new Developer();
+        developer.setName("Studio");
+        developer.setOwner(editor);
+        developer = devRepository.save(developer);
+
+        for(int i = 0; i < GAMES; i++) {
+            games.add(saveGame("Game " + i));
+        }
+    }
+
+    @Test
+    void backfillCopiesEveryIdInItsShadowColumn() {
+        assertEquals(GAMES + 2L + 2 * GAMES, migration.backfill());
+        assertFalse(migration.isConverted());
+
+        for(Game game : games) {
+            byte[] shadow = jdbcTemplate.queryForObject("select id_bin from game where id = ?", byte[].class, game.getId().toString());
+            assertArrayEquals(UuidStorageMigration.toBytes(game.getId()), shadow);
+        }
+        assertArrayEquals(UuidStorageMigration.toBytes(editor.getId()),
+                jdbcTemplate.queryForObject("select owner_id_bin from developer where id = ?", byte[].class, developer.getId().toString()));
+
+        // Run again after a stop: only the rows written meanwhile are copied
+        saveGame("Written during the backfill");
+        assertEquals(3, migration.backfill());
+    }
+
+    @Test
+    void switchOverReplacesTheCharColumns() {
+        migration.backfill();
+        Game late = saveGame("Written after the backfill");
+        migration.switchOver();
+
+        assertTrue(migration.isConverted());
+        assertEquals(GAMES + 1, jdbcTemplate.queryForObject("select count(*) from game", Integer.class));
+        assertArrayEquals(UuidStorageMigration.toBytes(late.getId()),
+                jdbcTemplate.queryForObject("select id from game where title = ?", byte[].class, late.getTitle()));
+        assertArrayEquals(UuidStorageMigration.toBytes(editor.getId()),
+                jdbcTemplate.queryForObject("select owner_id from developer", byte[].class));
+        assertEquals(GAMES + 1, jdbcTemplate.queryForObject(
+                "select count(*) from game_developer gd join game g on g.id = gd.games_id join developer d on d.id = gd.developer_id", Integer.class));
+        assertEquals(GAMES + 1, jdbcTemplate.queryForObject(
+                "select count(*) from game_editor ge join game g on g.id = ge.games_id join editor e on e.id = ge.editor_id", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where lower(column_name) like '%" + UuidStorageMigration.SHADOW + "'", Integer.class));
+
+        // Keys and references are enforced on the binary columns
+        byte[] unknown = UuidStorageMigration.toBytes(UUID.randomUUID());
+        byte[] gameId = UuidStorageMigration.toBytes(late.getId());
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("insert into game_editor (games_id, editor_id) values (?, ?)", gameId, unknown));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("insert into game_developer (games_id, developer_id) values (?, ?)", gameId, UuidStorageMigration.toBytes(developer.getId())));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.indexes where lower(index_name) = 'idx_game_title_id' and lower(column_name) = 'id'", Integer.class));
+
+        // Nothing left to do when run again
+        migration.switchOver();
+        assertEquals(0, migration.backfill());
+    }
+
+    private Game saveGame(final String title) {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setReleaseDate(new Date());
+        game.setDevs(new HashSet<>(Collections.singletonList(developer)));
+        game.setEditors(new HashSet<>(Collections.singletonList(editor)));
+
+        return gameRepository.save(game);
+    }
+}
@@ -0,0 +1,151 @@
+package com.aymeric.gamestore.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.aymeric.gamestore.configuration.ApplicationConfig;
+import com.aymeric.gamestore.dto.GameDTO;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+
+/**
+ * Number of statements of the pages and searches of games, converted to DTO as the controllers do.
+ * The second level cache is off so that every read reaches the database.
+ * The seek searches by part of title match the wildcards of the part literally.
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+@Import(ApplicationConfig.class)
+class GamePageStatementsTests {
+
+    private static final int GAMES = 120;
+
+    private static final Type DTO_LIST = new TypeToken<List<GameDTO>>() {}.getType();
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    private Statistics statistics;
+
+    private final List<UUID> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Editor> editors = new ArrayList<>();
+        for(int i = 0; i < 8; i++) {
+            Editor editor = new Editor();
+            editor.setName("Editor " + i);
+            editors.add(entityManager.persist(editor));
+        }
+
+        List<Developer> devs = new ArrayList<>();
+        for(int i = 0; i < 30; i++) {
+            Developer dev = new Developer();
+            dev.setName("Studio " + i);
+            dev.setOwner(editors.get(i % editors.size()));
+            devs.add(entityManager.persist(dev));
+        }
+
+        for(int i = 0; i < GAMES; i++) {
+            Game game = new Game();
+            game.setTitle(String.format("Game %03d", i));
+            game.setReleaseDate(new Date());
+            game.setDevs(new HashSet<>(Arrays.asList(devs.get(i % devs.size()), devs.get((i + 7) % devs.size()))));
+            game.setEditors(new HashSet<>(Collections.singletonList(editors.get(i % editors.size()))));
+            ids.add(entityManager.persist(game).getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageTakesAFixedNumberOfStatements() {
+        Page<Game> page = gameRepository.findAll(PageRequest.of(1, 50, Sort.by("title")));
+        List<GameDTO> dtos = modelMapper.map(page.getContent(), DTO_LIST);
+
+        assertEquals(50, dtos.size());
+        assertEquals(2, dtos.get(0).getDevs().size());
+        // The page, its count, one batch of developers joined to their owners and one batch of editors
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void summaryPageReadsOnlyTheGameTable() {
+        Page<GameSummary> page = gameRepository.findSummariesBy(PageRequest.of(1, 50, Sort.by("title")));
+
+        assertEquals(50, page.getContent().size());
+        // The page and its count, whatever the relationships
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void gamesFoundByIdAreReadInOneStatement() {
+        List<Game> games = new ArrayList<>();
+        gameRepository.findAllById(ids.subList(0, 50)).forEach(games::add);
+        List<GameDTO> dtos = modelMapper.map(games, DTO_LIST);
+
+        assertEquals(50, dtos.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void containingAfterMatchesWildcardsLiterally() {
+        for(String title : Arrays.asList("100% Orange", "1000 Oranges", "Under_Ground", "UnderXGround", "Back\\Slash")) {
+            Game game = new Game();
+            game.setTitle(title);
+            game.setReleaseDate(new Date());
+            entityManager.persist(game);
+        }
+        entityManager.flush();
+        UUID first = new UUID(0, 0);
+
+        assertEquals(Collections.singletonList("100% Orange"), titles(gameRepository.findContainingAfter("0%", "", first, PageRequest.of(0, 10))));
+        assertEquals(Collections.singletonList("Under_Ground"), titles(gameRepository.findContainingAfter("r_G", "", first, PageRequest.of(0, 10))));
+        assertEquals(Collections.singletonList("Back\\Slash"), titles(gameRepository.findContainingAfter("k\\S", "", first, PageRequest.of(0, 10))));
+    }
+
+    private static List<String> titles(final List<Game> games) {
+        List<String> titles = new ArrayList<>();
+        games.forEach(game -> titles.add(game.getTitle()));
+
+        return titles;
+    }
+}
@@ -0,0 +1,86 @@
+package com.aymeric.gamestore.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+
+/**
+ * Check that the entities read by id are served by the second level cache, with the regions of ehcache.xml
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTests {
+
+    @Autowired
+    private DeveloperRepository devRepository;
+
+    @Autowired
+    private EditorRepository editorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Developer dev;
+
+    @BeforeEach
+    void setUp() {
+        Editor owner = new Editor();
+        owner.setName("Nintendo");
+        owner = editorRepository.save(owner);
+
+        // Committed: the rows written by a running transaction are not cached
+        dev = new Developer();
+        dev.setName("Retro Studios");
+        dev.setOwner(owner);
+        dev = devRepository.save(dev);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        devRepository.deleteAll();
+        editorRepository.deleteAll();
+    }
+
+    @Test
+    void secondFindByIdIsReadFromTheSecondLevelCache() {
+        devRepository.findById(dev.getId());
+
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        Developer read = devRepository.findById(dev.getId()).get();
+
+        assertEquals("Retro Studios", read.getName());
+        assertEquals("Nintendo", read.getOwner().getName());
+        // The developer and its owner, read with it
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Developer.class.getName()).getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Editor.class.getName()).getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
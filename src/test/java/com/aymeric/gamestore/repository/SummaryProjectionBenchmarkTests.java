@@ -0,0 +1,159 @@
+package com.aymeric.gamestore.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+
+/**
+ * Compare the allocation of a page of games read as entities and as summaries, only run by the benchmark profile:
+ * the allocated bytes depend on the JVM. The statements of the summaries are checked by GamePageStatementsTests.
+ * The second level cache is off so that both paths read the database.
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+@Tag("benchmark")
+class SummaryProjectionBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryProjectionBenchmarkTests.class);
+
+    private static final int GAMES = 200;
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 50, Sort.by("title"));
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Editor> editors = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            Editor editor = new Editor();
+            editor.setName("Editor " + i);
+            editors.add(entityManager.persist(editor));
+        }
+
+        List<Developer> devs = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            Developer dev = new Developer();
+            dev.setName("Studio " + i);
+            dev.setOwner(editors.get(i % editors.size()));
+            devs.add(entityManager.persist(dev));
+        }
+
+        for(int i = 0; i < GAMES; i++) {
+            Game game = new Game();
+            game.setTitle(String.format("Game %03d", i));
+            game.setReleaseDate(new Date());
+            game.setDevs(new HashSet<>(Arrays.asList(devs.get(i % devs.size()), devs.get((i + 1) % devs.size()))));
+            game.setEditors(new HashSet<>(Collections.singletonList(editors.get(i % editors.size()))));
+            entityManager.persist(game);
+        }
+
+        entityManager.flush();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void summariesAllocateLessThanEntities() {
+        assumeTrue(allocationSupported());
+
+        Measure full = measure(() -> gameRepository.findAll(FIRST_PAGE));
+        Measure summaries = measure(() -> gameRepository.findSummariesBy(FIRST_PAGE));
+        logger.info("Page of {} games out of {}: entities {}, summaries {}", FIRST_PAGE.getPageSize(), GAMES, full, summaries);
+
+        assertTrue(summaries.bytes < full.bytes, () -> "entities " + full + ", summaries " + summaries);
+    }
+
+    /**
+     * Read a page once to warm up, then measure a second read on an empty persistence context
+     * @param read reading of the page
+     * @return statements and bytes allocated by the second read
+     */
+    private Measure measure(final PageRead read) {
+        entityManager.clear();
+        read.read().getContent().size();
+
+        entityManager.clear();
+        statistics.clear();
+        long before = allocatedBytes();
+        int size = read.read().getContent().size();
+        long bytes = allocatedBytes() - before;
+
+        assertEquals(FIRST_PAGE.getPageSize(), size);
+
+        return new Measure(statistics.getPrepareStatementCount(), bytes);
+    }
+
+    private static boolean allocationSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemorySupported();
+    }
+
+    private static long allocatedBytes() {
+        if(!allocationSupported()) {
+            return 0;
+        }
+
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @FunctionalInterface
+    private interface PageRead {
+        Page<?> read();
+    }
+
+    private static final class Measure {
+
+        private final long statements;
+
+        private final long bytes;
+
+        Measure(final long statements, final long bytes) {
+            this.statements = statements;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String toString() {
+            return statements + " statements and " + bytes + " bytes";
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.aymeric.gamestore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+
+/**
+ * Full text index tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class CatalogFullTextIndexTests {
+
+    @TempDir
+    Path indexDir;
+
+    private CatalogFullTextIndex index;
+
+    private Game prime;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new CatalogFullTextIndex();
+        ReflectionTestUtils.setField(index, "indexDir", indexDir.toString());
+        index.open();
+
+        Editor nintendo = editor("Nintendo");
+        Developer retro = developer("Retro Studios");
+        retro.setOwner(nintendo);
+        prime = game("Metroid Prime", retro, nintendo);
+        index.indexGames(Arrays.asList(prime, game("Metroid Dread", null, nintendo), game("Prime Time Racing", null, null)));
+        index.indexDevelopers(Collections.singletonList(retro));
+        index.indexEditors(Collections.singletonList(nintendo));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void gamesMatchingMoreWordsRankFirst() {
+        SearchResult result = index.searchGames("metroid prime", 0, 10);
+
+        assertEquals(3, result.getTotalHits());
+        assertEquals("Metroid Prime", result.getHits().get(0).getLabel());
+    }
+
+    @Test
+    void gamesAreFoundByTheNamesOfTheirDevelopersAndEditors() {
+        assertEquals(Arrays.asList("Metroid Prime"), labels(index.searchGames("retro", 0, 10)));
+        assertEquals(new HashSet<>(Arrays.asList("Metroid Prime", "Metroid Dread")),
+                new HashSet<>(labels(index.searchGames("Nintendo", 0, 10))));
+    }
+
+    @Test
+    void searchesAreLimitedToOneType() {
+        assertEquals(Arrays.asList("Nintendo"), labels(index.searchEditors("nintendo", 0, 10)));
+        assertEquals(Arrays.asList("Retro Studios"), labels(index.searchDevelopers("nintendo", 0, 10)));
+    }
+
+    @Test
+    void resultsArePaged() {
+        SearchResult second = index.searchGames("metroid prime", 1, 2);
+
+        assertEquals(3, second.getTotalHits());
+        assertEquals(1, second.getHits().size());
+    }
+
+    @Test
+    void fuzzySearchToleratesTypos() {
+        assertEquals(Arrays.asList(prime.getId()), index.fuzzyGames("Metorid Prme", 10));
+        assertEquals(2, index.fuzzyGames("metrod", 10).size());
+        assertEquals(1, index.fuzzyEditors("nitnendo", 10).size());
+    }
+
+    @Test
+    void fuzzySearchIsBoundedByTheLengthOfTheWords() {
+        // two edits on a word of 5 letters, or an other first letter, are too far
+        assertTrue(index.fuzzyGames("prxmx", 10).isEmpty());
+        assertTrue(index.fuzzyGames("zetroid", 10).isEmpty());
+    }
+
+    @Test
+    void deletedGamesAreNoLongerFound() {
+        index.removeGame(prime.getId());
+
+        assertTrue(index.searchGames("retro", 0, 10).getHits().isEmpty());
+        assertTrue(index.searchGames("  ", 0, 10).getHits().isEmpty());
+    }
+
+    private static Game game(final String title, final Developer dev, final Editor editor) {
+        Game game = new Game();
+        ReflectionTestUtils.setField(game, "id", UUID.randomUUID());
+        game.setTitle(title);
+        game.setDevs(dev == null ? Collections.emptySet() : Collections.singleton(dev));
+        game.setEditors(editor == null ? Collections.emptySet() : Collections.singleton(editor));
+        return game;
+    }
+
+    private static Developer developer(final String name) {
+        Developer dev = new Developer();
+        ReflectionTestUtils.setField(dev, "id", UUID.randomUUID());
+        dev.setName(name);
+        return dev;
+    }
+
+    private static Editor editor(final String name) {
+        Editor editor = new Editor();
+        ReflectionTestUtils.setField(editor, "id", UUID.randomUUID());
+        editor.setName(name);
+        return editor;
+    }
+
+    private static List<String> labels(final SearchResult result) {
+        return result.getHits().stream().map(SearchHit::getLabel).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,136 @@
+package com.aymeric.gamestore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Prefix index tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class PrefixIndexTests {
+
+    private final PrefixIndex index = new PrefixIndex();
+
+    private final UUID prime = UUID.randomUUID();
+
+    private final UUID dread = UUID.randomUUID();
+
+    private final UUID sonic = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        Map<UUID, String> labels = new HashMap<>();
+        labels.put(prime, "Metroid Prime");
+        labels.put(dread, "Metroid Dread");
+        labels.put(sonic, "Sonic Adventure");
+        index.update(labels, Collections.emptySet());
+    }
+
+    @Test
+    void suggestsLabelsStartingWithThePrefix() {
+        assertEquals(Arrays.asList("Metroid Dread", "Metroid Prime"), labels(index.suggest("MET", 10)));
+        assertEquals(Arrays.asList("Sonic Adventure"), labels(index.suggest("so", 10)));
+    }
+
+    @Test
+    void labelsStartingWithThePrefixThenShortestLabelsAreSuggestedFirst() {
+        index.put(UUID.randomUUID(), "Primal Rage");
+        index.put(UUID.randomUUID(), "Prince of Persia");
+        index.put(UUID.randomUUID(), "Pikmin");
+
+        assertEquals(Arrays.asList("Primal Rage", "Prince of Persia", "Metroid Prime"), labels(index.suggest("pri", 10)));
+        assertEquals(Arrays.asList("Pikmin", "Primal Rage"), labels(index.suggest("p", 2)));
+    }
+
+    @Test
+    void suggestsLabelsWithAWordStartingWithThePrefix() {
+        assertEquals(Arrays.asList("Metroid Prime"), labels(index.suggest("pri", 10)));
+        assertTrue(index.suggest("troid", 10).isEmpty());
+    }
+
+    @Test
+    void suggestionsAreLimitedAndOnePerId() {
+        index.put(prime, "Metroid Prime Metroid");
+
+        assertEquals(Arrays.asList("Metroid Dread"), labels(index.suggest("metroid", 1)));
+        assertEquals(Arrays.asList("Metroid Dread", "Metroid Prime Metroid"), labels(index.suggest("metroid", 10)));
+    }
+
+    @Test
+    void bestMatchOfAnIdIsKeptWhenTheSuggestionsAreFull() {
+        index.put(UUID.randomUUID(), "Age of Empires");
+        // Its second word is read before its first one, which ranks it better
+        index.put(UUID.randomUUID(), "Ages Adventure");
+        index.put(UUID.randomUUID(), "Ape Escape");
+
+        assertEquals(Arrays.asList("Ape Escape", "Age of Empires"), labels(index.suggest("a", 2)));
+        assertEquals(Arrays.asList("Ape Escape", "Age of Empires", "Ages Adventure"), labels(index.suggest("a", 3)));
+        assertEquals(Arrays.asList("Ape Escape", "Age of Empires", "Ages Adventure", "Sonic Adventure"), labels(index.suggest("a", 10)));
+    }
+
+    @Test
+    void blankPrefixesAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("  ", 10));
+    }
+
+    @Test
+    void writesReplaceTheKeysOfTheirId() {
+        index.put(prime, "Metroid Fusion");
+        index.remove(sonic);
+
+        assertTrue(index.suggest("prime", 10).isEmpty());
+        assertTrue(index.suggest("sonic", 10).isEmpty());
+        assertEquals(Arrays.asList("Metroid Fusion"), labels(index.suggest("fu", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void writesAreKeptAcrossMergesOfTheDelta() {
+        Map<UUID, String> labels = new HashMap<>();
+        for(int i = 0; i < 2000; i++) {
+            UUID id = UUID.randomUUID();
+            labels.put(id, String.format("Game %04d", i));
+            index.put(id, String.format("Title %04d", i));
+        }
+        index.update(labels, Collections.singleton(sonic));
+
+        assertTrue(index.suggest("title", 10).isEmpty());
+        assertTrue(index.suggest("sonic", 10).isEmpty());
+        assertEquals(Arrays.asList("Game 1999"), labels(index.suggest("1999", 10)));
+        assertEquals(2002, index.size());
+    }
+
+    @Test
+    void loadLeavesTheIdsWrittenBeforeIt() {
+        PrefixIndex loaded = new PrefixIndex();
+        UUID deleted = UUID.randomUUID();
+        loaded.put(prime, "Metroid Prime 4");
+        loaded.remove(deleted);
+
+        Map<UUID, String> rows = new HashMap<>();
+        rows.put(prime, "Metroid Prime");
+        rows.put(deleted, "Metroid Other M");
+        rows.put(dread, "Metroid Dread");
+        loaded.load(rows);
+
+        assertEquals(Arrays.asList("Metroid Dread", "Metroid Prime 4"), labels(loaded.suggest("metroid", 10)));
+    }
+
+    private static List<String> labels(final List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getLabel).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package com.aymeric.gamestore.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Trigram index tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class TrigramIndexTests {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    private final UUID prime = UUID.randomUUID();
+
+    private final UUID dread = UUID.randomUUID();
+
+    private final UUID sonic = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        index.put(prime, "Metroid Prime");
+        index.put(dread, "Metroid Dread");
+        index.put(sonic, "Sonic Adventure");
+    }
+
+    @Test
+    void findsSubstringsIgnoringCase() {
+        assertEquals(new HashSet<>(Arrays.asList(prime, dread)), new HashSet<>(index.search("METROID")));
+        assertEquals(Arrays.asList(sonic), index.search("c adv"));
+    }
+
+    @Test
+    void trigramsOutOfOrderDoNotMatch() {
+        // "ime" and "pri" are both in "Metroid Prime" but not "imepri"
+        assertTrue(index.search("imepri").isEmpty());
+        assertTrue(index.search("zelda").isEmpty());
+    }
+
+    @Test
+    void queriesShorterThanATrigramAreRefused() {
+        assertFalse(TrigramIndex.isSearchable("ro"));
+        assertTrue(TrigramIndex.isSearchable("roi"));
+        assertThrows(IllegalArgumentException.class, () -> index.search("ro"));
+        assertThrows(IllegalArgumentException.class, () -> index.search("", null, null, 10));
+    }
+
+    @Test
+    void reindexAndRemoveUpdateThePostings() {
+        index.put(prime, "Metroid Fusion");
+        assertTrue(index.search("prime").isEmpty());
+        assertEquals(Arrays.asList(prime), index.search("fusion"));
+
+        index.remove(dread);
+        assertEquals(Arrays.asList(prime), index.search("metroid"));
+        assertNull(index.get(dread));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void pagesFollowTheTextThenIdOrder() {
+        UUID otherPrime = new UUID(0, 1);
+        index.put(otherPrime, "metroid prime");
+        index.put(UUID.randomUUID(), "Metroid: Zero Mission");
+
+        List<Suggestion> first = index.search("roi", null, null, 2);
+        assertEquals(Arrays.asList("Metroid Dread", "Metroid Prime"), labels(first));
+
+        Suggestion last = first.get(1);
+        List<Suggestion> second = index.search("roi", last.getLabel(), last.getId(), 2);
+        assertEquals(Arrays.asList("metroid prime", "Metroid: Zero Mission"), labels(second));
+
+        Suggestion end = second.get(1);
+        assertTrue(index.search("roi", end.getLabel(), end.getId(), 2).isEmpty());
+    }
+
+    private static List<String> labels(final List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getLabel).collect(Collectors.toList());
+    }
+}
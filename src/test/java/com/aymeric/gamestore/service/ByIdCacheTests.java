@@ -0,0 +1,195 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.cache.CacheMetrics;
+import com.aymeric.gamestore.cache.CacheMultiGet;
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.MetricsCacheManager;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Check that developers and editors read by id are served from their cache until they are written
+ * @author Aymeric NEUMANN
+ *
+ */
+@SpringJUnitConfig
+class ByIdCacheTests {
+
+    @Configuration
+    @EnableCaching
+    @Import({ DeveloperService.class, EditorService.class, CatalogGeneration.class, SingleFlight.class, CacheMetrics.class })
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager(final CacheMetrics cacheMetrics) {
+            return new MetricsCacheManager(new ConcurrentMapCacheManager(CacheNames.DEVELOPER_BY_ID, CacheNames.EDITOR_BY_ID), cacheMetrics);
+        }
+    }
+
+    @MockBean
+    private DeveloperRepository devRepository;
+
+    @MockBean
+    private EditorRepository editorRepository;
+
+    @MockBean
+    private CacheMultiGet cacheMultiGet;
+
+    @MockBean
+    private CatalogSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @MockBean
+    private GameReadModelService readModel;
+
+    @MockBean(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DeveloperService devService;
+
+    @Autowired
+    private EditorService editorService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheNames.DEVELOPER_BY_ID).clear();
+        cacheManager.getCache(CacheNames.EDITOR_BY_ID).clear();
+    }
+
+    @Test
+    void secondDeveloperLookupSkipsTheRepository() {
+        Developer dev = developer("Retro Studios");
+        when(devRepository.findById(dev.getId())).thenReturn(Optional.of(dev));
+
+        assertSame(dev, devService.getDeveloppersById(dev.getId()));
+        assertSame(dev, devService.getDeveloppersById(dev.getId()));
+
+        verify(devRepository, times(1)).findById(dev.getId());
+    }
+
+    @Test
+    void developerLookupMissRecordsALoad() {
+        Developer dev = developer("Retro Studios");
+        when(devRepository.findById(dev.getId())).thenReturn(Optional.of(dev));
+        long loads = cacheMetrics.forCache(CacheNames.DEVELOPER_BY_ID).getLoads().getCount();
+
+        devService.getDeveloppersById(dev.getId());
+        devService.getDeveloppersById(dev.getId());
+
+        assertEquals(loads + 1, cacheMetrics.forCache(CacheNames.DEVELOPER_BY_ID).getLoads().getCount());
+    }
+
+    @Test
+    void deletedDeveloperIsEvicted() {
+        Developer dev = developer("Retro Studios");
+        when(devRepository.findById(dev.getId())).thenReturn(Optional.of(dev));
+        when(devRepository.existsById(dev.getId())).thenReturn(true);
+        devService.getDeveloppersById(dev.getId());
+
+        devService.deleteDevelopper(dev.getId());
+
+        assertNull(cacheManager.getCache(CacheNames.DEVELOPER_BY_ID).get(dev.getId()));
+        devService.getDeveloppersById(dev.getId());
+        verify(devRepository, times(2)).findById(dev.getId());
+    }
+
+    @Test
+    void updatedDeveloperReplacesTheCachedOne() {
+        Developer dev = developer("Retro Studios");
+        Editor owner = editor("Nintendo");
+        when(devRepository.findById(dev.getId())).thenReturn(Optional.of(dev));
+        devService.getDeveloppersById(dev.getId());
+
+        devService.addOwner(dev.getId(), owner);
+
+        assertSame(owner, devService.getDeveloppersById(dev.getId()).getOwner());
+        // The first lookup and the read of the update, which does not go through the cache
+        verify(devRepository, times(2)).findById(dev.getId());
+    }
+
+    @Test
+    void secondEditorLookupSkipsTheRepository() {
+        Editor editor = editor("Nintendo");
+        when(editorRepository.findById(editor.getId())).thenReturn(Optional.of(editor));
+
+        assertSame(editor, editorService.getEditorById(editor.getId()));
+        assertSame(editor, editorService.getEditorById(editor.getId()));
+
+        verify(editorRepository, times(1)).findById(editor.getId());
+    }
+
+    @Test
+    void deletedEditorIsEvictedWithTheDevelopersItOwned() {
+        Editor editor = editor("Nintendo");
+        Developer dev = developer("Retro Studios");
+        when(editorRepository.findById(editor.getId())).thenReturn(Optional.of(editor));
+        when(editorRepository.existsById(editor.getId())).thenReturn(true);
+        when(devRepository.findById(dev.getId())).thenReturn(Optional.of(dev));
+        editorService.getEditorById(editor.getId());
+        devService.getDeveloppersById(dev.getId());
+
+        editorService.deleteEditor(editor.getId());
+
+        editorService.getEditorById(editor.getId());
+        devService.getDeveloppersById(dev.getId());
+        verify(editorRepository, times(2)).findById(editor.getId());
+        verify(devRepository, times(2)).findById(dev.getId());
+    }
+
+    private static Developer developer(final String name) {
+        Developer dev = new Developer();
+        ReflectionTestUtils.setField(dev, "id", UUID.randomUUID());
+        dev.setName(name);
+
+        return dev;
+    }
+
+    private static Editor editor(final String name) {
+        Editor editor = new Editor();
+        ReflectionTestUtils.setField(editor, "id", UUID.randomUUID());
+        editor.setName(name);
+
+        return editor;
+    }
+}
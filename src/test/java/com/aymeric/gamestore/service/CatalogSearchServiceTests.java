@@ -0,0 +1,141 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aymeric.gamestore.search.CatalogSearchResult;
+import com.aymeric.gamestore.search.SearchHit;
+import com.aymeric.gamestore.search.SearchResult;
+
+/**
+ * Catalog search tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class CatalogSearchServiceTests {
+
+    private final GameService gameService = mock(GameService.class);
+
+    private final DeveloperService devService = mock(DeveloperService.class);
+
+    private final EditorService editorService = mock(EditorService.class);
+
+    private final CatalogSearchService catalogSearchService = new CatalogSearchService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(catalogSearchService, "threads", 3);
+        ReflectionTestUtils.setField(catalogSearchService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(catalogSearchService, "timeoutMs", 200L);
+        ReflectionTestUtils.setField(catalogSearchService, "gameService", gameService);
+        ReflectionTestUtils.setField(catalogSearchService, "devService", devService);
+        ReflectionTestUtils.setField(catalogSearchService, "editorService", editorService);
+        catalogSearchService.start();
+
+        when(gameService.searchGames(anyString(), anyInt(), anyInt())).thenReturn(result("Metroid Prime"));
+        when(devService.searchDevelopers(anyString(), anyInt(), anyInt())).thenReturn(result("Retro Studios"));
+        when(editorService.searchEditors(anyString(), anyInt(), anyInt())).thenReturn(result("Nintendo"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogSearchService.stop();
+    }
+
+    @Test
+    void everySectionIsSearched() {
+        CatalogSearchResult result = catalogSearchService.search("retro", 5, 3, 2);
+
+        assertEquals("Metroid Prime", result.getGames().getHits().get(0).getLabel());
+        assertEquals("Retro Studios", result.getDevelopers().getHits().get(0).getLabel());
+        assertEquals("Nintendo", result.getEditors().getHits().get(0).getLabel());
+        assertFalse(result.isPartial());
+        verify(devService).searchDevelopers("retro", 0, 3);
+    }
+
+    @Test
+    void sectionsWithoutLimitAreSkipped() {
+        CatalogSearchResult result = catalogSearchService.search("retro", 5, 0, 0);
+
+        assertTrue(result.getDevelopers().getHits().isEmpty());
+        assertFalse(result.isPartial());
+        verifyNoInteractions(devService, editorService);
+    }
+
+    @Test
+    void slowOrFailingSectionsAreLeftEmpty() {
+        when(gameService.searchGames(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return result("Too late");
+        });
+        when(editorService.searchEditors(anyString(), anyInt(), anyInt())).thenThrow(new IllegalStateException("index closed"));
+
+        long start = System.currentTimeMillis();
+        CatalogSearchResult result = catalogSearchService.search("retro", 5, 5, 5);
+
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertTrue(result.getGames().getHits().isEmpty());
+        assertTrue(result.getEditors().getHits().isEmpty());
+        assertEquals(1, result.getDevelopers().getHits().size());
+        assertTrue(result.isPartial());
+    }
+
+    @Test
+    void searchesAbandonedAtTheTimeoutAreInterrupted() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(gameService.searchGames(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return result("Too late");
+        });
+
+        catalogSearchService.search("retro", 5, 5, 5);
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void searchesRefusedByAFullPoolAreLeftEmpty() throws InterruptedException {
+        catalogSearchService.stop();
+        ReflectionTestUtils.setField(catalogSearchService, "threads", 1);
+        ReflectionTestUtils.setField(catalogSearchService, "queueCapacity", 0);
+        catalogSearchService.start();
+        CountDownLatch release = new CountDownLatch(1);
+        when(gameService.searchGames(anyString(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            release.await();
+            return result("Metroid Prime");
+        });
+
+        CatalogSearchResult result = catalogSearchService.search("retro", 5, 5, 5);
+        release.countDown();
+
+        assertTrue(result.isPartial());
+        assertTrue(result.getDevelopers().getHits().isEmpty());
+        assertTrue(result.getEditors().getHits().isEmpty());
+        verifyNoInteractions(devService, editorService);
+    }
+
+    private static SearchResult result(final String label) {
+        return new SearchResult(0, 5, 1, Collections.singletonList(new SearchHit(UUID.randomUUID(), label, 1f)));
+    }
+}
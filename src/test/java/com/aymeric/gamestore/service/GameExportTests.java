@@ -0,0 +1,127 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.aymeric.gamestore.cache.CacheMetrics;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Export of the whole catalog read as a stream
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@Import({ GameService.class, CatalogGeneration.class, SingleFlight.class, CacheMetrics.class })
+class GameExportTests {
+
+    // More than the games exported between two clears of the persistence context
+    private static final int GAMES = 1200;
+
+    @MockBean
+    private CatalogSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @MockBean
+    private GameReadModelService readModel;
+
+    @MockBean
+    private GameRelationshipRepository relationshipRepository;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Editor nintendo = new Editor();
+        nintendo.setName("Nintendo");
+        entityManager.persist(nintendo);
+
+        Developer retro = new Developer();
+        retro.setName("Retro Studios");
+        retro.setOwner(nintendo);
+        entityManager.persist(retro);
+
+        Developer next = new Developer();
+        next.setName("Next Level Games");
+        next.setOwner(nintendo);
+        entityManager.persist(next);
+
+        for(int i = 0; i < GAMES; i++) {
+            Game game = new Game();
+            game.setTitle("Game " + i);
+            game.setReleaseDate(new Date());
+            game.setDevs(new HashSet<>(Arrays.asList(retro, next)));
+            game.setEditors(new HashSet<>(Collections.singletonList(nintendo)));
+            entityManager.persist(game);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void everyGameIsExportedOnceWithItsRelationships() {
+        List<UUID> ids = new ArrayList<>();
+
+        long exported = gameService.exportGames(game -> {
+            ids.add(game.getId());
+            assertEquals(2, game.getDevs().size());
+            assertEquals(1, game.getEditors().size());
+            game.getDevs().forEach(dev -> assertNotNull(dev.getOwner().getName()));
+        });
+
+        assertEquals(GAMES, exported);
+        assertEquals(GAMES, new HashSet<>(ids).size());
+
+        List<UUID> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted, (left, right) -> left.toString().compareTo(right.toString()));
+        assertEquals(sorted, ids);
+    }
+
+    @Test
+    void exportedGamesAreNotKept() {
+        List<Game> games = new ArrayList<>();
+
+        gameService.exportGames(games::add);
+
+        assertTrue(Hibernate.isInitialized(games.get(0).getDevs()));
+        assertFalse(entityManager.getEntityManager().contains(games.get(0)));
+        assertFalse(entityManager.getEntityManager().contains(games.get(GAMES - 1)));
+    }
+}
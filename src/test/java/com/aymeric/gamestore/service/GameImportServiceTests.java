@@ -0,0 +1,108 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Date;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Import of games by chunks
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "gamestore.import.chunk-size=3" })
+@Import({ GameImportService.class, CatalogGeneration.class })
+// Each chunk commits its own transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameImportServiceTests {
+
+    /** Lines are titles, "invalid" being refused by the validation. */
+    private static final Function<String, Game> PARSER = line -> {
+        if(line.equals("invalid")) {
+            throw new GamestoreInvalidParameterException("title must not be invalid");
+        }
+
+        Game game = new Game();
+        game.setTitle(line);
+        game.setReleaseDate(new Date());
+        return game;
+    };
+
+    @MockBean
+    private CatalogSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @MockBean
+    private GameReadModelService readModel;
+
+    @Autowired
+    private GameImportService importService;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @AfterEach
+    void tearDown() {
+        gameRepository.deleteAll();
+    }
+
+    @Test
+    void validRowsAreImportedByChunks() throws IOException {
+        ImportReport report = importService.importGames(reader("a\nb\n\nc\nd\ne"), PARSER);
+
+        assertEquals(5, report.getRead());
+        assertEquals(5, report.getImported());
+        assertEquals(5, gameRepository.count());
+        // Two chunks of 3 rows and 2 rows
+        verify(searchIndex, times(2)).indexGames(anyCollection());
+    }
+
+    @Test
+    void rejectedRowsAreReportedWithTheirLine() throws IOException {
+        String tooLong = new String(new char[300]).replace('\0', 'x');
+
+        ImportReport report = importService.importGames(reader("a\ninvalid\nb\n" + tooLong + "\nc"), PARSER);
+
+        assertEquals(5, report.getRead());
+        assertEquals(3, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("title must not be invalid", report.getErrors().get(0).getMessage());
+        // Refused by the database: its chunk is inserted again row by row
+        assertEquals(4, report.getErrors().get(1).getLine());
+        assertEquals(3, gameRepository.count());
+    }
+
+    private static BufferedReader reader(final String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
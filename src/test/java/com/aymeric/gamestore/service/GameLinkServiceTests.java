@@ -0,0 +1,200 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.configuration.ApplicationConfig;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameReadModelRepository;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+
+/**
+ * Addition of developpers and editors to games by batches, with chunks of 2 links and the second level cache on
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.jpa.properties.javax.persistence.sharedCache.mode=ENABLE_SELECTIVE",
+        "gamestore.link.chunk-size=2",
+        "gamestore.link.max-size=10" })
+@Import({ GameLinkService.class, GameReadModelService.class, GameRelationshipRepository.class, CatalogGeneration.class, ApplicationConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+// Chunks are committed in their own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameLinkServiceTests {
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @Autowired
+    private GameLinkService linkService;
+
+    @Autowired
+    private GameReadModelService readModel;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private DeveloperRepository devRepository;
+
+    @Autowired
+    private EditorRepository editorRepository;
+
+    @Autowired
+    private GameReadModelRepository readModelRepository;
+
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Developer dev;
+
+    private Editor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new Editor();
+        editor.setName("Nintendo");
+        editor = editorRepository.save(editor);
+
+        dev = new Developer();
+        dev.setName("Retro Studios");
+        dev = devRepository.save(dev);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readModelRepository.deleteAll();
+        gameRepository.deleteAll();
+        devRepository.deleteAll();
+        editorRepository.deleteAll();
+    }
+
+    @Test
+    void everyLinkGetsItsOwnResult() {
+        Game prime = game("Metroid Prime");
+        Game echoes = game("Metroid Prime 2: Echoes");
+        UUID unknown = UUID.randomUUID();
+        String tag = catalogGeneration.tag();
+
+        List<GameLink> links = linkService.linkGames(Arrays.asList(
+                new GameLink(prime.getId(), dev.getId(), editor.getId()),
+                new GameLink(echoes.getId(), null, editor.getId()),
+                // Given twice, in another chunk
+                new GameLink(prime.getId(), dev.getId(), null),
+                new GameLink(unknown, dev.getId(), editor.getId()),
+                new GameLink(echoes.getId(), unknown, null)));
+
+        assertEquals(LinkStatus.LINKED, links.get(0).getDevStatus());
+        assertEquals(LinkStatus.LINKED, links.get(0).getEditorStatus());
+        assertNull(links.get(1).getDevStatus());
+        assertEquals(LinkStatus.LINKED, links.get(1).getEditorStatus());
+        assertEquals(LinkStatus.ALREADY_LINKED, links.get(2).getDevStatus());
+        assertEquals(LinkStatus.GAME_NOT_FOUND, links.get(3).getDevStatus());
+        assertEquals(LinkStatus.GAME_NOT_FOUND, links.get(3).getEditorStatus());
+        assertEquals(LinkStatus.TARGET_NOT_FOUND, links.get(4).getDevStatus());
+
+        assertEquals(1, count("game_developer"));
+        assertEquals(2, count("game_editor"));
+        assertTrue(readModel.getGame(prime.getId()).get().getDocument().contains("Retro Studios"));
+        assertTrue(readModel.getGame(echoes.getId()).get().getDocument().contains("Nintendo"));
+        assertTrue(!tag.equals(catalogGeneration.tag()));
+    }
+
+    @Test
+    void linkGivenTwiceInAChunkIsAddedOnce() {
+        Game prime = game("Metroid Prime");
+
+        List<GameLink> links = linkService.linkGames(Arrays.asList(
+                new GameLink(prime.getId(), dev.getId(), null),
+                new GameLink(prime.getId(), dev.getId(), null)));
+
+        assertEquals(LinkStatus.LINKED, links.get(0).getDevStatus());
+        assertEquals(LinkStatus.ALREADY_LINKED, links.get(1).getDevStatus());
+        assertEquals(1, count("game_developer"));
+        assertEquals(prime.getVersion() + 1, gameRepository.findById(prime.getId()).get().getVersion());
+    }
+
+    @Test
+    void relationshipsAreSeenDespiteTheCachedCollections() {
+        List<GameLink> links = new ArrayList<>();
+
+        for(int i = 0; i < 5; i++) {
+            links.add(new GameLink(game("Metroid " + i).getId(), dev.getId(), null));
+        }
+
+        // Puts the games of the developper in the second level cache
+        assertEquals(0, gamesOf(dev.getId()));
+
+        linkService.linkGames(links);
+
+        assertEquals(5, gamesOf(dev.getId()));
+    }
+
+    @Test
+    void tooManyLinksAreRefused() {
+        List<GameLink> links = Collections.nCopies(11, new GameLink(UUID.randomUUID(), dev.getId(), null));
+
+        assertThrows(GamestoreInvalidParameterException.class, () -> linkService.linkGames(links));
+    }
+
+    private Game game(final String title) {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setReleaseDate(new Date());
+        game = gameRepository.save(game);
+        readModel.refreshGames(Collections.singletonList(game.getId()));
+        return game;
+    }
+
+    private int gamesOf(final UUID devId) {
+        return transactionTemplate.execute(status -> devRepository.findById(devId).get().getGames().size());
+    }
+
+    private int count(final String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
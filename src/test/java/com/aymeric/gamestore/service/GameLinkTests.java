@@ -0,0 +1,172 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CacheMetrics;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.configuration.ApplicationConfig;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameReadModelRepository;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Addition of developpers and editors to games by inserts in the join tables, with the second level cache on
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.jpa.properties.javax.persistence.sharedCache.mode=ENABLE_SELECTIVE" })
+@Import({ GameService.class, GameReadModelService.class, GameRelationshipRepository.class, CatalogGeneration.class, SingleFlight.class, CacheMetrics.class, ApplicationConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+// Relationships are committed in their own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameLinkTests {
+
+    @MockBean
+    private CatalogSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameReadModelService readModel;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private DeveloperRepository devRepository;
+
+    @Autowired
+    private EditorRepository editorRepository;
+
+    @Autowired
+    private GameReadModelRepository readModelRepository;
+
+    @Autowired
+    private CatalogGeneration catalogGeneration;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Game game;
+
+    private Developer dev;
+
+    private Editor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new Editor();
+        editor.setName("Nintendo");
+        editor = editorRepository.save(editor);
+
+        dev = new Developer();
+        dev.setName("Retro Studios");
+        dev = devRepository.save(dev);
+
+        game = new Game();
+        game.setTitle("Metroid Prime");
+        game.setReleaseDate(new Date());
+        game = gameRepository.save(game);
+        readModel.refreshGames(Collections.singletonList(game.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        readModelRepository.deleteAll();
+        gameRepository.deleteAll();
+        devRepository.deleteAll();
+        editorRepository.deleteAll();
+    }
+
+    @Test
+    void relationshipIsSeenDespiteTheCachedCollections() {
+        // Puts the games of the developper, never read again by the game view, in the second level cache
+        assertEquals(0, gamesOf(dev.getId()));
+        String tag = catalogGeneration.tag();
+
+        assertEquals(LinkStatus.LINKED, gameService.linkDeveloper(game.getId(), dev.getId()));
+        assertEquals(LinkStatus.LINKED, gameService.linkEditor(game.getId(), editor.getId()));
+
+        assertEquals(1, gamesOf(dev.getId()));
+        assertEquals(1, devsOf(game.getId()));
+        assertEquals(2, gameRepository.findById(game.getId()).get().getVersion() - game.getVersion());
+        assertTrue(readModel.getGame(game.getId()).get().getDocument().contains("Retro Studios"));
+        assertTrue(readModel.getGame(game.getId()).get().getDocument().contains("Nintendo"));
+        assertTrue(!tag.equals(catalogGeneration.tag()));
+    }
+
+    @Test
+    void relationshipAddedTwiceIsKeptOnce() {
+        gameService.linkDeveloper(game.getId(), dev.getId());
+        long version = gameRepository.findById(game.getId()).get().getVersion();
+
+        assertEquals(LinkStatus.ALREADY_LINKED, gameService.linkDeveloper(game.getId(), dev.getId()));
+
+        assertEquals(1, countLinks());
+        assertEquals(version, gameRepository.findById(game.getId()).get().getVersion());
+    }
+
+    @Test
+    void unknownIdsAreRefusedWithoutChange() {
+        assertEquals(LinkStatus.GAME_NOT_FOUND, gameService.linkDeveloper(UUID.randomUUID(), dev.getId()));
+        assertEquals(LinkStatus.TARGET_NOT_FOUND, gameService.linkDeveloper(game.getId(), UUID.randomUUID()));
+        assertEquals(LinkStatus.TARGET_NOT_FOUND, gameService.linkEditor(game.getId(), UUID.randomUUID()));
+
+        assertEquals(0, countLinks());
+        // The increment of the version is rolled back with the refused insert
+        assertEquals(game.getVersion(), gameRepository.findById(game.getId()).get().getVersion());
+    }
+
+    private int devsOf(final UUID gameId) {
+        return transactionTemplate.execute(status -> gameRepository.findById(gameId).get().getDevs().size());
+    }
+
+    private int gamesOf(final UUID devId) {
+        return transactionTemplate.execute(status -> devRepository.findById(devId).get().getGames().size());
+    }
+
+    private int countLinks() {
+        return jdbcTemplate.queryForObject("select count(*) from game_developer", Integer.class);
+    }
+}
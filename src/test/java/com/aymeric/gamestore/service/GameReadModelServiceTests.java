@@ -0,0 +1,269 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.configuration.ApplicationConfig;
+import com.aymeric.gamestore.entity.Developer;
+import com.aymeric.gamestore.entity.Editor;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.entity.GameReadModel;
+import com.aymeric.gamestore.exception.GamestoreEntityException;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.EditorRepository;
+import com.aymeric.gamestore.repository.GameReadModelRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Denormalized views of the games, written from their tables
+ * @author Aymeric NEUMANN
+ *
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false" })
+@Import({ GameReadModelService.class, CatalogGeneration.class, ApplicationConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+// Views are written in their own transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameReadModelServiceTests {
+
+    @TestConfiguration
+    @EnableCaching
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheNames.GAME_VIEW_BY_ID);
+        }
+    }
+
+    @Autowired
+    private GameReadModelService readModel;
+
+    @Autowired
+    private GameReadModelRepository readModelRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private DeveloperRepository devRepository;
+
+    @Autowired
+    private EditorRepository editorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Editor nintendo;
+
+    private Developer retro;
+
+    private Game prime;
+
+    @BeforeEach
+    void setUp() {
+        nintendo = new Editor();
+        nintendo.setName("Nintendo");
+        nintendo = editorRepository.save(nintendo);
+
+        retro = new Developer();
+        retro.setName("Retro Studios");
+        retro.setOwner(nintendo);
+        retro = devRepository.save(retro);
+
+        prime = game("Metroid Prime");
+        prime.setDevs(new HashSet<>(Collections.singletonList(retro)));
+        prime.setEditors(new HashSet<>(Collections.singletonList(nintendo)));
+        prime = gameRepository.save(prime);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readModelRepository.deleteAll();
+        cacheManager.getCache(CacheNames.GAME_VIEW_BY_ID).clear();
+        gameRepository.deleteAll();
+        devRepository.deleteAll();
+        editorRepository.deleteAll();
+    }
+
+    @Test
+    void viewHoldsTheGameWithItsRelationships() throws Exception {
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+
+        JsonNode document = objectMapper.readTree(readModel.getGame(prime.getId()).get().getDocument());
+
+        assertEquals(prime.getId().toString(), document.get("id").asText());
+        assertEquals("Metroid Prime", document.get("title").asText());
+        assertEquals("Retro Studios", document.get("devs").get(0).get("name").asText());
+        assertEquals("Nintendo", document.get("devs").get(0).get("owner").get("name").asText());
+        assertEquals("Nintendo", document.get("editors").get(0).get("name").asText());
+    }
+
+    @Test
+    void versionOnlyChangesWithTheDocument() {
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+        long written = readModel.getGame(prime.getId()).get().getVersion();
+
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+        assertEquals(written, readModel.getGame(prime.getId()).get().getVersion());
+
+        nintendo.setName("Nintendo EAD");
+        editorRepository.save(nintendo);
+        readModel.refreshGames(readModel.findGamesOfEditor(nintendo.getId()));
+
+        GameReadModel view = readModel.getGame(prime.getId()).get();
+        assertNotEquals(written, view.getVersion());
+        assertTrue(view.getDocument().contains("Nintendo EAD"));
+    }
+
+    @Test
+    void viewReadByIdIsCachedUntilItIsWrittenAgain() {
+        Cache views = cacheManager.getCache(CacheNames.GAME_VIEW_BY_ID);
+        UUID unknown = UUID.randomUUID();
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+
+        readModel.getGame(prime.getId());
+        readModel.getGame(unknown);
+
+        assertNotNull(views.get(prime.getId()));
+        assertNull(views.get(unknown));
+
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+
+        assertNull(views.get(prime.getId()));
+    }
+
+    @Test
+    void cachedViewIsOnlyEvictedOnceTheWriteIsCommitted() {
+        Cache views = cacheManager.getCache(CacheNames.GAME_VIEW_BY_ID);
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+        readModel.getGame(prime.getId());
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            readModel.removeGame(prime.getId());
+            assertNotNull(views.get(prime.getId()));
+            throw new IllegalStateException("Rolled back");
+        }));
+
+        assertNotNull(views.get(prime.getId()));
+        transactionTemplate.executeWithoutResult(status -> readModel.removeGame(prime.getId()));
+        assertNull(views.get(prime.getId()));
+    }
+
+    @Test
+    void gamesOfAnEditorIncludeTheGamesOfItsStudios() {
+        Game echoes = game("Metroid Prime 2: Echoes");
+        echoes.setDevs(new HashSet<>(Collections.singletonList(retro)));
+        echoes = gameRepository.save(echoes);
+        gameRepository.save(game("Tetris"));
+
+        assertEquals(new HashSet<>(Arrays.asList(prime.getId(), echoes.getId())), new HashSet<>(readModel.findGamesOfEditor(nintendo.getId())));
+        assertEquals(new HashSet<>(Arrays.asList(prime.getId(), echoes.getId())), new HashSet<>(readModel.findGamesOfDeveloper(retro.getId())));
+    }
+
+    @Test
+    void startupWritesMissingViewsAndDeletesOrphans() {
+        Game tetris = gameRepository.save(game("Tetris"));
+        readModel.refreshGames(Collections.singletonList(tetris.getId()));
+        // A view left by a game deleted without its view
+        UUID deleted = gameRepository.save(game("Deleted")).getId();
+        readModel.refreshGames(Collections.singletonList(deleted));
+        jdbcTemplate.update("delete from game where title = 'Deleted'");
+
+        readModel.run(null);
+
+        assertTrue(readModel.getGame(prime.getId()).isPresent());
+        assertTrue(readModel.getGame(tetris.getId()).isPresent());
+        assertFalse(readModel.getGame(deleted).isPresent());
+    }
+
+    @Test
+    void pagesAreInTitleOrder() {
+        gameRepository.save(game("Tetris"));
+        gameRepository.save(game("Animal Crossing"));
+        readModel.run(null);
+
+        List<String> titles = readModel.getGames(0).map(GameReadModel::getTitle).getContent();
+
+        assertEquals(Arrays.asList("Animal Crossing", "Metroid Prime", "Tetris"), titles);
+        assertEquals(3, readModel.getGames(0).getTotalElements());
+    }
+
+    @Test
+    void viewOfADeletedGameIsDeleted() {
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+        gameRepository.deleteById(prime.getId());
+
+        readModel.removeGame(prime.getId());
+
+        assertFalse(readModel.getGame(prime.getId()).isPresent());
+        assertThrows(GamestoreEntityException.class, () -> readModel.refreshGame(prime.getId()));
+    }
+
+    @Test
+    void missingViewsAreWrittenOnTheirFirstMultiGet() {
+        Game tetris = gameRepository.save(game("Tetris"));
+        readModel.refreshGames(Collections.singletonList(prime.getId()));
+        UUID unknown = UUID.randomUUID();
+
+        assertEquals(Collections.singleton(prime.getId()), readModel.getGames(Arrays.asList(prime.getId(), tetris.getId(), unknown)).keySet());
+        assertEquals(Collections.singleton(tetris.getId()), readModel.refreshGameViews(Arrays.asList(tetris.getId(), unknown)).keySet());
+        assertEquals(2, readModel.getGames(Arrays.asList(prime.getId(), tetris.getId(), unknown)).size());
+    }
+
+    private static Game game(final String title) {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setReleaseDate(new Date());
+        return game;
+    }
+}
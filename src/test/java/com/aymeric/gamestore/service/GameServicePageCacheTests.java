@@ -0,0 +1,162 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aymeric.gamestore.cache.CacheMetrics;
+import com.aymeric.gamestore.cache.CacheNames;
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.cache.PageResponseCacheFilter;
+import com.aymeric.gamestore.cache.SingleFlight;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.GameRelationshipRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Check that a cached page of games is never served after a write of the game service:
+ * the next read of the page misses the page response cache and is rendered again
+ * @author Aymeric NEUMANN
+ *
+ */
+@SpringJUnitConfig
+class GameServicePageCacheTests {
+
+    @Configuration
+    @Import({ GameService.class, CatalogGeneration.class, SingleFlight.class, CacheMetrics.class, PageResponseCacheFilter.class })
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheNames.PAGE_RESPONSES);
+        }
+    }
+
+    @MockBean
+    private GameRepository gameRepository;
+
+    @MockBean
+    private CatalogSearchIndex searchIndex;
+
+    @MockBean
+    private CatalogFullTextIndex fullTextIndex;
+
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private GameReadModelService readModel;
+
+    @MockBean
+    private GameRelationshipRepository relationshipRepository;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private PageResponseCacheFilter filter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheNames.PAGE_RESPONSES).clear();
+    }
+
+    @Test
+    void createdGameMakesTheCachedPageMiss() throws Exception {
+        Game created = mock(Game.class);
+        when(created.getId()).thenReturn(UUID.randomUUID());
+        when(gameRepository.save(any(Game.class))).thenReturn(created);
+        readPage();
+
+        gameService.createGame(created);
+
+        assertEquals("{\"render\":2}", readPage());
+    }
+
+    @Test
+    void createdGamesMakeTheCachedPageMiss() throws Exception {
+        when(gameRepository.saveAll(anyList())).thenReturn(Collections.emptyList());
+        readPage();
+
+        gameService.createGames(Collections.emptyList());
+
+        assertEquals("{\"render\":2}", readPage());
+    }
+
+    @Test
+    void deletedGameMakesTheCachedPageMiss() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(gameRepository.existsById(id)).thenReturn(true);
+        readPage();
+
+        gameService.deleteGame(id);
+
+        assertEquals("{\"render\":2}", readPage());
+    }
+
+    @Test
+    void deleteOfAMissingGameKeepsTheCachedPage() throws Exception {
+        readPage();
+
+        gameService.deleteGame(UUID.randomUUID());
+
+        assertEquals("{\"render\":1}", readPage());
+    }
+
+    /**
+     * @return the body of the first page of games, served by the cache or rendered with its number
+     */
+    private String readPage() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/games/0"), response, new MockFilterChain(new HttpServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"render\":" + renders.incrementAndGet() + "}");
+            }
+        }));
+
+        return response.getContentAsString();
+    }
+}
@@ -0,0 +1,128 @@
+package com.aymeric.gamestore.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.aymeric.gamestore.cache.CatalogGeneration;
+import com.aymeric.gamestore.entity.Game;
+import com.aymeric.gamestore.repository.DeveloperRepository;
+import com.aymeric.gamestore.repository.GameRepository;
+import com.aymeric.gamestore.search.CatalogFullTextIndex;
+import com.aymeric.gamestore.search.CatalogSearchIndex;
+
+/**
+ * Search indexes updated once the writes are committed, never for a rolled back write
+ * @author Aymeric NEUMANN
+ *
+ */
+class IndexAfterCommitTests {
+
+    private final GameRepository gameRepository = mock(GameRepository.class);
+
+    private final DeveloperRepository devRepository = mock(DeveloperRepository.class);
+
+    private final GameReadModelService readModel = mock(GameReadModelService.class);
+
+    private final CatalogSearchIndex searchIndex = mock(CatalogSearchIndex.class);
+
+    private final CatalogFullTextIndex fullTextIndex = mock(CatalogFullTextIndex.class);
+
+    private final GameService gameService = new GameService();
+
+    private final DeveloperService devService = new DeveloperService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gameService, "gameRepository", gameRepository);
+        ReflectionTestUtils.setField(devService, "devRepository", devRepository);
+
+        for(Object service : new Object[] { gameService, devService }) {
+            ReflectionTestUtils.setField(service, "readModel", readModel);
+            ReflectionTestUtils.setField(service, "catalogGeneration", new CatalogGeneration());
+            ReflectionTestUtils.setField(service, "searchIndex", searchIndex);
+            ReflectionTestUtils.setField(service, "fullTextIndex", fullTextIndex);
+        }
+
+        // Stands for the transaction of the service
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createdGameIsIndexedAfterTheCommit() {
+        Game game = game();
+        when(gameRepository.save(game)).thenReturn(game);
+
+        gameService.createGame(game);
+
+        verifyNoInteractions(searchIndex, fullTextIndex);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(searchIndex).indexGames(Collections.singletonList(game));
+        verify(fullTextIndex).indexGames(Collections.singletonList(game));
+    }
+
+    @Test
+    void deletedGameIsKeptInTheIndexesIfTheDeleteIsRolledBack() {
+        UUID id = UUID.randomUUID();
+        when(gameRepository.existsById(id)).thenReturn(true);
+
+        gameService.deleteGame(id);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(searchIndex, never()).removeGame(any());
+        verify(fullTextIndex, never()).removeGame(any());
+    }
+
+    @Test
+    void deletedDevelopperIsRemovedAfterTheCommit() {
+        UUID id = UUID.randomUUID();
+        when(devRepository.existsById(id)).thenReturn(true);
+
+        devService.deleteDevelopper(id);
+
+        verifyNoInteractions(searchIndex, fullTextIndex);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(searchIndex).removeDeveloper(id);
+        verify(fullTextIndex).removeDeveloper(id);
+    }
+
+    @Test
+    void indexesAreUpdatedAtOnceOutsideOfATransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        Game game = game();
+        when(gameRepository.save(game)).thenReturn(game);
+
+        gameService.createGame(game);
+
+        verify(searchIndex).indexGames(Collections.singletonList(game));
+    }
+
+    private static Game game() {
+        Game game = new Game();
+        ReflectionTestUtils.setField(game, "id", UUID.randomUUID());
+        game.setTitle("Metroid Prime");
+
+        return game;
+    }
+}
@@ -0,0 +1,48 @@
+package com.aymeric.gamestore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.aymeric.gamestore.exception.GamestoreInvalidParameterException;
+
+/**
+ * Seek cursor and cursor page tests
+ * @author Aymeric NEUMANN
+ *
+ */
+class SeekCursorTests {
+
+    @Test
+    void cursorSurvivesItsToken() {
+        UUID id = UUID.randomUUID();
+        SeekCursor cursor = SeekCursor.decode(new SeekCursor("Pokémon: Let's Go/Évoli?", id).encode());
+
+        assertEquals("Pokémon: Let's Go/Évoli?", cursor.getKey());
+        assertEquals(id, cursor.getId());
+    }
+
+    @Test
+    void foreignTokensAreRejected() {
+        assertThrows(GamestoreInvalidParameterException.class, () -> SeekCursor.decode("not a cursor"));
+        assertThrows(GamestoreInvalidParameterException.class, () -> SeekCursor.decode("c2hvcnQ"));
+    }
+
+    @Test
+    void pageHasANextCursorOnlyIfMoreWasRead() {
+        List<String> read = Arrays.asList("a", "b", "c");
+        UUID id = UUID.randomUUID();
+
+        CursorPage<String> page = CursorPage.of(read, 2, title -> new SeekCursor(title, id));
+        assertEquals(Arrays.asList("a", "b"), page.getContent());
+        assertEquals("b", SeekCursor.decode(page.getNextCursor()).getKey());
+
+        assertNull(CursorPage.of(read, 3, title -> new SeekCursor(title, id)).getNextCursor());
+    }
+}